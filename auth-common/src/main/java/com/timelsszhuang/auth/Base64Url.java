@@ -0,0 +1,54 @@
+package com.timelsszhuang.auth;
+
+import java.util.Arrays;
+
+/**
+ * base64url（无填充）解码，直接在 Token 的 ASCII 字节上按区间解码，不截取子串
+ *
+ * @author timelsszhuang
+ */
+final class Base64Url {
+
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    /**
+     * 解码 src[from, to)
+     *
+     * @throws InvalidTokenException 含非法字符或长度不合法
+     */
+    static byte[] decode(byte[] src, int from, int to) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            throw new InvalidTokenException("base64url 长度不合法");
+        }
+        byte[] out = new byte[length * 3 / 4];
+        int bits = 0;
+        int buffer = 0;
+        int position = 0;
+        for (int i = from; i < to; i++) {
+            int b = src[i];
+            int value = b >= 0 ? DECODE[b] : -1;
+            if (value < 0) {
+                throw new InvalidTokenException("base64url 含非法字符");
+            }
+            buffer = (buffer << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[position++] = (byte) (buffer >> bits);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,163 @@
+package com.timelsszhuang.auth;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 网关签发的身份断言
+ *
+ * 网关校验 JWT 后在请求头 X-Identity-Assertion 中附带用户、角色、过期时间、Token 引用和截断的 HMAC，
+ * 下游服务（以及经网关内部监听端口的服务间调用）只需一次 HMAC 和常量时间比较即可确认身份，不再解析 JWT。
+ * 格式：base64url(用户).base64url(角色).过期时间(秒).Token 引用.base64url(HMAC-SHA256 前 16 字节)
+ *
+ * Token 引用是 Token 签名段的前 20 个字符（与吊销列表的指纹相同），断言因此绑定到签发它的 Token：
+ * 网关按引用检查吊销，下游可以确认断言与请求携带的 Token 对应。
+ * 断言有效期很短（默认 60 秒，且不超过 Token 本身的过期时间），密钥只在网关与内部服务之间共享
+ *
+ * @author timelsszhuang
+ */
+public final class IdentityAssertion {
+
+    public static final String HEADER = "X-Identity-Assertion";
+
+    /**
+     * tokenRef 取签名段的字符数，与网关吊销列表的指纹一致
+     */
+    public static final int TOKEN_REF_CHARS = 20;
+
+    private static final int MAC_BYTES = 16;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+    private final long ttlSeconds;
+
+    /**
+     * @param secret 共享密钥（至少 256 bit）
+     * @param ttl    断言有效期
+     */
+    public IdentityAssertion(byte[] secret, Duration ttl) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("身份断言密钥至少需要 256 bit");
+        }
+        SecretKeySpec key = new SecretKeySpec(secret, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        this.ttlSeconds = ttl.getSeconds();
+    }
+
+    /**
+     * 签发断言
+     *
+     * @param username       用户名
+     * @param role           角色，可为空
+     * @param tokenExpiresAt Token 的过期时间（秒），0 表示没有
+     * @param token          断言对应的 Token（不带 Bearer 前缀）
+     */
+    public String issue(String username, String role, long tokenExpiresAt, String token) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        if (tokenExpiresAt > 0) {
+            expiresAt = Math.min(expiresAt, tokenExpiresAt);
+        }
+        String body = encode(username) + "." + encode(role != null ? role : "") + "." + expiresAt
+                + "." + tokenRef(token);
+        return body + "." + ENCODER.encodeToString(sign(body));
+    }
+
+    /**
+     * 校验断言
+     *
+     * @return 身份，断言缺失、格式错误、MAC 不符或已过期时返回 null
+     */
+    public Identity verify(String assertion) {
+        if (assertion == null) {
+            return null;
+        }
+        int macDot = assertion.lastIndexOf('.');
+        int refDot = macDot > 0 ? assertion.lastIndexOf('.', macDot - 1) : -1;
+        int expDot = refDot > 0 ? assertion.lastIndexOf('.', refDot - 1) : -1;
+        int roleDot = expDot > 0 ? assertion.lastIndexOf('.', expDot - 1) : -1;
+        if (roleDot <= 0) {
+            return null;
+        }
+        try {
+            String body = assertion.substring(0, macDot);
+            // 比较编码后的 MAC，末位字符的无效 bit 不同也视为不符
+            byte[] expected = ENCODER.encode(sign(body));
+            byte[] actual = assertion.substring(macDot + 1).getBytes(StandardCharsets.ISO_8859_1);
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(assertion, expDot + 1, refDot, 10);
+            if (System.currentTimeMillis() / 1000 > expiresAt) {
+                return null;
+            }
+            String role = decode(assertion.substring(roleDot + 1, expDot));
+            return new Identity(decode(assertion.substring(0, roleDot)), role.isEmpty() ? null : role, expiresAt,
+                    assertion.substring(refDot + 1, macDot));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Token 引用：签名段的前 20 个字符（不足时取整个签名段）
+     *
+     * @param token 完整 Token（不带 Bearer 前缀）
+     */
+    public static String tokenRef(String token) {
+        if (token == null) {
+            return "";
+        }
+        int start = token.lastIndexOf('.') + 1;
+        return token.substring(start, Math.min(token.length(), start + TOKEN_REF_CHARS));
+    }
+
+    private byte[] sign(String body) {
+        Mac instance = mac.get();
+        return Arrays.copyOf(instance.doFinal(body.getBytes(StandardCharsets.UTF_8)), MAC_BYTES);
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 断言中的身份
+     *
+     * @param username  用户名
+     * @param role      角色，可能为 null
+     * @param expiresAt 过期时间（秒）
+     * @param tokenRef  断言对应的 Token 引用（见 {@link #tokenRef}）
+     */
+    public record Identity(String username, String role, long expiresAt, String tokenRef) {
+
+        /**
+         * 断言是否由该 Token 签发（常量时间比较）
+         *
+         * @param token 完整 Token（不带 Bearer 前缀），为 null 时返回 false
+         */
+        public boolean isIssuedFor(String token) {
+            return token != null && !tokenRef.isEmpty() && MessageDigest.isEqual(
+                    tokenRef.getBytes(StandardCharsets.ISO_8859_1),
+                    IdentityAssertion.tokenRef(token).getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+}
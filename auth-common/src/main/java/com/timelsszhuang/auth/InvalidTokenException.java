@@ -0,0 +1,17 @@
+package com.timelsszhuang.auth;
+
+/**
+ * Token 无效（格式错误、签名不符、kid 未知、已过期等）
+ *
+ * @author timelsszhuang
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+
+    public InvalidTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
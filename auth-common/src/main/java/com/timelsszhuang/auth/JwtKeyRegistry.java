@@ -0,0 +1,304 @@
+package com.timelsszhuang.auth;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKey;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 签名密钥注册表
+ *
+ * 按 JWT 头部的 kid 选择校验密钥，每个密钥预先构建好可复用的 TokenVerifier，
+ * 轮换密钥时不会出现首次解析变慢。校验只解析一次头部、一次载荷（HS256 不经过 jjwt）。
+ * 密钥文件格式（properties）：
+ * <pre>
+ * # 签发新 Token 使用的 kid
+ * active=2024-10
+ * # HS256：kid=Base64 编码的 HMAC 密钥（至少 256 bit），旧密钥保留到其签发的 Token 全部过期
+ * keys.2024-01=...
+ * # ES256：公钥为 X.509 DER 的 Base64，私钥为 PKCS#8 DER 的 Base64，只有签发 Token 的服务配置私钥
+ * # openssl ecparam -genkey -name prime256v1 | openssl pkcs8 -topk8 -nocrypt -outform DER | base64 -w0
+ * public.2024-10=MFkw...
+ * private.2024-10=MIGH...
+ * # 迁移期间接受没有 kid 的旧 Token（用内置 HMAC 密钥校验），默认不接受；
+ * # 开启时必须同时配置截止时间（ISO-8601），超过后即使未修改文件也不再接受
+ * legacy.enabled=true
+ * legacy.until=2024-11-01T00:00:00Z
+ * </pre>
+ * 文件修改后自动重新加载；加载失败时保留当前密钥。签名算法由 active 对应的密钥类型决定，
+ * 校验时 jjwt 会拒绝头部 alg 与密钥类型不一致的 Token
+ *
+ * @author timelsszhuang
+ */
+public class JwtKeyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRegistry.class);
+    private static final JsonFactory JSON = new JsonFactory();
+
+    public static final String LEGACY_KID = "legacy";
+
+    private static final String ACTIVE_PROPERTY = "active";
+    private static final String LEGACY_PROPERTY = "legacy.enabled";
+    private static final String LEGACY_UNTIL_PROPERTY = "legacy.until";
+    private static final String KEY_PROPERTY_PREFIX = "keys.";
+    private static final String PUBLIC_KEY_PROPERTY_PREFIX = "public.";
+    private static final String PRIVATE_KEY_PROPERTY_PREFIX = "private.";
+
+    private final Key legacyKey;
+    private volatile KeySet keySet;
+
+    private Path file;
+    private long lastModified;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * @param legacyKey 未配置密钥文件时使用的密钥；配置密钥文件后只在 legacy.enabled 期间用于校验没有 kid 的旧 Token
+     */
+    public JwtKeyRegistry(Key legacyKey) {
+        this.legacyKey = legacyKey;
+        this.keySet = new KeySet(LEGACY_KID, legacyKey, Map.of(LEGACY_KID, legacyKey), Long.MAX_VALUE);
+    }
+
+    /**
+     * 从密钥文件加载，并按间隔检查文件修改时间自动重新加载
+     */
+    public synchronized void watch(Path file, long reloadIntervalSeconds) {
+        this.file = file;
+        reload();
+        if (reloadIntervalSeconds > 0 && watcher == null) {
+            watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "jwt-key-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::reloadIfModified,
+                    reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    /**
+     * 重新加载密钥文件，失败时保留当前密钥
+     *
+     * @return 是否加载成功
+     */
+    public synchronized boolean reload() {
+        if (file == null) {
+            return false;
+        }
+        try {
+            // 先记录修改时间，文件有误时只在每次修改后报错一次
+            this.lastModified = Files.getLastModifiedTime(file).toMillis();
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            load(properties);
+            logger.info("JWT 密钥已加载: file={}, active={}, kids={}", file, keySet.activeKid, keySet.keys.keySet());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("JWT 密钥文件加载失败，保留当前密钥: file={}, error={}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 按密钥文件格式加载，整体替换当前密钥
+     *
+     * @throws IllegalStateException 内容不合法，当前密钥保持不变
+     */
+    public synchronized void load(Properties properties) {
+        Map<String, Key> keys = new LinkedHashMap<>();
+        Map<String, Key> privateKeys = new LinkedHashMap<>();
+        try {
+            for (String name : properties.stringPropertyNames()) {
+                String value = properties.getProperty(name).trim();
+                if (name.startsWith(KEY_PROPERTY_PREFIX)) {
+                    keys.put(name.substring(KEY_PROPERTY_PREFIX.length()), Keys.hmacShaKeyFor(Decoders.BASE64.decode(value)));
+                } else if (name.startsWith(PUBLIC_KEY_PROPERTY_PREFIX)) {
+                    keys.put(name.substring(PUBLIC_KEY_PROPERTY_PREFIX.length()),
+                            KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(Decoders.BASE64.decode(value))));
+                } else if (name.startsWith(PRIVATE_KEY_PROPERTY_PREFIX)) {
+                    privateKeys.put(name.substring(PRIVATE_KEY_PROPERTY_PREFIX.length()),
+                            KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(value))));
+                }
+            }
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new IllegalStateException("密钥格式错误: " + e.getMessage(), e);
+        }
+        String activeKid = properties.getProperty(ACTIVE_PROPERTY, "").trim();
+        if (!keys.containsKey(activeKid)) {
+            throw new IllegalStateException("active 指定的 kid 不存在: " + activeKid);
+        }
+        if (!privateKeys.keySet().stream().allMatch(keys::containsKey)) {
+            throw new IllegalStateException("私钥缺少对应的公钥: " + privateKeys.keySet());
+        }
+        // HMAC 密钥既能签名也能校验；ES256 只有配置了私钥的服务才能签发
+        Key signingKey = keys.get(activeKid) instanceof SecretKey ? keys.get(activeKid) : privateKeys.get(activeKid);
+        // 内置密钥写在代码里，配置了密钥文件后默认不再接受，迁移期间需显式开启并给出截止时间
+        long legacyUntil = 0;
+        if (Boolean.parseBoolean(properties.getProperty(LEGACY_PROPERTY, "false").trim())) {
+            String until = properties.getProperty(LEGACY_UNTIL_PROPERTY, "").trim();
+            if (until.isEmpty()) {
+                throw new IllegalStateException("legacy.enabled=true 时必须配置 legacy.until");
+            }
+            try {
+                legacyUntil = Instant.parse(until).toEpochMilli();
+            } catch (DateTimeParseException e) {
+                throw new IllegalStateException("legacy.until 格式错误: " + until, e);
+            }
+            keys.putIfAbsent(LEGACY_KID, legacyKey);
+        }
+        this.keySet = new KeySet(activeKid, signingKey, keys, legacyUntil);
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (Files.getLastModifiedTime(file).toMillis() != lastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            logger.warn("JWT 密钥文件不可读: {}", file);
+        }
+    }
+
+    /**
+     * 用当前 active 密钥签名，同时写入 kid 头（从同一个快照读取，重新加载时不会错配）
+     *
+     * @throws IllegalStateException 当前服务只有 active 的公钥，不能签发 Token
+     */
+    public JwtBuilder sign(JwtBuilder builder) {
+        KeySet current = this.keySet;
+        if (current.signingKey == null) {
+            throw new IllegalStateException("未配置 kid=" + current.activeKid + " 的私钥，当前服务不能签发 Token");
+        }
+        SignatureAlgorithm algorithm = current.signingKey instanceof SecretKey
+                ? SignatureAlgorithm.HS256 : SignatureAlgorithm.ES256;
+        return builder.setHeaderParam("kid", current.activeKid)
+                .signWith(current.signingKey, algorithm);
+    }
+
+    /**
+     * 校验 Token：解析头部取 kid 和 alg，用对应的预构建校验器校验签名并解析载荷，最后检查有效期
+     *
+     * @throws InvalidTokenException Token 无效
+     */
+    public TokenClaims verify(String token) {
+        if (token == null) {
+            throw new InvalidTokenException("Token 为空");
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || token.indexOf('.', firstDot + 1) != lastDot || lastDot == token.length() - 1) {
+            throw new InvalidTokenException("Token 格式错误");
+        }
+        byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+
+        String kid = null;
+        String algorithm = null;
+        try (JsonParser parser = JSON.createParser(Base64Url.decode(ascii, 0, firstDot))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidTokenException("Token 头部不是 JSON 对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("kid".equals(name) && value == JsonToken.VALUE_STRING) {
+                    kid = parser.getText();
+                } else if ("alg".equals(name) && value == JsonToken.VALUE_STRING) {
+                    algorithm = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidTokenException("Token 头部无法解析", e);
+        }
+
+        KeySet current = this.keySet;
+        String resolvedKid = kid != null ? kid : LEGACY_KID;
+        TokenVerifier verifier = current.verifiers.get(resolvedKid);
+        if (verifier == null) {
+            throw new InvalidTokenException("未知的 kid: " + kid);
+        }
+        long now = System.currentTimeMillis();
+        if (current.keys.get(resolvedKid) == legacyKey && now >= current.legacyUntil) {
+            throw new InvalidTokenException("已停止接受内置密钥签发的 Token");
+        }
+        TokenClaims claims = verifier.verify(token, ascii, firstDot, lastDot, algorithm);
+        claims.checkTime(now);
+        return claims;
+    }
+
+    public Map<String, Object> getStats() {
+        KeySet current = this.keySet;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", current.activeKid);
+        stats.put("algorithm", current.keys.get(current.activeKid) instanceof SecretKey ? "HS256" : "ES256");
+        stats.put("canSign", current.signingKey != null);
+        stats.put("kids", current.keys.keySet());
+        if (current.keys.containsKey(LEGACY_KID) && current.legacyUntil != Long.MAX_VALUE) {
+            stats.put("legacyUntil", Instant.ofEpochMilli(current.legacyUntil).toString());
+        }
+        stats.put("file", file != null ? file.toString() : "");
+        return stats;
+    }
+
+    /**
+     * 不可变的密钥快照，重新加载时整体替换
+     */
+    private static final class KeySet {
+
+        private final String activeKid;
+        private final Key signingKey;
+        private final Map<String, Key> keys;
+        private final Map<String, TokenVerifier> verifiers;
+        /**
+         * 内置密钥的截止时间（毫秒），未配置密钥文件时不限
+         */
+        private final long legacyUntil;
+
+        KeySet(String activeKid, Key signingKey, Map<String, Key> keys, long legacyUntil) {
+            this.activeKid = activeKid;
+            this.legacyUntil = legacyUntil;
+            this.signingKey = signingKey;
+            this.keys = Collections.unmodifiableMap(new LinkedHashMap<>(keys));
+            Map<String, TokenVerifier> verifiers = new LinkedHashMap<>();
+            keys.forEach((kid, key) -> verifiers.put(kid, TokenVerifier.of(key)));
+            this.verifiers = Collections.unmodifiableMap(verifiers);
+        }
+    }
+}
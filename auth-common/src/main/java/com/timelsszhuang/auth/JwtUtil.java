@@ -1,26 +1,23 @@
-package com.timelsszhuang.gateway.util;
+package com.timelsszhuang.auth;
 
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import java.nio.file.Path;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * JWT 工具类
- * 用于生成和验证 JWT Token
+ * 用于生成和验证 JWT Token，网关（WebFlux）与 provider / consumer（Servlet）共用，
+ * 由 JwtAutoConfiguration 注册为 Bean
  *
  * @author timelsszhuang
  */
-@Component
 public class JwtUtil {
 
-    // JWT 密钥（生产环境应该从配置文件读取）
+    // 默认 JWT 密钥：未配置 jwt.keystore.file 时用于签发，也用于校验没有 kid 的旧 Token
     private static final String SECRET_KEY = "MySecretKeyForSpringCloudGatewayJwtAuthenticationAndAuthorization2024";
 
     // Token 有效期：24小时
@@ -32,10 +29,25 @@ public class JwtUtil {
     // Header key
     public static final String HEADER_STRING = "Authorization";
 
-    private final Key key;
+    private final JwtKeyRegistry keyRegistry;
 
     public JwtUtil() {
-        this.key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        this.keyRegistry = new JwtKeyRegistry(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()));
+    }
+
+    /**
+     * 从密钥文件加载并按间隔检查修改（秒，0 表示不自动重新加载）
+     */
+    public void watch(Path keystoreFile, long reloadInterval) {
+        keyRegistry.watch(keystoreFile, reloadInterval);
+    }
+
+    public void close() {
+        keyRegistry.close();
+    }
+
+    public JwtKeyRegistry getKeyRegistry() {
+        return keyRegistry;
     }
 
     /**
@@ -70,15 +82,25 @@ public class JwtUtil {
         Date now = new Date();
         Date expiration = new Date(now.getTime() + EXPIRATION_TIME);
 
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(now)
-                .setExpiration(expiration)
-                .signWith(key, SignatureAlgorithm.HS256)
+        return keyRegistry.sign(Jwts.builder()
+                        .setClaims(claims)
+                        .setSubject(subject)
+                        .setIssuedAt(now)
+                        .setExpiration(expiration))
                 .compact();
     }
 
+    /**
+     * 校验 Token 并返回声明（签名校验、载荷解析、有效期检查一次完成）
+     *
+     * @param token Token字符串
+     * @return 声明
+     * @throws InvalidTokenException Token 无效或已过期
+     */
+    public TokenClaims verify(String token) {
+        return keyRegistry.verify(token);
+    }
+
     /**
      * 验证 Token
      *
@@ -87,12 +109,9 @@ public class JwtUtil {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+            keyRegistry.verify(token);
             return true;
-        } catch (Exception e) {
+        } catch (InvalidTokenException e) {
             return false;
         }
     }
@@ -102,40 +121,20 @@ public class JwtUtil {
      *
      * @param token Token字符串
      * @return 用户名
+     * @throws InvalidTokenException Token 无效或已过期
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = getAllClaimsFromToken(token);
-        return claims.getSubject();
-    }
-
-    /**
-     * 从 Token 中获取所有声明
-     *
-     * @param token Token字符串
-     * @return Claims
-     */
-    public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return keyRegistry.verify(token).getSubject();
     }
 
     /**
-     * 检查 Token 是否过期
+     * 检查 Token 是否过期（无效的 Token 也视为过期）
      *
      * @param token Token字符串
      * @return 是否过期
      */
     public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            Date expiration = claims.getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
+        return !validateToken(token);
     }
 
     /**
@@ -151,4 +150,3 @@ public class JwtUtil {
         return null;
     }
 }
-
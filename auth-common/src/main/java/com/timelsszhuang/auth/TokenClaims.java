@@ -0,0 +1,187 @@
+package com.timelsszhuang.auth;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 已校验 Token 的声明视图
+ *
+ * 只保存业务用到的字段（sub、username、role、iat、exp），用 Jackson 流式解析载荷一次得到，
+ * 不构建 jjwt 的 Claims Map 和 Date 对象；其他声明只有在出现时才放入 extra
+ *
+ * @author timelsszhuang
+ */
+public final class TokenClaims {
+
+    private static final JsonFactory JSON = new ObjectMapper().getFactory();
+
+    private final String subject;
+    private final String username;
+    private final String role;
+    /**
+     * 秒级时间戳，0 表示没有该声明
+     */
+    private final long issuedAt;
+    private final long expiresAt;
+    private final long notBefore;
+    private final Map<String, Object> extra;
+
+    private TokenClaims(String subject, String username, String role,
+                        long issuedAt, long expiresAt, long notBefore, Map<String, Object> extra) {
+        this.subject = subject;
+        this.username = username;
+        this.role = role;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.notBefore = notBefore;
+        this.extra = extra;
+    }
+
+    /**
+     * 流式解析 JWT 载荷（已解码的 JSON）
+     *
+     * @throws InvalidTokenException 载荷不是 JSON 对象或时间声明不是数字
+     */
+    static TokenClaims parse(byte[] json) {
+        String subject = null;
+        String username = null;
+        String role = null;
+        long issuedAt = 0;
+        long expiresAt = 0;
+        long notBefore = 0;
+        Map<String, Object> extra = null;
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new InvalidTokenException("Token 载荷不是 JSON 对象");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "sub" -> subject = text(parser, value, name);
+                    case "username" -> username = text(parser, value, name);
+                    case "role" -> role = text(parser, value, name);
+                    case "iat" -> issuedAt = seconds(parser, value, name);
+                    case "exp" -> expiresAt = seconds(parser, value, name);
+                    case "nbf" -> notBefore = seconds(parser, value, name);
+                    default -> {
+                        if (extra == null) {
+                            extra = new LinkedHashMap<>();
+                        }
+                        extra.put(name, parser.readValueAs(Object.class));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new InvalidTokenException("Token 载荷无法解析", e);
+        }
+        return new TokenClaims(subject, username, role, issuedAt, expiresAt, notBefore, extra);
+    }
+
+    /**
+     * 从 jjwt 的 Claims 转换（ES256 校验路径）
+     */
+    static TokenClaims from(Claims claims) {
+        Map<String, Object> extra = null;
+        for (Map.Entry<String, Object> entry : claims.entrySet()) {
+            switch (entry.getKey()) {
+                case "sub", "username", "role", "iat", "exp", "nbf" -> {
+                }
+                default -> {
+                    if (extra == null) {
+                        extra = new LinkedHashMap<>();
+                    }
+                    extra.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return new TokenClaims(claims.getSubject(),
+                claims.get("username") instanceof String username ? username : null,
+                claims.get("role") instanceof String role ? role : null,
+                seconds(claims.getIssuedAt()), seconds(claims.getExpiration()), seconds(claims.getNotBefore()),
+                extra);
+    }
+
+    /**
+     * 检查有效期（与 jjwt 一致：当前时间晚于 exp 或早于 nbf 即无效，不留时钟偏差）
+     */
+    void checkTime(long nowMillis) {
+        if (expiresAt != 0 && nowMillis > expiresAt * 1000) {
+            throw new InvalidTokenException("Token 已过期");
+        }
+        if (notBefore != 0 && nowMillis < notBefore * 1000) {
+            throw new InvalidTokenException("Token 尚未生效");
+        }
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * 签发时间（秒），0 表示没有
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * 过期时间（秒），0 表示没有
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt != 0 && nowMillis > expiresAt * 1000;
+    }
+
+    /**
+     * 其他声明
+     */
+    public Object get(String name) {
+        return extra != null ? extra.get(name) : null;
+    }
+
+    public Map<String, Object> getExtra() {
+        return extra != null ? Collections.unmodifiableMap(extra) : Map.of();
+    }
+
+    private static String text(JsonParser parser, JsonToken value, String name) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            throw new InvalidTokenException("声明 " + name + " 不是字符串");
+        }
+        return parser.getText();
+    }
+
+    private static long seconds(JsonParser parser, JsonToken value, String name) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw new InvalidTokenException("声明 " + name + " 不是数字");
+        }
+        return parser.getLongValue();
+    }
+
+    private static long seconds(Date date) {
+        return date != null ? date.getTime() / 1000 : 0;
+    }
+}
@@ -0,0 +1,89 @@
+package com.timelsszhuang.auth;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+
+/**
+ * 单个 kid 的校验器，随密钥快照一起预先构建，热路径上不再创建解析器或初始化 Mac
+ *
+ * @author timelsszhuang
+ */
+interface TokenVerifier {
+
+    /**
+     * 校验签名并解析载荷（不检查有效期）
+     *
+     * @param token     原始 Token
+     * @param ascii     Token 的 ASCII 字节
+     * @param firstDot  头部与载荷之间的 '.'
+     * @param lastDot   载荷与签名之间的 '.'
+     * @param algorithm 头部的 alg
+     */
+    TokenClaims verify(String token, byte[] ascii, int firstDot, int lastDot, String algorithm);
+
+    static TokenVerifier of(Key key) {
+        return key instanceof SecretKey secretKey ? new Hmac(secretKey) : new Jjwt(key);
+    }
+
+    /**
+     * HS256：每个线程复用一个已初始化的 Mac，签名用常量时间比较，载荷流式解析
+     */
+    final class Hmac implements TokenVerifier {
+
+        private final ThreadLocal<Mac> mac;
+
+        Hmac(SecretKey key) {
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instance = Mac.getInstance("HmacSHA256");
+                    instance.init(key);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        @Override
+        public TokenClaims verify(String token, byte[] ascii, int firstDot, int lastDot, String algorithm) {
+            if (!"HS256".equals(algorithm)) {
+                throw new InvalidTokenException("签名算法与密钥不符: " + algorithm);
+            }
+            Mac instance = mac.get();
+            instance.update(ascii, 0, lastDot);
+            byte[] expected = instance.doFinal();
+            if (!MessageDigest.isEqual(expected, Base64Url.decode(ascii, lastDot + 1, ascii.length))) {
+                throw new InvalidTokenException("Token 签名无效");
+            }
+            return TokenClaims.parse(Base64Url.decode(ascii, firstDot + 1, lastDot));
+        }
+    }
+
+    /**
+     * ES256：使用预先构建的 jjwt 解析器（jjwt 负责 JOSE 签名格式转换和 alg 与密钥类型的匹配）
+     */
+    final class Jjwt implements TokenVerifier {
+
+        private final JwtParser parser;
+
+        Jjwt(Key key) {
+            this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        }
+
+        @Override
+        public TokenClaims verify(String token, byte[] ascii, int firstDot, int lastDot, String algorithm) {
+            try {
+                return TokenClaims.from(parser.parseClaimsJws(token).getBody());
+            } catch (RuntimeException e) {
+                // jjwt 对部分非法声明（如 exp 不是日期）抛出的不是 JwtException，统一视为无效
+                throw new InvalidTokenException(e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.timelsszhuang.auth.config;
+
+import com.timelsszhuang.auth.IdentityAssertion;
+import com.timelsszhuang.auth.JwtUtil;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+import java.util.Base64;
+
+/**
+ * JWT 自动配置
+ *
+ * 依赖 auth-common 的服务自动获得 JwtUtil Bean，不需要各自扫描或复制工具类；
+ * jwt.assertion.enabled=true 时同时注册 IdentityAssertion，此时未配置密钥直接启动失败
+ *
+ * @author timelsszhuang
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(JwtProperties.class)
+public class JwtAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public JwtUtil jwtUtil(JwtProperties properties) {
+        JwtUtil jwtUtil = new JwtUtil();
+        JwtProperties.Keystore keystore = properties.getKeystore();
+        if (StringUtils.hasText(keystore.getFile())) {
+            jwtUtil.watch(Path.of(keystore.getFile()), keystore.getReloadInterval());
+        }
+        return jwtUtil;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jwt.assertion", name = "enabled", havingValue = "true")
+    public IdentityAssertion identityAssertion(JwtProperties properties) {
+        JwtProperties.Assertion assertion = properties.getAssertion();
+        if (!StringUtils.hasText(assertion.getSecret())) {
+            throw new IllegalStateException("已开启 jwt.assertion.enabled，但未配置 jwt.assertion.secret（JWT_ASSERTION_SECRET）");
+        }
+        return new IdentityAssertion(Base64.getDecoder().decode(assertion.getSecret().trim()), assertion.getTtl());
+    }
+}
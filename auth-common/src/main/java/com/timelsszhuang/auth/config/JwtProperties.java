@@ -0,0 +1,63 @@
+package com.timelsszhuang.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * JWT 配置属性
+ * <pre>
+ * jwt:
+ *   keystore:
+ *     file: ./config/jwt-keys.properties
+ *     reload-interval: 10
+ *   assertion:
+ *     enabled: true
+ *     secret: ${JWT_ASSERTION_SECRET}
+ *     ttl: 60s
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+
+    private Keystore keystore = new Keystore();
+
+    private Assertion assertion = new Assertion();
+
+    @Data
+    public static class Keystore {
+
+        /**
+         * 密钥文件（格式见 JwtKeyRegistry），为空表示只使用内置默认密钥
+         */
+        private String file;
+
+        /**
+         * 检查文件修改的间隔（秒），0 表示不自动重新加载
+         */
+        private long reloadInterval = 10;
+    }
+
+    @Data
+    public static class Assertion {
+
+        /**
+         * 是否签发 / 接受身份断言
+         */
+        private boolean enabled = false;
+
+        /**
+         * 身份断言共享密钥（Base64，至少 256 bit），开启时必须配置，不提供默认值
+         */
+        private String secret;
+
+        /**
+         * 断言有效期
+         */
+        private Duration ttl = Duration.ofSeconds(60);
+    }
+}
@@ -0,0 +1,61 @@
+package com.timelsszhuang.auth.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * jjwt 的 native-image 运行时提示
+ *
+ * HS256 校验走 TokenVerifier.Hmac，不经过 jjwt；签发 Token 和 ES256 校验仍使用 jjwt，
+ * 而 jjwt-api 通过反射创建 jjwt-impl 中的实现类，并用 ServiceLoader 查找 JSON 序列化器，
+ * native-image 的静态分析看不到这些调用，需要在这里声明（由 META-INF/spring/aot.factories 注册）
+ *
+ * @author timelsszhuang
+ */
+public class JwtRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * jjwt-api 的 Classes.newInstance / Services 加载的类
+     */
+    private static final List<String> REFLECTIVE_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    /**
+     * Keys / SignatureAlgorithm 通过反射调用的静态工具方法
+     */
+    private static final List<String> REFLECTIVE_METHOD_TYPES = List.of(
+            "io.jsonwebtoken.impl.crypto.EllipticCurveProvider",
+            "io.jsonwebtoken.impl.crypto.MacProvider",
+            "io.jsonwebtoken.impl.crypto.RsaProvider");
+
+    private static final List<String> SERVICE_FILES = List.of(
+            "META-INF/services/io.jsonwebtoken.io.Serializer",
+            "META-INF/services/io.jsonwebtoken.io.Deserializer",
+            "META-INF/services/io.jsonwebtoken.CompressionCodec");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : REFLECTIVE_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        for (String type : REFLECTIVE_METHOD_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        for (String file : SERVICE_FILES) {
+            hints.resources().registerPattern(file);
+        }
+    }
+}
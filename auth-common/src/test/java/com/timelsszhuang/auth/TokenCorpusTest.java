@@ -0,0 +1,182 @@
+package com.timelsszhuang.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 用共享语料（token-corpus.json）校验 JwtKeyRegistry，并与 jjwt 的结果逐条对比：
+ * 快速校验路径与 jjwt 对每个 Token 的判定必须一致
+ *
+ * @author timelsszhuang
+ */
+class TokenCorpusTest {
+
+    private static final byte[] LEGACY_SECRET =
+            "MySecretKeyForSpringCloudGatewayJwtAuthenticationAndAuthorization2024".getBytes(StandardCharsets.UTF_8);
+
+    private JsonNode corpus;
+    private JwtKeyRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/token-corpus.json")) {
+            corpus = new ObjectMapper().readTree(in);
+        }
+        registry = new JwtKeyRegistry(Keys.hmacShaKeyFor(LEGACY_SECRET));
+        registry.load(keystore());
+    }
+
+    @Test
+    void corpusMatchesExpectationAndJjwt() throws Exception {
+        for (JsonNode entry : corpus.get("tokens")) {
+            String name = entry.get("name").asText();
+            String token = entry.get("token").asText();
+            boolean expected = entry.get("valid").asBoolean();
+
+            TokenClaims claims = null;
+            try {
+                claims = registry.verify(token);
+            } catch (InvalidTokenException e) {
+                // 期望无效的 Token
+            }
+            assertEquals(expected, claims != null, name);
+            assertEquals(expected, jjwtAccepts(token), name + "（jjwt）");
+            if (claims != null) {
+                assertEquals(entry.get("subject").asText(), claims.getSubject(), name);
+                if (entry.has("role")) {
+                    assertEquals(entry.get("role").asText(), claims.getRole(), name);
+                }
+            }
+        }
+    }
+
+    @Test
+    void signedTokensVerifyWithActiveKey() {
+        String hmacToken = registry.sign(Jwts.builder().setSubject("alice").claim("role", "USER")).compact();
+        assertEquals("alice", registry.verify(hmacToken).getSubject());
+        assertEquals("USER", registry.verify(hmacToken).getRole());
+
+        Properties properties = keystore();
+        properties.setProperty("active", "e1");
+        registry.load(properties);
+        String ecToken = registry.sign(Jwts.builder().setSubject("carol")).compact();
+        assertEquals("carol", registry.verify(ecToken).getSubject());
+        // 切换 active 后旧 kid 的 Token 仍然有效
+        assertEquals("alice", registry.verify(hmacToken).getSubject());
+
+        // 只有公钥时不能签发
+        properties.remove("private.e1");
+        registry.load(properties);
+        assertThrows(IllegalStateException.class, () -> registry.sign(Jwts.builder().setSubject("x")));
+    }
+
+    @Test
+    void invalidKeystoreKeepsCurrentKeys() {
+        Properties properties = new Properties();
+        properties.setProperty("active", "missing");
+        assertThrows(IllegalStateException.class, () -> registry.load(properties));
+        assertEquals("alice", registry.verify(token("hs256-kid")).getSubject());
+
+        properties.setProperty("active", "k1");
+        properties.setProperty("keys.k1", corpus.get("keystore").get("keys.k1").asText());
+        properties.setProperty("legacy.enabled", "false");
+        registry.load(properties);
+        assertThrows(InvalidTokenException.class, () -> registry.verify(token("hs256-legacy-no-kid")));
+    }
+
+    @Test
+    void legacyKeyRequiresOptInWithExpiry() {
+        Properties properties = new Properties();
+        properties.setProperty("active", "k1");
+        properties.setProperty("keys.k1", corpus.get("keystore").get("keys.k1").asText());
+
+        // 配置了密钥文件后默认不接受内置密钥，显式写 kid=legacy 同样拒绝
+        registry.load(properties);
+        assertThrows(InvalidTokenException.class, () -> registry.verify(token("hs256-legacy-no-kid")));
+        String withLegacyKid = Jwts.builder().setHeaderParam("kid", JwtKeyRegistry.LEGACY_KID).setSubject("x")
+                .signWith(Keys.hmacShaKeyFor(LEGACY_SECRET)).compact();
+        assertThrows(InvalidTokenException.class, () -> registry.verify(withLegacyKid));
+
+        // 开启时必须给出截止时间
+        properties.setProperty("legacy.enabled", "true");
+        assertThrows(IllegalStateException.class, () -> registry.load(properties));
+
+        properties.setProperty("legacy.until", Instant.now().plusSeconds(60).toString());
+        registry.load(properties);
+        assertEquals("bob", registry.verify(token("hs256-legacy-no-kid")).getSubject());
+
+        // 过了截止时间，不修改文件也不再接受
+        properties.setProperty("legacy.until", Instant.now().minusSeconds(1).toString());
+        registry.load(properties);
+        assertThrows(InvalidTokenException.class, () -> registry.verify(token("hs256-legacy-no-kid")));
+        assertEquals("alice", registry.verify(token("hs256-kid")).getSubject());
+    }
+
+    private Properties keystore() {
+        Properties properties = new Properties();
+        corpus.get("keystore").fields().forEachRemaining(e -> properties.setProperty(e.getKey(), e.getValue().asText()));
+        return properties;
+    }
+
+    private String token(String name) {
+        for (JsonNode entry : corpus.get("tokens")) {
+            if (entry.get("name").asText().equals(name)) {
+                return entry.get("token").asText();
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    /**
+     * 参考实现：jjwt 按 kid 选择密钥
+     */
+    private boolean jjwtAccepts(String token) throws Exception {
+        JsonNode keystore = corpus.get("keystore");
+        Map<String, Key> keys = Map.of(
+                "k1", Keys.hmacShaKeyFor(Base64.getDecoder().decode(keystore.get("keys.k1").asText())),
+                "e1", KeyFactory.getInstance("EC").generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(keystore.get("public.e1").asText()))),
+                JwtKeyRegistry.LEGACY_KID, Keys.hmacShaKeyFor(LEGACY_SECRET));
+        try {
+            Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            String kid = header.getKeyId() != null ? header.getKeyId() : JwtKeyRegistry.LEGACY_KID;
+                            if (!keys.containsKey(kid)) {
+                                throw new JwtException("unknown kid");
+                            }
+                            return keys.get(kid);
+                        }
+                    })
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody()
+                    .getExpiration();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.timelsszhuang.benchmark.gateway;
+
+import com.timelsszhuang.auth.IdentityAssertion;
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.gateway.filter.FlightRecorderFilter;
+import com.timelsszhuang.gateway.filter.JwtAuthenticationFilter;
+import com.timelsszhuang.gateway.filter.LoggingGlobalFilter;
+import com.timelsszhuang.gateway.filter.PostLoggingFilter;
+import com.timelsszhuang.gateway.filter.PreLoggingFilter;
+import com.timelsszhuang.gateway.filter.RequestStatisticsFilter;
+import com.timelsszhuang.gateway.filter.TracingFilter;
+import com.timelsszhuang.gateway.service.TokenRevocationService;
+import com.timelsszhuang.gateway.util.SlowRequestRecorder;
+import com.timelsszhuang.trace.SpanRingBuffer;
+import com.timelsszhuang.trace.Tracer;
+import com.timelsszhuang.trace.config.TracingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关自定义 GlobalFilter 的开销：单个过滤器和按 Order 排序的完整链
+ *
+ * 请求为已登录用户的 GET /provider/hello（带 JWT），终端模拟路由转发直接返回 200。
+ * 每次调用新建 exchange，exchangeOnly 是创建 exchange 和执行终端本身的开销，
+ * 其他结果减去它即为过滤器的开销。日志按 application.yml 的级别输出到 /dev/null（见 logback.xml），
+ * 包含格式化开销但不受磁盘影响。配合 -prof gc 比较每个请求的分配量
+ * <pre>
+ * java -jar gateway-benchmarks/target/benchmarks.jar FilterChainBenchmark -prof gc
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    private static final GatewayFilterChain TERMINAL = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return Mono.empty();
+    };
+
+    /**
+     * 与 HttpWebHandlerAdapter 一样在所有 exchange 之间共享（MockServerWebExchange.from 每次都新建编解码器，开销远大于过滤器）
+     */
+    private static final ServerCodecConfigurer CODEC_CONFIGURER = ServerCodecConfigurer.create();
+    private static final WebSessionManager SESSION_MANAGER = new DefaultWebSessionManager();
+    private static final LocaleContextResolver LOCALE_CONTEXT_RESOLVER = new AcceptHeaderLocaleContextResolver();
+    private static final InetSocketAddress REMOTE_ADDRESS = new InetSocketAddress("10.0.0.8", 52000);
+
+    private JwtUtil jwtUtil;
+    private String authorization;
+
+    private PreLoggingFilter preLoggingFilter;
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+    private RequestStatisticsFilter requestStatisticsFilter;
+    private LoggingGlobalFilter loggingGlobalFilter;
+    private PostLoggingFilter postLoggingFilter;
+    private TracingFilter tracingFilter;
+    private TracingFilter sampledTracingFilter;
+    private FlightRecorderFilter flightRecorderFilter;
+    private GatewayFilterChain fullChain;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        authorization = JwtUtil.TOKEN_PREFIX + jwtUtil.generateToken("admin");
+
+        preLoggingFilter = new PreLoggingFilter();
+        jwtAuthenticationFilter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "tokenRevocationService", new TokenRevocationService());
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "identityAssertion",
+                new IdentityAssertion(new byte[32], Duration.ofSeconds(60)));
+        requestStatisticsFilter = new RequestStatisticsFilter();
+        loggingGlobalFilter = new LoggingGlobalFilter();
+        postLoggingFilter = new PostLoggingFilter();
+        // 生产配置的 1% 采样，以及每个请求都记录 Span 的上限开销
+        tracingFilter = new TracingFilter(new Tracer("gateway-service", 0.01, new SpanRingBuffer(2048), null), new TracingProperties());
+        sampledTracingFilter = new TracingFilter(new Tracer("gateway-service", 1, new SpanRingBuffer(2048), null), new TracingProperties());
+        // 默认配置：稳定后绝大多数请求达不到最慢列表的门槛，只记录时间点
+        flightRecorderFilter = new FlightRecorderFilter(
+                new SlowRequestRecorder(20, Duration.ofMinutes(5).toNanos(), 50, System.nanoTime()), 500);
+
+        List<GlobalFilter> filters = new ArrayList<>(List.of(flightRecorderFilter, tracingFilter, preLoggingFilter,
+                jwtAuthenticationFilter, requestStatisticsFilter, loggingGlobalFilter, postLoggingFilter));
+        filters.sort(Comparator.comparingInt(f -> ((Ordered) f).getOrder()));
+        fullChain = chain(filters, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jwtUtil.close();
+    }
+
+    @Benchmark
+    public Object exchangeOnly() {
+        ServerWebExchange exchange = exchange();
+        TERMINAL.filter(exchange).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public Object preLogging() {
+        return run(preLoggingFilter);
+    }
+
+    @Benchmark
+    public Object jwtAuthentication() {
+        return run(jwtAuthenticationFilter);
+    }
+
+    @Benchmark
+    public Object requestStatistics() {
+        return run(requestStatisticsFilter);
+    }
+
+    @Benchmark
+    public Object loggingGlobal() {
+        return run(loggingGlobalFilter);
+    }
+
+    @Benchmark
+    public Object postLogging() {
+        return run(postLoggingFilter);
+    }
+
+    @Benchmark
+    public Object tracing() {
+        return run(tracingFilter);
+    }
+
+    @Benchmark
+    public Object tracingAlwaysSampled() {
+        return run(sampledTracingFilter);
+    }
+
+    @Benchmark
+    public Object flightRecorder() {
+        return run(flightRecorderFilter);
+    }
+
+    @Benchmark
+    public Object fullChain() {
+        ServerWebExchange exchange = exchange();
+        fullChain.filter(exchange).block();
+        return exchange;
+    }
+
+    private Object run(GlobalFilter filter) {
+        ServerWebExchange exchange = exchange();
+        filter.filter(exchange, TERMINAL).block();
+        return exchange;
+    }
+
+    private ServerWebExchange exchange() {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/provider/hello?name=bench")
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .header(HttpHeaders.USER_AGENT, "Mozilla/5.0")
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .remoteAddress(REMOTE_ADDRESS)
+                .build();
+        return new DefaultServerWebExchange(request, new MockServerHttpResponse(),
+                SESSION_MANAGER, CODEC_CONFIGURER, LOCALE_CONTEXT_RESOLVER);
+    }
+
+    private static GatewayFilterChain chain(List<GlobalFilter> filters, int index) {
+        if (index == filters.size()) {
+            return TERMINAL;
+        }
+        GatewayFilterChain next = chain(filters, index + 1);
+        GlobalFilter filter = filters.get(index);
+        return exchange -> filter.filter(exchange, next);
+    }
+}
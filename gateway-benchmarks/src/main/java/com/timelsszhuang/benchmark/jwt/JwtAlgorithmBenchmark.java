@@ -0,0 +1,202 @@
+package com.timelsszhuang.benchmark.jwt;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 签名算法吞吐对比：HS256 / ES256 / EdDSA
+ *
+ * Token 形状与 AuthController / UserController 签发的一致（kid 头，sub、username、role、iat、exp）。
+ * verify 包含签名校验和载荷解析，即网关每个请求的实际开销；verifyCached 是已校验 Token 缓存命中时的开销，
+ * 用于评估“非对称校验 + 缓存”是否在网关 CPU 预算内。
+ * jjwt 0.11.5 不支持 EdDSA，EdDSA 直接使用 JDK 的 Ed25519 签名，载荷用 Jackson 解析
+ * <pre>
+ * java -jar gateway-benchmarks/target/benchmarks.jar JwtAlgorithmBenchmark -prof gc
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class JwtAlgorithmBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private TokenCodec codec;
+    private String token;
+    private final Map<String, Object> verifiedCache = new ConcurrentHashMap<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws GeneralSecurityException {
+        codec = switch (algorithm) {
+            case "HS256" -> new JjwtCodec(SignatureAlgorithm.HS256, Keys.secretKeyFor(SignatureAlgorithm.HS256), null);
+            case "ES256" -> {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                KeyPair keyPair = generator.generateKeyPair();
+                yield new JjwtCodec(SignatureAlgorithm.ES256, keyPair.getPrivate(), keyPair.getPublic());
+            }
+            case "EdDSA" -> new Ed25519Codec(KeyPairGenerator.getInstance("Ed25519").generateKeyPair());
+            default -> throw new IllegalArgumentException(algorithm);
+        };
+        token = codec.sign("admin");
+        verifiedCache.put(token, codec.verify(token));
+    }
+
+    @Benchmark
+    public String sign() throws GeneralSecurityException {
+        return codec.sign("admin");
+    }
+
+    @Benchmark
+    public Object verify() throws GeneralSecurityException {
+        return codec.verify(token);
+    }
+
+    @Benchmark
+    public Object verifyCached() throws GeneralSecurityException {
+        Object claims = verifiedCache.get(token);
+        return claims != null ? claims : codec.verify(token);
+    }
+
+    interface TokenCodec {
+
+        String sign(String username) throws GeneralSecurityException;
+
+        Object verify(String token) throws GeneralSecurityException;
+    }
+
+    private static Map<String, Object> claims(String username) {
+        long now = System.currentTimeMillis();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", username);
+        claims.put("username", username);
+        claims.put("role", "USER");
+        claims.put("iat", now / 1000);
+        claims.put("exp", (now + 24 * 60 * 60 * 1000) / 1000);
+        return claims;
+    }
+
+    /**
+     * HS256 / ES256，与 JwtUtil 相同的 jjwt 用法（预先构建的 JwtParser）
+     */
+    static class JjwtCodec implements TokenCodec {
+
+        private final SignatureAlgorithm algorithm;
+        private final Key signingKey;
+        private final JwtParser parser;
+
+        JjwtCodec(SignatureAlgorithm algorithm, Key signingKey, Key verifyKey) {
+            this.algorithm = algorithm;
+            this.signingKey = signingKey;
+            this.parser = Jwts.parserBuilder().setSigningKey(verifyKey != null ? verifyKey : signingKey).build();
+        }
+
+        @Override
+        public String sign(String username) {
+            Map<String, Object> claims = claims(username);
+            return Jwts.builder()
+                    .setHeaderParam("kid", "bench")
+                    .setClaims(claims)
+                    .setIssuedAt(new Date((Long) claims.get("iat") * 1000))
+                    .setExpiration(new Date((Long) claims.get("exp") * 1000))
+                    .signWith(signingKey, algorithm)
+                    .compact();
+        }
+
+        @Override
+        public Claims verify(String token) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+    }
+
+    /**
+     * EdDSA（Ed25519），手工拼装 JWS
+     */
+    static class Ed25519Codec implements TokenCodec {
+
+        private static final ObjectMapper objectMapper = new ObjectMapper();
+        private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        private static final Base64.Decoder decoder = Base64.getUrlDecoder();
+        private static final String HEADER = encoder.encodeToString(
+                "{\"kid\":\"bench\",\"alg\":\"EdDSA\"}".getBytes(StandardCharsets.UTF_8));
+
+        private final KeyPair keyPair;
+
+        Ed25519Codec(KeyPair keyPair) {
+            this.keyPair = keyPair;
+        }
+
+        @Override
+        public String sign(String username) throws GeneralSecurityException {
+            try {
+                String signingInput = HEADER + "." + encoder.encodeToString(objectMapper.writeValueAsBytes(claims(username)));
+                Signature signature = Signature.getInstance("Ed25519");
+                signature.initSign(keyPair.getPrivate());
+                signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+                return signingInput + "." + encoder.encodeToString(signature.sign());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Map<?, ?> verify(String token) throws GeneralSecurityException {
+            int first = token.indexOf('.');
+            int last = token.lastIndexOf('.');
+            Signature signature = Signature.getInstance("Ed25519");
+            signature.initVerify(keyPair.getPublic());
+            signature.update(token.substring(0, last).getBytes(StandardCharsets.US_ASCII));
+            if (!signature.verify(decoder.decode(token.substring(last + 1)))) {
+                throw new SecurityException("签名无效");
+            }
+            try {
+                Map<?, ?> claims = objectMapper.readValue(decoder.decode(token.substring(first + 1, last)), Map.class);
+                if (((Number) claims.get("exp")).longValue() * 1000 < System.currentTimeMillis()) {
+                    throw new SecurityException("Token 已过期");
+                }
+                return claims;
+            } catch (IOException e) {
+                throw new SecurityException("载荷无法解析", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.timelsszhuang.benchmark.jwt;
+
+import com.timelsszhuang.auth.IdentityAssertion;
+import com.timelsszhuang.auth.JwtKeyRegistry;
+import com.timelsszhuang.auth.TokenClaims;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * auth-common 校验路径与原 JwtUtil 用法对比
+ *
+ * perRequestParser 是拆分前网关的做法：validateToken 与 getUsernameFromToken 各自新建 JwtParser 各解析一次；
+ * prebuiltParser 是单个预构建 jjwt 解析器解析一次；registryVerify 是 JwtKeyRegistry.verify（HS256 不经过 jjwt）；
+ * assertionVerify 是下游服务校验网关身份断言的开销。
+ * 配合 -prof gc 比较每次校验的分配量
+ * <pre>
+ * java -jar gateway-benchmarks/target/benchmarks.jar TokenCodecBenchmark -prof gc
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenCodecBenchmark {
+
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    private Key verifyKey;
+    private JwtParser parser;
+    private JwtKeyRegistry registry;
+    private String token;
+    private IdentityAssertion identityAssertion;
+    private String assertion;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Properties keystore = new Properties();
+        keystore.setProperty("active", "bench");
+        if ("HS256".equals(algorithm)) {
+            byte[] secret = Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded();
+            keystore.setProperty("keys.bench", Base64.getEncoder().encodeToString(secret));
+            verifyKey = Keys.hmacShaKeyFor(secret);
+        } else {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair keyPair = generator.generateKeyPair();
+            keystore.setProperty("public.bench", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+            keystore.setProperty("private.bench", Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+            verifyKey = keyPair.getPublic();
+        }
+        registry = new JwtKeyRegistry(Keys.secretKeyFor(SignatureAlgorithm.HS256));
+        registry.load(keystore);
+        parser = Jwts.parserBuilder().setSigningKey(verifyKey).build();
+        long now = System.currentTimeMillis();
+        token = registry.sign(Jwts.builder()
+                        .claim("username", "admin")
+                        .claim("role", "USER")
+                        .setSubject("admin")
+                        .setIssuedAt(new Date(now))
+                        .setExpiration(new Date(now + 24 * 60 * 60 * 1000)))
+                .compact();
+        identityAssertion = new IdentityAssertion(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded(), Duration.ofSeconds(60));
+        assertion = identityAssertion.issue("admin", "USER", 0, token);
+    }
+
+    @Benchmark
+    public String perRequestParser() {
+        Jwts.parserBuilder().setSigningKey(verifyKey).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(verifyKey).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String prebuiltParser() {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String registryVerify() {
+        TokenClaims claims = registry.verify(token);
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String assertionVerify() {
+        return identityAssertion.verify(assertion).username();
+    }
+}
@@ -0,0 +1,95 @@
+package com.timelsszhuang.benchmark.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * 桩服务的响应延迟分布
+ * <pre>
+ * fixed:5ms              固定延迟
+ * uniform:1ms..20ms      均匀分布
+ * exponential:10ms       指数分布（均值）
+ * lognormal:5ms..80ms    对数正态分布（p50..p99），接近真实服务的长尾
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+public final class LatencyDistribution {
+
+    /**
+     * 标准正态分布的 99 分位点
+     */
+    private static final double Z_99 = 2.3263478740408408;
+
+    private final String spec;
+    private final LongSupplier sampler;
+
+    private LatencyDistribution(String spec, LongSupplier sampler) {
+        this.spec = spec;
+        this.sampler = sampler;
+    }
+
+    /**
+     * 采样一次延迟（纳秒）
+     */
+    public long sampleNanos() {
+        return sampler.getAsLong();
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    public static LatencyDistribution parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("延迟分布格式错误: " + spec);
+        }
+        String type = spec.substring(0, colon).trim();
+        String value = spec.substring(colon + 1).trim();
+        switch (type) {
+            case "fixed": {
+                long nanos = nanos(value);
+                return new LatencyDistribution(spec, () -> nanos);
+            }
+            case "uniform": {
+                long[] range = range(value);
+                return new LatencyDistribution(spec, () -> ThreadLocalRandom.current().nextLong(range[0], range[1] + 1));
+            }
+            case "exponential": {
+                double mean = nanos(value);
+                return new LatencyDistribution(spec, () -> (long) (-mean * Math.log(1 - ThreadLocalRandom.current().nextDouble())));
+            }
+            case "lognormal": {
+                long[] range = range(value);
+                double mu = Math.log(range[0]);
+                double sigma = (Math.log(range[1]) - mu) / Z_99;
+                return new LatencyDistribution(spec, () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+            }
+            default:
+                throw new IllegalArgumentException("未知的延迟分布: " + type);
+        }
+    }
+
+    private static long[] range(String value) {
+        int dots = value.indexOf("..");
+        if (dots < 0) {
+            throw new IllegalArgumentException("延迟范围格式错误（应为 a..b）: " + value);
+        }
+        long from = nanos(value.substring(0, dots));
+        long to = nanos(value.substring(dots + 2));
+        if (from <= 0 || to < from) {
+            throw new IllegalArgumentException("延迟范围无效: " + value);
+        }
+        return new long[]{from, to};
+    }
+
+    private static long nanos(String value) {
+        Duration duration = DurationStyle.detectAndParse(value.trim());
+        return duration.toNanos();
+    }
+}
@@ -0,0 +1,183 @@
+package com.timelsszhuang.benchmark.load;
+
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.gateway.GatewayServiceApplication;
+import io.netty.handler.codec.http.HttpMethod;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 离线端到端压测：进程内启动 gateway-service（loadtest profile，不连接 Nacos / Sentinel），
+ * 上游为进程内桩服务（按延迟分布响应），以静态实例列表代替服务发现，再用开放模型负载生成器按固定到达率压测
+ * <pre>
+ * java -Dfile.encoding=UTF-8 -cp gateway-benchmarks/target/benchmarks.jar com.timelsszhuang.benchmark.load.LoadTestHarness \
+ *      --rate=2000 --duration=30s --warmup=10s --latency=lognormal:2ms..40ms
+ * </pre>
+ *
+ * 参数（括号内为默认值）：
+ * <pre>
+ * --rate         到达率，请求/秒（500）
+ * --duration     测量时长（30s）
+ * --warmup       预热时长，不计入结果（10s）
+ * --latency      桩服务延迟分布，格式见 LatencyDistribution（lognormal:2ms..20ms）
+ * --body-size    桩服务响应体字节数（512）
+ * --instances    每个服务的桩实例数（2）
+ * --paths        请求路径，逗号分隔、轮流发送，POST 路径写作 POST:/provider/order/create（/provider/hello）
+ * --connections  生成器最大连接数（2000）
+ * --timeout      单个请求超时（10s）
+ * --h2c          true 时网关到上游使用 h2c（prior-knowledge），等同于 --gateway.upstream.h2c.enabled=true（false）
+ * --hgrm         延迟分布输出文件（HdrHistogram 百分位格式，单位毫秒，可用 HdrHistogram 的绘图工具比较多次结果）
+ * </pre>
+ * 其他参数原样传给网关，例如 --gateway.route-index.enabled=false
+ * <p>
+ * 生成器、桩服务与网关在同一进程内，结果只适合同一台机器上的前后对比；
+ * 网关日志使用 benchmarks 的 logback.xml（默认丢弃），排查错误时加 -Dbenchmark.log.file=/tmp/gateway-loadtest.log
+ *
+ * @author timelsszhuang
+ */
+public class LoadTestHarness {
+
+    private static final List<String> SERVICES = List.of("service-provider", "service-consumer");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("rate", "500");
+        options.put("duration", "30s");
+        options.put("warmup", "10s");
+        options.put("latency", "lognormal:2ms..20ms");
+        options.put("body-size", "512");
+        options.put("instances", "2");
+        options.put("paths", "/provider/hello");
+        options.put("connections", "2000");
+        options.put("timeout", "10s");
+        options.put("h2c", "false");
+        options.put("hgrm", "");
+
+        List<String> gatewayArgs = new ArrayList<>();
+        gatewayArgs.add("--server.port=0");
+        // 以命令行参数激活 profile，application.yml 中按 profile 跳过的 Nacos 配置导入同样生效
+        gatewayArgs.add("--spring.profiles.active=loadtest");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = arg.startsWith("--") && eq > 2 ? arg.substring(2, eq) : null;
+            if (name != null && options.containsKey(name)) {
+                options.put(name, arg.substring(eq + 1));
+            } else {
+                gatewayArgs.add(arg);
+            }
+        }
+
+        int rate = Integer.parseInt(options.get("rate"));
+        Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+        Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+        LatencyDistribution latency = LatencyDistribution.parse(options.get("latency"));
+        int bodySize = Integer.parseInt(options.get("body-size"));
+        int instances = Integer.parseInt(options.get("instances"));
+        if (Boolean.parseBoolean(options.get("h2c"))) {
+            gatewayArgs.add("--gateway.upstream.h2c.enabled=true");
+        }
+
+        List<StubUpstream> stubs = new ArrayList<>();
+        ConfigurableApplicationContext gateway = null;
+        try {
+            // 静态实例列表：spring.cloud.discovery.client.simple（lb:// 路由照常经过负载均衡）
+            for (String service : SERVICES) {
+                for (int i = 0; i < instances; i++) {
+                    StubUpstream stub = new StubUpstream(latency, bodySize);
+                    stubs.add(stub);
+                    gatewayArgs.add("--spring.cloud.discovery.client.simple.instances." + service
+                            + "[" + i + "].uri=" + stub.uri());
+                }
+            }
+
+            gateway = new SpringApplicationBuilder(GatewayServiceApplication.class)
+                    .run(gatewayArgs.toArray(new String[0]));
+            int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+
+            String token = JwtUtil.TOKEN_PREFIX + gateway.getBean(JwtUtil.class).generateToken("loadtest");
+            List<OpenLoadGenerator.RequestSpec> requests = new ArrayList<>();
+            for (String path : options.get("paths").split(",")) {
+                boolean post = path.startsWith("POST:");
+                String uri = "http://127.0.0.1:" + port + (post ? path.substring(5) : path).trim();
+                Map<String, String> headers = new LinkedHashMap<>();
+                headers.put("Authorization", token);
+                if (post) {
+                    headers.put("Content-Type", "application/json");
+                }
+                requests.add(new OpenLoadGenerator.RequestSpec(post ? HttpMethod.POST : HttpMethod.GET, uri, headers,
+                        post ? "{\"userId\":\"loadtest\",\"commodityCode\":\"C001\",\"count\":1}" : null));
+            }
+
+            OpenLoadGenerator.Result result;
+            try (OpenLoadGenerator generator = new OpenLoadGenerator(
+                    Integer.parseInt(options.get("connections")), DurationStyle.detectAndParse(options.get("timeout")))) {
+                result = generator.run(requests, rate, warmup, duration);
+            }
+            report(options, result, stubs);
+            if (!options.get("hgrm").isEmpty()) {
+                try (PrintStream out = new PrintStream(new FileOutputStream(options.get("hgrm")))) {
+                    result.histogram().outputPercentileDistribution(out, 1_000_000.0);
+                }
+            }
+        } finally {
+            if (gateway != null) {
+                gateway.close();
+            }
+            stubs.forEach(StubUpstream::close);
+        }
+        System.exit(0);
+    }
+
+    private static void report(Map<String, String> options, OpenLoadGenerator.Result result, List<StubUpstream> stubs) {
+        Histogram histogram = result.histogram();
+        PrintStream out = System.out;
+        out.println();
+        out.println("════════════════════════════════════════════════════════════════");
+        out.println("【Gateway 压测结果】");
+        out.println("════════════════════════════════════════════════════════════════");
+        out.printf("目标到达率  : %s 请求/秒, 测量 %s (预热 %s)%n",
+                options.get("rate"), options.get("duration"), options.get("warmup"));
+        out.printf("上游        : %s 个实例/服务, 延迟 %s, 响应体 %s 字节, %s%n",
+                options.get("instances"), options.get("latency"), options.get("body-size"),
+                Boolean.parseBoolean(options.get("h2c")) ? "h2c" : "HTTP/1.1");
+        out.printf("请求路径    : %s%n", options.get("paths"));
+        out.println("────────────────────────────────────────────────────────────────");
+        out.printf("完成请求    : %d (%.1f 请求/秒)%n", histogram.getTotalCount(), result.throughput());
+        out.printf("状态码      : %s%n", result.statusCounts());
+        out.printf("失败        : %s%n", result.errorCounts());
+        out.printf("未完成      : %d%n", result.unfinished());
+        out.printf("生成器最大落后: %.2f ms%n", result.maxLagNanos() / 1e6);
+        // 峰值和累计包括预热阶段（各实例之和），结束时仍打开的连接数反映稳定负载下的连接数
+        out.printf("上游 TCP 连接: 结束时 %d, 峰值 %d, 累计建立 %d%n",
+                stubs.stream().mapToInt(StubUpstream::getOpenConnections).sum(),
+                stubs.stream().mapToInt(StubUpstream::getPeakConnections).sum(),
+                stubs.stream().mapToInt(StubUpstream::getTotalConnections).sum());
+        out.println("────────────────────────────────────────────────────────────────");
+        out.println("延迟（毫秒，从计划发送时刻算起）:");
+        for (double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+            out.printf("  p%-6s : %10.3f%n", format(percentile), histogram.getValueAtPercentile(percentile) / 1e6);
+        }
+        out.printf("  max     : %10.3f%n", histogram.getMaxValue() / 1e6);
+        out.printf("  mean    : %10.3f%n", histogram.getMean() / 1e6);
+        out.println("════════════════════════════════════════════════════════════════");
+        out.flush();
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private LoadTestHarness() {
+    }
+}
@@ -0,0 +1,144 @@
+package com.timelsszhuang.benchmark.load;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开放模型负载生成器
+ *
+ * 按固定到达率发出请求，发送时刻只由计划决定，不等待前一个请求完成（系统变慢时请求会堆积，而不是自动降速）；
+ * 延迟从计划发送时刻开始计算，因此生成器自身落后或连接排队的时间都计入延迟，避免协调遗漏（coordinated omission）。
+ * 预热阶段的请求不计入结果
+ *
+ * @author timelsszhuang
+ */
+public class OpenLoadGenerator implements AutoCloseable {
+
+    /**
+     * 请求模板，按顺序轮流发送
+     *
+     * @param method  请求方法
+     * @param uri     完整地址
+     * @param headers 请求头
+     * @param body    请求体，可为 null
+     */
+    public record RequestSpec(HttpMethod method, String uri, Map<String, String> headers, String body) {
+    }
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+    private final Duration timeout;
+
+    public OpenLoadGenerator(int maxConnections, Duration timeout) {
+        this.connectionProvider = ConnectionProvider.builder("load-generator")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider);
+        this.timeout = timeout;
+    }
+
+    /**
+     * 以 rate（请求/秒）运行 warmup + duration，返回 duration 阶段的结果
+     */
+    public Result run(List<RequestSpec> requests, int rate, Duration warmup, Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder(MAX_TRACKABLE_NANOS, 3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+
+        long warmupCount = rate * warmup.toNanos() / TimeUnit.SECONDS.toNanos(1);
+        long total = warmupCount + rate * duration.toNanos() / TimeUnit.SECONDS.toNanos(1);
+        double intervalNanos = (double) TimeUnit.SECONDS.toNanos(1) / rate;
+        long maxLag = 0;
+
+        long start = System.nanoTime();
+        long measureStart = start + (long) (warmupCount * intervalNanos);
+        for (long i = 0; i < total; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            maxLag = Math.max(maxLag, now - intended);
+            boolean measured = i >= warmupCount;
+            inFlight.incrementAndGet();
+            send(requests.get((int) (i % requests.size())))
+                    .subscribe(status -> {
+                        if (measured) {
+                            recorder.recordValue(Math.min(System.nanoTime() - intended, MAX_TRACKABLE_NANOS));
+                            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+                        }
+                    }, e -> {
+                        if (measured) {
+                            errors.computeIfAbsent(e.getClass().getSimpleName(), k -> new LongAdder()).increment();
+                        }
+                        inFlight.decrementAndGet();
+                    }, inFlight::decrementAndGet);
+        }
+        long sendEnd = System.nanoTime();
+
+        // 等待在途请求完成（最多一个超时时间）
+        long deadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((type, count) -> errorCounts.put(type, count.sum()));
+        return new Result(recorder.getIntervalHistogram(), statusCounts, errorCounts, inFlight.get(),
+                sendEnd - measureStart, maxLag);
+    }
+
+    private Mono<Integer> send(RequestSpec spec) {
+        return httpClient
+                .headers(headers -> spec.headers().forEach(headers::set))
+                .request(spec.method())
+                .uri(spec.uri())
+                .send(spec.body() != null ? ByteBufFlux.fromString(Mono.just(spec.body())) : Mono.empty())
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .timeout(timeout);
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * 测量阶段的结果
+     *
+     * @param histogram    延迟直方图（纳秒，从计划发送时刻算起）
+     * @param statusCounts 各状态码的响应数
+     * @param errorCounts  连接失败、超时等没有响应的请求数（按异常类型）
+     * @param unfinished   结束时仍未完成的请求数
+     * @param elapsedNanos 测量阶段的发送耗时
+     * @param maxLagNanos  生成器落后计划的最大时间（过大说明生成器本身是瓶颈）
+     */
+    public record Result(Histogram histogram, Map<Integer, Long> statusCounts, Map<String, Long> errorCounts, int unfinished,
+                         long elapsedNanos, long maxLagNanos) {
+
+        public double throughput() {
+            return histogram.getTotalCount() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.timelsszhuang.benchmark.load;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内桩服务（代替 service-provider / service-consumer）
+ *
+ * 任意路径都返回固定大小的 JSON，响应前按延迟分布等待（不占用线程）；请求体读完后丢弃。
+ * 与开启 server.http2.enabled 的下游服务一样同时接受 HTTP/1.1 和 h2c，并统计网关建立的 TCP 连接数
+ *
+ * @author timelsszhuang
+ */
+public class StubUpstream implements AutoCloseable {
+
+    private final DisposableServer server;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+
+    public StubUpstream(LatencyDistribution latency, int bodySize) {
+        byte[] body = body(bodySize);
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                // 在 TCP 连接上触发（h2c 的 stream 不计入）
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    totalConnections.incrementAndGet();
+                    peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+                    channel.closeFuture().addListener(future -> openConnections.decrementAndGet());
+                })
+                .handle((request, response) -> request.receive().then(
+                        Mono.delay(Duration.ofNanos(latency.sampleNanos()))
+                                .then(response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                        .header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(body.length))
+                                        .sendByteArray(Mono.just(body))
+                                        .then())))
+                .bindNow();
+    }
+
+    public String uri() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    /**
+     * 当前打开的 TCP 连接数
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * 同时打开的 TCP 连接数峰值
+     */
+    public int getPeakConnections() {
+        return peakConnections.get();
+    }
+
+    /**
+     * 累计建立的 TCP 连接数
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static byte[] body(int size) {
+        String prefix = "{\"code\":200,\"message\":\"ok\",\"data\":\"";
+        String suffix = "\"}";
+        int padding = Math.max(0, size - prefix.length() - suffix.length());
+        char[] data = new char[padding];
+        Arrays.fill(data, 'x');
+        return (prefix + new String(data) + suffix).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package com.timelsszhuang.benchmark.revocation;
+
+import com.timelsszhuang.gateway.util.TokenRevocationList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 吊销检查开销：JwtAuthenticationFilter 对每个请求调用一次 TokenRevocationList.isRevoked
+ *
+ * notRevoked 是绝大多数请求的路径（Bloom 过滤器直接返回），revoked 命中后还要二分查找精确指纹；
+ * 每次调用轮换 1024 个 Token，避免只测到同一个缓存行
+ * <pre>
+ * java -jar gateway-benchmarks/target/benchmarks.jar TokenRevocationBenchmark -prof gc
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRevocationBenchmark {
+
+    private static final int PROBES = 1024;
+    private static final String HEADER_AND_PAYLOAD =
+            "eyJhbGciOiJIUzI1NiIsImtpZCI6ImsxIn0.eyJzdWIiOiJhbGljZSIsInJvbGUiOiJVU0VSIiwiZXhwIjoxNzAwMDAwMDAwfQ.";
+
+    @Param({"10000", "1000000"})
+    public int entries;
+
+    private TokenRevocationList list;
+    private String[] revoked;
+    private String[] notRevoked;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> signatures = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            signatures.add(signature(random));
+        }
+        list = TokenRevocationList.build(signatures, entries, 0.01);
+        revoked = new String[PROBES];
+        notRevoked = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            revoked[i] = HEADER_AND_PAYLOAD + signatures.get(random.nextInt(entries));
+            notRevoked[i] = HEADER_AND_PAYLOAD + signature(random);
+        }
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return list.isRevoked(notRevoked[index++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return list.isRevoked(revoked[index++ & (PROBES - 1)]);
+    }
+
+    private static String signature(SplittableRandom random) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
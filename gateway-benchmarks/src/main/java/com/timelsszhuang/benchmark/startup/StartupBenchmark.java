@@ -0,0 +1,207 @@
+package com.timelsszhuang.benchmark.startup;
+
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.benchmark.load.LatencyDistribution;
+import com.timelsszhuang.benchmark.load.StubUpstream;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 冷启动到首个请求成功的耗时
+ *
+ * 每次启动一个新的网关进程（static profile，上游为进程内桩服务），从启动进程开始计时，
+ * 轮询路由请求直到返回 200；多个启动方式轮流执行，减少机器状态变化对比较的影响
+ * <pre>
+ * java -cp gateway-benchmarks/target/benchmarks.jar com.timelsszhuang.benchmark.startup.StartupBenchmark --runs=5 \
+ *      "--variant=fat-jar=java -jar gateway-service/target/gateway-service-0.0.1-SNAPSHOT-exec.jar" \
+ *      "--variant=cds=java -XX:SharedArchiveFile=gateway-service/target/gateway-service.jsa -jar gateway-service/target/gateway-service-0.0.1-SNAPSHOT.jar"
+ * </pre>
+ * 第二种方式需要先用 -Pcds 构建 gateway-service。参数（括号内为默认值）：
+ * <pre>
+ * --runs      每种方式的启动次数（5）
+ * --variant   名称=启动命令（按空格拆分），可重复；网关参数由本工具追加
+ * --path      首个请求的路径（/provider/hello）
+ * --timeout   单次启动的超时（180s）
+ * --logs      网关输出目录（临时目录）
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+public class StartupBenchmark {
+
+    private static final Pattern READY_PATTERN = Pattern.compile("JVM 启动到就绪 : (\\d+) ms");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("runs", "5");
+        options.put("path", "/provider/hello");
+        options.put("timeout", "180s");
+        options.put("logs", "");
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("参数格式错误: " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            if ("variant".equals(name)) {
+                int split = value.indexOf('=');
+                variants.put(value.substring(0, split), Arrays.asList(value.substring(split + 1).trim().split("\\s+")));
+            } else if (options.containsKey(name)) {
+                options.put(name, value);
+            } else {
+                throw new IllegalArgumentException("未知参数: " + arg);
+            }
+        }
+        if (variants.isEmpty()) {
+            throw new IllegalArgumentException("至少指定一个 --variant=名称=启动命令");
+        }
+
+        int runs = Integer.parseInt(options.get("runs"));
+        Duration timeout = DurationStyle.detectAndParse(options.get("timeout"));
+        Path logs = options.get("logs").isEmpty()
+                ? Files.createTempDirectory("startup-benchmark") : Files.createDirectories(Path.of(options.get("logs")));
+        String token = JwtUtil.TOKEN_PREFIX + new JwtUtil().generateToken("startup-benchmark");
+
+        Map<String, List<long[]>> results = new LinkedHashMap<>();
+        try (StubUpstream stub = new StubUpstream(LatencyDistribution.parse("fixed:1ms"), 256)) {
+            Path services = logs.resolve("services.yaml");
+            Files.writeString(services, "services:\n"
+                    + "  service-provider:\n    - uri: " + stub.uri() + "\n"
+                    + "  service-consumer:\n    - uri: " + stub.uri() + "\n");
+            for (int run = 1; run <= runs; run++) {
+                for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                    Path log = logs.resolve(variant.getKey() + "-" + run + ".log");
+                    long[] result = measure(variant.getValue(), services, options.get("path"), token, timeout, log);
+                    System.out.printf("[%d/%d] %-12s 首个请求 %6d ms, 就绪 %6s ms%n", run, runs, variant.getKey(),
+                            result[0], result[1] < 0 ? "-" : String.valueOf(result[1]));
+                    results.computeIfAbsent(variant.getKey(), k -> new ArrayList<>()).add(result);
+                }
+            }
+        }
+        report(results, logs);
+    }
+
+    /**
+     * @return {启动进程到首个请求返回 200 的毫秒数, 网关日志中的 JVM 启动到就绪毫秒数（未找到为 -1）}
+     */
+    private static long[] measure(List<String> command, Path services, String path, String token,
+                                  Duration timeout, Path log) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.add("--spring.profiles.active=static");
+        fullCommand.add("--static.discovery.file=" + services.toAbsolutePath());
+        fullCommand.add("--server.port=" + port);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                .header("Authorization", token)
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(fullCommand)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("网关进程已退出（exit=" + process.exitValue() + "），日志: " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("启动超时，日志: " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (ConnectException e) {
+                    // 端口尚未监听
+                } catch (IOException e) {
+                    // 启动过程中的连接中断，继续重试
+                }
+                Thread.sleep(20);
+            }
+            long firstRequest = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new long[]{firstRequest, readyMillis(log)};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static long readyMillis(Path log) throws IOException, InterruptedException {
+        // 就绪报告在首个请求之前输出，但可能还在缓冲区中，稍等再读
+        for (int i = 0; i < 50; i++) {
+            Matcher matcher = READY_PATTERN.matcher(Files.readString(log, StandardCharsets.UTF_8));
+            if (matcher.find()) {
+                return Long.parseLong(matcher.group(1));
+            }
+            Thread.sleep(20);
+        }
+        return -1;
+    }
+
+    private static void report(Map<String, List<long[]>> results, Path logs) {
+        System.out.println();
+        System.out.println("════════════════════════════════════════════════════════════════");
+        System.out.println("【Gateway 冷启动耗时】（毫秒）");
+        System.out.println("════════════════════════════════════════════════════════════════");
+        System.out.printf("%-12s %28s %28s%n", "", "启动到首个请求 min / 中位数 / max", "JVM 到就绪 min / 中位数 / max");
+        String baseline = null;
+        long baselineMedian = 0;
+        for (Map.Entry<String, List<long[]>> entry : results.entrySet()) {
+            long[] firstRequest = entry.getValue().stream().mapToLong(r -> r[0]).sorted().toArray();
+            long[] ready = entry.getValue().stream().mapToLong(r -> r[1]).filter(v -> v >= 0).sorted().toArray();
+            long median = median(firstRequest);
+            String relative = "";
+            if (baseline == null) {
+                baseline = entry.getKey();
+                baselineMedian = median;
+            } else {
+                relative = String.format("  (%.0f%% of %s)", median * 100.0 / baselineMedian, baseline);
+            }
+            System.out.printf("%-12s %8d / %8d / %8d     %8s / %8s / %8s%s%n", entry.getKey(),
+                    firstRequest[0], median, firstRequest[firstRequest.length - 1],
+                    ready.length > 0 ? ready[0] : "-", ready.length > 0 ? median(ready) : "-",
+                    ready.length > 0 ? ready[ready.length - 1] : "-", relative);
+        }
+        System.out.println("网关日志: " + logs);
+        System.out.println("════════════════════════════════════════════════════════════════");
+    }
+
+    private static long median(long[] sorted) {
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+
+    private StartupBenchmark() {
+    }
+}
@@ -1,8 +1,11 @@
 package com.timelsszhuang.gateway;
 
+import com.timelsszhuang.gateway.config.GatewayRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Gateway 服务启动类
@@ -11,10 +14,19 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  */
 @SpringBootApplication
 @EnableDiscoveryClient
+@ImportRuntimeHints(GatewayRuntimeHints.class)
 public class GatewayServiceApplication {
 
+    /**
+     * 启动步骤缓冲区容量（每个 Bean 的创建都是一个步骤）
+     */
+    private static final int STARTUP_STEPS = 8192;
+
     public static void main(String[] args) {
-        SpringApplication.run(GatewayServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(GatewayServiceApplication.class);
+        // 记录启动各阶段耗时，见 StartupReportConfig 与 /actuator/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
         System.out.println("\n========================================");
         System.out.println("Gateway Service 启动成功!");
         System.out.println("访问地址: http://localhost:8085");
@@ -0,0 +1,31 @@
+package com.timelsszhuang.gateway.config;
+
+import com.timelsszhuang.gateway.filter.AdminAuthWebFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.server.WebFilter;
+
+/**
+ * 管理接口鉴权配置类
+ *
+ * /gateway/** 由网关本地的 Controller 处理，不经过 GlobalFilter（JWT 认证、限流），
+ * 因此修改类接口（灰度权重、Token 吊销等）单独用 WebFilter 校验管理令牌
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+@EnableConfigurationProperties(AdminProperties.class)
+public class AdminAuthConfig {
+
+    /**
+     * 排在 CORS 过滤器之后，跨域预检请求不需要管理令牌
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public WebFilter adminAuthWebFilter(AdminProperties properties) {
+        return new AdminAuthWebFilter(properties.getToken());
+    }
+}
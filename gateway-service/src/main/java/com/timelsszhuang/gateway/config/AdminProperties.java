@@ -0,0 +1,19 @@
+package com.timelsszhuang.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 管理接口鉴权配置
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.admin")
+public class AdminProperties {
+
+    /**
+     * 管理令牌，修改操作需在 X-Admin-Token 请求头中携带；为空时修改操作一律拒绝
+     */
+    private String token;
+}
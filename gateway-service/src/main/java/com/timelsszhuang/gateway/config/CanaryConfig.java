@@ -0,0 +1,19 @@
+package com.timelsszhuang.gateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 灰度路由配置类
+ *
+ * lb:// 路由经过 LoadBalancer 选择实例时，由 CanaryServiceInstanceListSupplier 按用户筛选灰度 / 稳定实例。
+ * 灰度实例通过 Nacos 元数据标识，例如 spring.cloud.nacos.discovery.metadata.version=canary
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+@EnableConfigurationProperties(CanaryProperties.class)
+@LoadBalancerClients(defaultConfiguration = CanaryLoadBalancerClientConfiguration.class)
+public class CanaryConfig {
+}
@@ -0,0 +1,27 @@
+package com.timelsszhuang.gateway.config;
+
+import com.timelsszhuang.gateway.route.CanaryServiceInstanceListSupplier;
+import com.timelsszhuang.gateway.service.CanaryRoutingService;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * LoadBalancer 子容器配置（每个服务一个子容器）
+ *
+ * 由 CanaryConfig 中的 @LoadBalancerClients 引用，不能加 @Configuration，否则会被主容器扫描
+ *
+ * @author timelsszhuang
+ */
+public class CanaryLoadBalancerClientConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier canaryServiceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                         CanaryRoutingService canaryRoutingService) {
+        ServiceInstanceListSupplier delegate = ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withCaching()
+                .build(context);
+        return new CanaryServiceInstanceListSupplier(delegate, canaryRoutingService);
+    }
+}
@@ -0,0 +1,41 @@
+package com.timelsszhuang.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 灰度路由配置
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.canary")
+public class CanaryProperties {
+
+    /**
+     * 按服务名配置的灰度规则
+     */
+    private Map<String, Rule> services = new LinkedHashMap<>();
+
+    @Data
+    public static class Rule {
+
+        /**
+         * 灰度流量比例（百分比，0-100，支持两位小数）
+         */
+        private double weight = 0;
+
+        /**
+         * 灰度实例的元数据 key
+         */
+        private String metadataKey = "version";
+
+        /**
+         * 灰度实例的元数据 value
+         */
+        private String metadataValue = "canary";
+    }
+}
@@ -0,0 +1,134 @@
+package com.timelsszhuang.gateway.config;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 响应压缩配置类
+ *
+ * 压缩由 Reactor Netty 的 HttpContentCompressor 在管道中逐块完成，响应体不会被整体缓冲。
+ * 编码按 Accept-Encoding 协商：gzip / deflate 始终可用，classpath 中存在 brotli4j、zstd-jni 时支持 br / zstd
+ *
+ * 压缩发生在所有 GatewayFilter 之后，因此对上游已压缩（带 Content-Encoding）的响应不会重复压缩；
+ * 压缩时向 Vary 追加 Accept-Encoding（上游已声明 Accept-Encoding 或 * 时不重复），下游缓存会按编码分别存储压缩后的变体
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+public class CompressionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionConfig.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> compressionCustomizer(CompressionProperties properties) {
+        return factory -> {
+            if (!properties.isEnabled()) {
+                return;
+            }
+            CompressionPredicate predicate = new CompressionPredicate(properties);
+            factory.addServerCustomizers(httpServer -> httpServer.compress(predicate::test));
+            logger.info("响应压缩已开启: minResponseSize={}, paths={}, mimeTypes={}",
+                    properties.getMinResponseSize(), properties.getPaths(), properties.getMimeTypes());
+        };
+    }
+
+    /**
+     * 是否压缩的判断条件，在响应头发送前执行
+     */
+    static class CompressionPredicate {
+
+        private final long minResponseSize;
+        private final String[] mimeTypes;
+        private final String[] paths;
+
+        CompressionPredicate(CompressionProperties properties) {
+            this.minResponseSize = properties.getMinResponseSize().toBytes();
+            this.mimeTypes = toLowerCase(properties.getMimeTypes());
+            this.paths = properties.getPaths().toArray(new String[0]);
+        }
+
+        boolean test(HttpServerRequest request, HttpServerResponse response) {
+            HttpHeaders headers = response.responseHeaders();
+
+            // 上游已经压缩过
+            if (headers.contains(HttpHeaderNames.CONTENT_ENCODING)) {
+                return false;
+            }
+            if (!matchesPath(request.fullPath()) || !matchesMimeType(headers.get(HttpHeaderNames.CONTENT_TYPE))) {
+                return false;
+            }
+
+            // 长度已知且小于阈值时不压缩，流式响应（长度未知）直接压缩
+            String contentLength = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+            if (contentLength != null) {
+                try {
+                    if (Long.parseLong(contentLength) < minResponseSize) {
+                        return false;
+                    }
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+
+            addVaryAcceptEncoding(headers);
+            return true;
+        }
+
+        /**
+         * 合并到上游已有的 Vary：已包含 Accept-Encoding 或 * 时不再追加
+         */
+        static void addVaryAcceptEncoding(HttpHeaders headers) {
+            for (String vary : headers.getAll(HttpHeaderNames.VARY)) {
+                for (String token : vary.split(",")) {
+                    String name = token.trim();
+                    if ("*".equals(name) || HttpHeaderNames.ACCEPT_ENCODING.contentEqualsIgnoreCase(name)) {
+                        return;
+                    }
+                }
+            }
+            headers.add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+        }
+
+        private boolean matchesPath(String path) {
+            if (paths.length == 0) {
+                return true;
+            }
+            for (String prefix : paths) {
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesMimeType(String contentType) {
+            if (contentType == null) {
+                return false;
+            }
+            String value = contentType.toLowerCase(Locale.ROOT);
+            for (String mimeType : mimeTypes) {
+                if (value.startsWith(mimeType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String[] toLowerCase(List<String> values) {
+            return values.stream().map(v -> v.toLowerCase(Locale.ROOT)).toArray(String[]::new);
+        }
+    }
+}
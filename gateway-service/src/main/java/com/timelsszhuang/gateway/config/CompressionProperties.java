@@ -0,0 +1,39 @@
+package com.timelsszhuang.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 响应压缩配置
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+
+    /**
+     * 是否开启响应压缩
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最小压缩大小，Content-Length 小于该值的响应不压缩（未知长度的流式响应始终压缩）
+     */
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    /**
+     * 需要压缩的 Content-Type
+     */
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "application/json", "application/xml", "text/html", "text/plain", "text/xml"));
+
+    /**
+     * 需要压缩的路径前缀，为空表示所有路径
+     */
+    private List<String> paths = new ArrayList<>();
+}
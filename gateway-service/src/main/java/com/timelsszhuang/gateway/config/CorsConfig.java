@@ -1,5 +1,6 @@
 package com.timelsszhuang.gateway.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -9,36 +10,52 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
-import org.springframework.web.cors.reactive.CorsWebFilter;
-import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.cors.reactive.CorsUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 /**
  * CORS 跨域配置
- * 
+ *
  * 配置 Gateway 允许跨域请求，优先级设置为最高，
  * 确保在 Sentinel 和其他过滤器之前处理 OPTIONS 预检请求
  *
+ * 预检请求在路由查找和所有过滤器之前直接应答：响应头按 Origin 预先计算并缓存，
+ * 每个预检请求只需一次缓存查找（Access-Control-Allow-Headers 回显请求中允许的请求头，与 DefaultCorsProcessor 一致）
+ *
  * @author timelsszhuang
  */
 @Configuration
 public class CorsConfig {
 
+    /**
+     * 缓存的 Origin 判定数上限
+     */
+    private static final int MAX_CACHED_ORIGINS = 10_000;
+
     /**
      * CORS 跨域过滤器
-     * 
-     * 使用 CorsWebFilter 配置跨域策略
-     * Order 设置为 Ordered.HIGHEST_PRECEDENCE 确保优先执行
+     *
+     * 同时处理预检请求和跨域请求，Order 设置为 Ordered.HIGHEST_PRECEDENCE 确保优先执行
      */
     @Bean
     @Order(Ordered.HIGHEST_PRECEDENCE)
-    public CorsWebFilter corsWebFilter() {
+    public WebFilter corsWebFilter() {
+        return new PrecomputedCorsFilter(corsConfiguration(), MAX_CACHED_ORIGINS);
+    }
+
+    /**
+     * 网关的跨域规则
+     */
+    static CorsConfiguration corsConfiguration() {
         CorsConfiguration config = new CorsConfiguration();
 
         // 允许的源（生产环境应指定具体域名）
@@ -68,33 +85,139 @@ public class CorsConfig {
                 HttpHeaders.CONTENT_TYPE,
                 "X-User-Name"));
 
-        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        // 对所有路径应用 CORS 配置
-        source.registerCorsConfiguration("/**", config);
-
-        return new CorsWebFilter(source);
+        return config;
     }
 
     /**
-     * OPTIONS 预检请求过滤器
-     * 
-     * 确保 OPTIONS 请求直接返回，不经过后续的认证和限流过滤器
-     * 优先级设置为最高
+     * 预先计算响应头的 CORS 过滤器
+     *
+     * 与 CorsWebFilter 行为一致（对所有路径生效）：不允许的 Origin 或请求方法返回 403；
+     * 非跨域的 OPTIONS 请求直接返回 200，不经过后续的认证和限流过滤器
      */
-    @Bean
-    @Order(Ordered.HIGHEST_PRECEDENCE)
-    public WebFilter corsPreflightFilter() {
-        return (ServerWebExchange exchange, WebFilterChain chain) -> {
+    static class PrecomputedCorsFilter implements WebFilter {
+
+        private static final List<String> VARY_HEADERS = List.of(
+                HttpHeaders.ORIGIN,
+                HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD,
+                HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+
+        private final CorsConfiguration config;
+        private final boolean allowAnyHeader;
+        private final Map<String, OriginDecision> decisions;
+
+        PrecomputedCorsFilter(CorsConfiguration config, int maxCachedOrigins) {
+            this.config = config;
+            List<String> allowedHeaders = config.getAllowedHeaders();
+            this.allowAnyHeader = allowedHeaders != null && allowedHeaders.contains(CorsConfiguration.ALL);
+            this.decisions = Caffeine.newBuilder()
+                    .maximumSize(maxCachedOrigins)
+                    .<String, OriginDecision>build()
+                    .asMap();
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
             ServerHttpRequest request = exchange.getRequest();
+            ServerHttpResponse response = exchange.getResponse();
+            HttpHeaders responseHeaders = response.getHeaders();
+            // 响应随 Origin 等请求头变化，所有响应都带 Vary（与 CorsWebFilter 一致）
+            responseHeaders.addAll(HttpHeaders.VARY, VARY_HEADERS);
 
-            // 如果是 OPTIONS 预检请求，直接返回成功
-            if (HttpMethod.OPTIONS.equals(request.getMethod())) {
-                ServerHttpResponse response = exchange.getResponse();
-                response.setStatusCode(HttpStatus.OK);
-                return Mono.empty();
+            boolean options = HttpMethod.OPTIONS.equals(request.getMethod());
+            String origin = request.getHeaders().getOrigin();
+            if (origin == null) {
+                return options ? ok(exchange) : chain.filter(exchange);
             }
 
-            return chain.filter(exchange);
-        };
+            OriginDecision decision = decisions.computeIfAbsent(origin, this::decide);
+
+            if (options && request.getHeaders().containsKey(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD)) {
+                List<String> allowHeaders = decision.preflightHeaders == null ? null : checkPreflight(request.getHeaders());
+                if (allowHeaders == null) {
+                    return forbidden(response);
+                }
+                responseHeaders.putAll(decision.preflightHeaders);
+                if (!allowHeaders.isEmpty()) {
+                    responseHeaders.put(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, allowHeaders);
+                }
+                return ok(exchange);
+            }
+
+            // 同源请求（浏览器对同源 POST 等也会带 Origin）不是跨域请求
+            if (!CorsUtils.isCorsRequest(request)) {
+                return options ? ok(exchange) : chain.filter(exchange);
+            }
+            if (decision.actualHeaders == null) {
+                return forbidden(response);
+            }
+            responseHeaders.putAll(decision.actualHeaders);
+            return options ? ok(exchange) : chain.filter(exchange);
+        }
+
+        /**
+         * 校验预检请求的方法和请求头
+         *
+         * @return 应答的 Access-Control-Allow-Headers（允许的请求头为 * 时原样回显），不允许时返回 null
+         */
+        private List<String> checkPreflight(HttpHeaders requestHeaders) {
+            HttpMethod method = HttpMethod.valueOf(requestHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD));
+            if (config.checkHttpMethod(method) == null) {
+                return null;
+            }
+            if (allowAnyHeader) {
+                List<String> requested = requestHeaders.get(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+                return requested != null ? requested : List.of();
+            }
+            List<String> allowed = config.checkHeaders(requestHeaders.getAccessControlRequestHeaders());
+            return allowed != null ? List.of(StringUtils.collectionToDelimitedString(allowed, ", ")) : null;
+        }
+
+        /**
+         * 计算某个 Origin 的响应头，Origin 不允许时返回 REJECTED
+         */
+        private OriginDecision decide(String origin) {
+            String allowOrigin = config.checkOrigin(origin);
+            if (allowOrigin == null) {
+                return OriginDecision.REJECTED;
+            }
+
+            HttpHeaders actual = new HttpHeaders();
+            actual.setAccessControlAllowOrigin(allowOrigin);
+            if (Boolean.TRUE.equals(config.getAllowCredentials())) {
+                actual.setAccessControlAllowCredentials(true);
+            }
+            // 与 DefaultCorsProcessor 一致，预检响应同样带 Expose-Headers
+            if (config.getExposedHeaders() != null && !config.getExposedHeaders().isEmpty()) {
+                actual.setAccessControlExposeHeaders(config.getExposedHeaders());
+            }
+
+            HttpHeaders preflight = new HttpHeaders();
+            preflight.putAll(actual);
+            preflight.set(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS,
+                    StringUtils.collectionToCommaDelimitedString(config.getAllowedMethods()));
+            if (config.getMaxAge() != null) {
+                preflight.setAccessControlMaxAge(config.getMaxAge());
+            }
+
+            return new OriginDecision(HttpHeaders.readOnlyHttpHeaders(preflight), HttpHeaders.readOnlyHttpHeaders(actual));
+        }
+
+        private static Mono<Void> ok(ServerWebExchange exchange) {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        }
+
+        private static Mono<Void> forbidden(ServerHttpResponse response) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return response.setComplete();
+        }
+    }
+
+    /**
+     * 某个 Origin 的判定结果：预检响应头和跨域请求响应头，不允许的 Origin 两者均为 null
+     */
+    private record OriginDecision(HttpHeaders preflightHeaders, HttpHeaders actualHeaders) {
+
+        static final OriginDecision REJECTED = new OriginDecision(null, null);
     }
 }
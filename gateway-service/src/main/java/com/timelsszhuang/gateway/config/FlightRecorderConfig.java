@@ -0,0 +1,33 @@
+package com.timelsszhuang.gateway.config;
+
+import com.timelsszhuang.gateway.filter.FlightRecorderFilter;
+import com.timelsszhuang.gateway.util.SlowRequestRecorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 慢请求记录配置类
+ *
+ * FlightRecorderFilter 记录每个请求的阶段耗时，最慢的请求和错误请求保存在 SlowRequestRecorder 中，
+ * 通过 /gateway/slow-requests 查看，排查问题时不需要翻日志
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+@EnableConfigurationProperties(FlightRecorderProperties.class)
+@ConditionalOnProperty(prefix = "gateway.flight-recorder", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderConfig {
+
+    @Bean
+    public SlowRequestRecorder slowRequestRecorder(FlightRecorderProperties properties) {
+        return new SlowRequestRecorder(properties.getSlowest(), properties.getWindow().toNanos(),
+                properties.getErrors(), System.nanoTime());
+    }
+
+    @Bean
+    public FlightRecorderFilter flightRecorderFilter(SlowRequestRecorder recorder, FlightRecorderProperties properties) {
+        return new FlightRecorderFilter(recorder, properties.getErrorStatus());
+    }
+}
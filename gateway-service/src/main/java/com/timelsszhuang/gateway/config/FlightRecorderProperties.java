@@ -0,0 +1,41 @@
+package com.timelsszhuang.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 慢请求记录配置
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.flight-recorder")
+public class FlightRecorderProperties {
+
+    /**
+     * 是否记录慢请求和错误请求
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个窗口保留的最慢请求数
+     */
+    private int slowest = 20;
+
+    /**
+     * 窗口长度，/gateway/slow-requests 返回最近 1~2 个窗口内的最慢请求
+     */
+    private Duration window = Duration.ofMinutes(5);
+
+    /**
+     * 保留的最近错误请求数
+     */
+    private int errors = 50;
+
+    /**
+     * 记为错误的最小状态码，未完成（异常、客户端断开）的请求同样记为错误
+     */
+    private int errorStatus = 500;
+}
@@ -0,0 +1,89 @@
+package com.timelsszhuang.gateway.config;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayParamFlowItem;
+import com.timelsszhuang.gateway.filter.IdempotencyGatewayFilterFactory;
+import com.timelsszhuang.gateway.filter.JsonFieldHeaderGatewayFilterFactory;
+import com.timelsszhuang.gateway.filter.MirrorGatewayFilterFactory;
+import com.timelsszhuang.gateway.filter.PrefixRewriteGatewayFilterFactory;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 网关的 native-image 运行时提示
+ *
+ * - 自定义过滤器工厂的 Config：Spring Cloud Gateway 自带的提示只扫描 org.springframework.cloud.gateway 包，
+ *   路由配置中的参数通过反射绑定到这些类上
+ * - Sentinel SPI：SpiLoader 读取 META-INF/services/com.alibaba.csp.sentinel.* 后反射创建实现类
+ *   （处理器插槽、InitFunc、控制台命令等），构建时按类路径上的 SPI 文件逐个登记
+ * - Sentinel 网关规则：从 Nacos 数据源读取的 JSON 规则反序列化为这些类型
+ * 由 GatewayServiceApplication 的 @ImportRuntimeHints 引入，只在 AOT 处理时执行
+ *
+ * @author timelsszhuang
+ */
+public class GatewayRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final String SENTINEL_SPI_PATTERN = "META-INF/services/com.alibaba.csp.sentinel.*";
+
+    private static final Class<?>[] FILTER_CONFIGS = {
+            IdempotencyGatewayFilterFactory.Config.class,
+            JsonFieldHeaderGatewayFilterFactory.Config.class,
+            MirrorGatewayFilterFactory.Config.class,
+            PrefixRewriteGatewayFilterFactory.Config.class
+    };
+
+    private static final Class<?>[] SENTINEL_RULE_TYPES = {
+            ApiDefinition.class,
+            ApiPathPredicateItem.class,
+            GatewayFlowRule.class,
+            GatewayParamFlowItem.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+        binding.registerReflectionHints(hints.reflection(), FILTER_CONFIGS);
+        binding.registerReflectionHints(hints.reflection(), SENTINEL_RULE_TYPES);
+
+        hints.resources().registerPattern(SENTINEL_SPI_PATTERN);
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver(classLoader)
+                    .getResources("classpath*:" + SENTINEL_SPI_PATTERN)) {
+                registerSpiImplementations(hints, resource);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取 Sentinel SPI 文件失败", e);
+        }
+    }
+
+    /**
+     * 登记 SPI 文件中的实现类（每行一个类名，# 之后为注释）
+     */
+    private static void registerSpiImplementations(RuntimeHints hints, Resource resource) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String className = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!className.isEmpty()) {
+                    hints.reflection().registerType(TypeReference.of(className),
+                            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.timelsszhuang.gateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+
+/**
+ * 上游 HTTP/2 明文（h2c）配置
+ *
+ * 开启后网关到 service-provider / service-consumer 的请求使用 h2c，
+ * 多个并发请求作为 stream 复用少量 TCP 连接。下游服务需开启 server.http2.enabled
+ *
+ * prior-knowledge=true（默认）：直接发送 HTTP/2 连接前言，要求所有上游都支持 h2c；
+ * prior-knowledge=false：通过 HTTP/1.1 Upgrade 协商，不支持 h2c 的上游回退到 HTTP/1.1
+ *
+ * 由于按路由连接池同样经过 HttpClientFactory，这里的 Customizer 对全局和路由连接池都生效
+ *
+ * Reactor Netty 的 HTTP/2 连接池在连接建立完成前不知道每个连接可承载的 stream 数，
+ * 冷启动或突发时每个等待中的请求都会新建连接（并发 200 即建立 200 个连接，之后一直复用）。
+ * prior-knowledge 模式下用 Http2AllocationStrategy 限制每个上游地址的连接数（gateway.upstream.h2c.max-connections），
+ * 全局连接池和路由连接池都使用该策略
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+@EnableConfigurationProperties(H2cUpstreamProperties.class)
+@ConditionalOnProperty(prefix = "gateway.upstream.h2c", name = "enabled", havingValue = "true")
+public class H2cUpstreamConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(H2cUpstreamConfig.class);
+
+    @Bean
+    public HttpClientCustomizer h2cHttpClientCustomizer(H2cUpstreamProperties properties) {
+        boolean priorKnowledge = properties.isPriorKnowledge();
+        logger.info("上游 HttpClient 启用 h2c, prior-knowledge={}", priorKnowledge);
+        return httpClient -> priorKnowledge
+                ? httpClient.protocol(HttpProtocol.H2C)
+                : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+    }
+
+    /**
+     * h2c 连接数上限（Upgrade 协商模式下不限制：协商失败的上游仍按 HTTP/1.1 每个请求占用一个连接）
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.upstream.h2c", name = "prior-knowledge", havingValue = "true", matchIfMissing = true)
+    public Http2AllocationStrategy h2cAllocationStrategy(H2cUpstreamProperties properties) {
+        return Http2AllocationStrategy.builder()
+                .maxConnections(properties.getMaxConnections())
+                .minConnections(1)
+                .build();
+    }
+
+    /**
+     * 代替默认的 gatewayHttpClientFactory，全局连接池使用 h2c 连接数上限
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "gateway.upstream.h2c", name = "prior-knowledge", havingValue = "true", matchIfMissing = true)
+    public HttpClientFactory h2cHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                                  HttpClientSslConfigurer sslConfigurer,
+                                                  List<HttpClientCustomizer> customizers,
+                                                  Http2AllocationStrategy h2cAllocationStrategy) {
+        return new HttpClientFactory(properties, serverProperties, sslConfigurer, customizers) {
+            @Override
+            protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+                ConnectionProvider provider = super.buildConnectionProvider(properties);
+                ConnectionProvider.Builder builder = provider.mutate();
+                // 关闭连接池（pool.type=disabled）时每个请求新建连接，不适用
+                if (builder == null) {
+                    return provider;
+                }
+                provider.dispose();
+                return builder.allocationStrategy(h2cAllocationStrategy).build();
+            }
+        };
+    }
+}
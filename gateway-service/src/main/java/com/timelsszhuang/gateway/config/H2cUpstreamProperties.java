@@ -0,0 +1,30 @@
+package com.timelsszhuang.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 上游 HTTP/2 明文（h2c）配置
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.upstream.h2c")
+public class H2cUpstreamProperties {
+
+    /**
+     * 是否对上游使用 h2c（需下游服务开启 server.http2.enabled）
+     */
+    private boolean enabled = false;
+
+    /**
+     * true: 直接发送 HTTP/2 连接前言，要求所有上游都支持 h2c；false: 通过 HTTP/1.1 Upgrade 协商
+     */
+    private boolean priorKnowledge = true;
+
+    /**
+     * prior-knowledge 模式下每个上游地址的最大连接数：并发请求作为 stream 复用连接，
+     * 只有单个连接的并发 stream 达到上限（Tomcat 默认 100）时才建立新连接
+     */
+    private int maxConnections = 4;
+}
@@ -0,0 +1,106 @@
+package com.timelsszhuang.gateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.InetSocketAddress;
+import java.util.Objects;
+
+/**
+ * 内部监听端口配置类
+ *
+ * 在 gateway.internal.port 上额外监听一个端口，与公网端口共用同一个 HttpHandler（路由、过滤器完全相同）。
+ * 只有从内部端口进入的请求才会接受转发的身份断言（X-Identity-Assertion），公网端口上的断言头一律移除；
+ * 内部端口应只绑定到内部网卡，服务间调用（例如 consumer 的 gateway.url）指向该端口
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+@EnableConfigurationProperties(InternalListenerProperties.class)
+// 配置为空字符串（${GATEWAY_INTERNAL_PORT:}）同样视为不开启
+@ConditionalOnExpression("'${gateway.internal.port:}' != ''")
+public class InternalListenerConfig {
+
+    @Bean
+    public InternalListener internalListener(InternalListenerProperties properties, ServerProperties serverProperties,
+                                             ObjectProvider<HttpHandler> httpHandler) {
+        if (Objects.equals(properties.getPort(), serverProperties.getPort())) {
+            throw new IllegalStateException("gateway.internal.port 不能与 server.port 相同: " + properties.getPort());
+        }
+        return new InternalListener(properties.getAddress(), properties.getPort(), httpHandler);
+    }
+
+    /**
+     * 内部监听端口，随 Web 服务器一起启动和关闭
+     */
+    public static class InternalListener implements SmartLifecycle {
+
+        private static final Logger logger = LoggerFactory.getLogger(InternalListener.class);
+
+        private final String address;
+        private final int port;
+        /**
+         * 启动时才获取：JwtAuthenticationFilter 依赖本 Bean，提前创建 HttpHandler 会使 DispatcherHandler
+         * 在路由 HandlerMapping 创建完成之前初始化，两个端口的路由都会丢失
+         */
+        private final ObjectProvider<HttpHandler> httpHandler;
+        private volatile DisposableServer server;
+
+        InternalListener(String address, int port, ObjectProvider<HttpHandler> httpHandler) {
+            this.address = address;
+            this.port = port;
+            this.httpHandler = httpHandler;
+        }
+
+        /**
+         * 请求是否从内部端口进入
+         */
+        public boolean accepts(ServerHttpRequest request) {
+            DisposableServer current = this.server;
+            InetSocketAddress local = request.getLocalAddress();
+            return current != null && local != null && local.getPort() == current.port();
+        }
+
+        @Override
+        public void start() {
+            server = HttpServer.create()
+                    .host(address)
+                    .port(port)
+                    .handle(new ReactorHttpHandlerAdapter(httpHandler.getObject()))
+                    .bindNow();
+            logger.info("内部监听端口已启动: {}:{}", address, server.port());
+        }
+
+        @Override
+        public void stop() {
+            DisposableServer current = this.server;
+            if (current != null) {
+                current.disposeNow();
+                server = null;
+            }
+        }
+
+        @Override
+        public boolean isRunning() {
+            return server != null;
+        }
+
+        @Override
+        public int getPhase() {
+            // 与 Web 服务器同一阶段：就绪前开始监听，关闭时先于其他 Bean 停止
+            return DEFAULT_PHASE - 1024;
+        }
+    }
+}
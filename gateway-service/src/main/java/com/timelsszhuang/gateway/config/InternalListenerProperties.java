@@ -0,0 +1,24 @@
+package com.timelsszhuang.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 内部监听端口配置
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.internal")
+public class InternalListenerProperties {
+
+    /**
+     * 内部监听端口，为空表示不开启；必须与 server.port 不同
+     */
+    private Integer port;
+
+    /**
+     * 绑定地址，应为只有内部服务可达的网卡地址，不能暴露到公网
+     */
+    private String address = "127.0.0.1";
+}
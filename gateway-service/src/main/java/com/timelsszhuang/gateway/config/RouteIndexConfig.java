@@ -0,0 +1,38 @@
+package com.timelsszhuang.gateway.config;
+
+import com.timelsszhuang.gateway.route.IndexedRoutePredicateHandlerMapping;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 路由索引配置类
+ *
+ * GatewayAutoConfiguration 中的 routePredicateHandlerMapping 没有 @ConditionalOnMissingBean，
+ * 这里在 Bean 定义阶段把它的实现替换为 IndexedRoutePredicateHandlerMapping（构造器注入），
+ * Bean 名称、顺序和生命周期保持不变。通过 gateway.route-index.enabled=false 可关闭索引
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+public class RouteIndexConfig {
+
+    private static final String HANDLER_MAPPING_BEAN_NAME = "routePredicateHandlerMapping";
+
+    @Bean
+    public static BeanFactoryPostProcessor indexedRoutePredicateHandlerMappingPostProcessor() {
+        return beanFactory -> {
+            if (!beanFactory.containsBeanDefinition(HANDLER_MAPPING_BEAN_NAME)) {
+                return;
+            }
+            if (beanFactory.getBeanDefinition(HANDLER_MAPPING_BEAN_NAME) instanceof AbstractBeanDefinition definition) {
+                definition.setFactoryBeanName(null);
+                definition.setFactoryMethodName(null);
+                definition.setBeanClass(IndexedRoutePredicateHandlerMapping.class);
+                definition.setAutowireMode(AutowireCapableBeanFactory.AUTOWIRE_CONSTRUCTOR);
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.timelsszhuang.gateway.config;
+
+import com.timelsszhuang.gateway.route.IncrementalRouteDefinitionRouteLocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.CachingRouteLocator;
+import org.springframework.cloud.gateway.route.CompositeRouteLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路由增量刷新配置类
+ *
+ * 覆盖 GatewayAutoConfiguration 的 cachedCompositeRouteLocator（按名称 @ConditionalOnMissingBean），
+ * 用 IncrementalRouteDefinitionRouteLocator 代替 RouteDefinitionRouteLocator 构建路由，其它 RouteLocator 保持不变
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+public class RouteRefreshConfig {
+
+    @Bean
+    @Primary
+    public RouteLocator cachedCompositeRouteLocator(List<RouteLocator> routeLocators,
+                                                    RouteDefinitionLocator routeDefinitionLocator,
+                                                    List<RoutePredicateFactory> predicates,
+                                                    List<GatewayFilterFactory> gatewayFilterFactories,
+                                                    GatewayProperties gatewayProperties,
+                                                    ConfigurationService configurationService,
+                                                    MeterRegistry meterRegistry) {
+        List<RouteLocator> delegates = new ArrayList<>();
+        for (RouteLocator routeLocator : routeLocators) {
+            if (!(routeLocator instanceof RouteDefinitionRouteLocator)) {
+                delegates.add(routeLocator);
+            }
+        }
+        delegates.add(new IncrementalRouteDefinitionRouteLocator(routeDefinitionLocator, predicates,
+                gatewayFilterFactories, gatewayProperties, configurationService, meterRegistry));
+        return new CachingRouteLocator(new CompositeRouteLocator(Flux.fromIterable(delegates)));
+    }
+}
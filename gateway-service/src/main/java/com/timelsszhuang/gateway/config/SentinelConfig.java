@@ -76,35 +76,31 @@ public class SentinelConfig {
         Set<ApiDefinition> definitions = new HashSet<>();
 
         // Provider API 分组
-        ApiDefinition providerApi = new ApiDefinition("provider_api")
-                .setPredicateItems(new HashSet<ApiPredicateItem>() {{
-                    add(new ApiPathPredicateItem().setPattern("/provider/**")
-                            .setMatchStrategy(SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX));
-                }});
-        definitions.add(providerApi);
+        definitions.add(apiDefinition("provider_api", "/provider/**"));
 
         // Consumer API 分组
-        ApiDefinition consumerApi = new ApiDefinition("consumer_api")
-                .setPredicateItems(new HashSet<ApiPredicateItem>() {{
-                    add(new ApiPathPredicateItem().setPattern("/consumer/**")
-                            .setMatchStrategy(SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX));
-                }});
-        definitions.add(consumerApi);
+        definitions.add(apiDefinition("consumer_api", "/consumer/**"));
 
         // 认证 API 分组
-        ApiDefinition authApi = new ApiDefinition("auth_api")
-                .setPredicateItems(new HashSet<ApiPredicateItem>() {{
-                    add(new ApiPathPredicateItem().setPattern("/provider/auth/**")
-                            .setMatchStrategy(SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX));
-                    add(new ApiPathPredicateItem().setPattern("/consumer/user/**")
-                            .setMatchStrategy(SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX));
-                }});
-        definitions.add(authApi);
+        definitions.add(apiDefinition("auth_api", "/provider/auth/**", "/consumer/user/**"));
 
         GatewayApiDefinitionManager.loadApiDefinitions(definitions);
         logger.info("已加载 {} 个 API 分组定义", definitions.size());
     }
 
+    /**
+     * 按路径前缀匹配的 API 分组
+     * （不使用双括号初始化，避免为每个分组生成匿名 HashSet 子类）
+     */
+    private static ApiDefinition apiDefinition(String name, String... prefixPatterns) {
+        Set<ApiPredicateItem> items = new HashSet<>();
+        for (String pattern : prefixPatterns) {
+            items.add(new ApiPathPredicateItem().setPattern(pattern)
+                    .setMatchStrategy(SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX));
+        }
+        return new ApiDefinition(name).setPredicateItems(items);
+    }
+
     /**
      * 初始化网关流控规则
      */
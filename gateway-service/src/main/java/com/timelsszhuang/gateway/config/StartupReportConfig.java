@@ -0,0 +1,94 @@
+package com.timelsszhuang.gateway.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 启动耗时报告
+ *
+ * GatewayServiceApplication 使用 BufferingApplicationStartup 记录启动步骤，就绪后在日志中输出各阶段耗时
+ * 和最慢的 Bean；完整时间线通过 /actuator/startup 获取。JVM 启动到就绪的时间包含类加载，
+ * 用于比较 AppCDS 等优化的效果（压测见 gateway-benchmarks 的 StartupBenchmark）。
+ * gateway.startup.exit-on-ready=true 时输出报告后退出，供 cds profile 的训练启动使用
+ * （与 spring.context.exit=onRefresh 不同，就绪后才退出，训练覆盖 Web 服务器启动和就绪阶段的类）
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+public class StartupReportConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupReportConfig.class);
+
+    private static final String BEAN_INSTANTIATE_STEP = "spring.beans.instantiate";
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> startupReportListener(
+            @Value("${gateway.startup.report.top-beans:10}") int topBeans,
+            @Value("${gateway.startup.exit-on-ready:false}") boolean exitOnReady) {
+        return event -> {
+            report(event, topBeans);
+            if (exitOnReady) {
+                logger.info("gateway.startup.exit-on-ready=true，退出");
+                System.exit(SpringApplication.exit(event.getApplicationContext()));
+            }
+        };
+    }
+
+    private static void report(ApplicationReadyEvent event, int topBeans) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            logger.info("启动完成: JVM 启动到就绪 {} ms", uptime);
+            return;
+        }
+        // 不清空缓冲区，/actuator/startup 仍可获取完整时间线
+        List<StartupTimeline.TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+
+        StringBuilder report = new StringBuilder();
+        report.append("\n╔════════════════════════════════════════════════════════════════\n");
+        report.append("║ Gateway 启动耗时\n");
+        report.append("╠════════════════════════════════════════════════════════════════\n");
+        report.append(String.format("║ JVM 启动到就绪 : %d ms（进程启动到 main 之前约 %d ms）%n",
+                uptime, buffering.getBufferedTimeline().getStartTime().toEpochMilli()
+                        - ManagementFactory.getRuntimeMXBean().getStartTime()));
+        report.append("╠══ 阶段 ══\n");
+        for (StartupTimeline.TimelineEvent timelineEvent : events) {
+            if (timelineEvent.getStartupStep().getParentId() == null) {
+                report.append(String.format("║ %6d ms  %s%n",
+                        timelineEvent.getDuration().toMillis(), timelineEvent.getStartupStep().getName()));
+            }
+        }
+        report.append(String.format("╠══ 最慢的 %d 个 Bean（含依赖 Bean 的创建时间）══%n", topBeans));
+        events.stream()
+                .filter(e -> BEAN_INSTANTIATE_STEP.equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(topBeans)
+                .forEach(e -> report.append(String.format("║ %6d ms  %s%n",
+                        e.getDuration().toMillis(), tag(e.getStartupStep(), "beanName"))));
+        report.append("╚════════════════════════════════════════════════════════════════");
+        logger.info(report.toString());
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "";
+    }
+}
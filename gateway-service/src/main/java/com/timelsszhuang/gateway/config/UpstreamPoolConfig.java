@@ -0,0 +1,53 @@
+package com.timelsszhuang.gateway.config;
+
+import com.timelsszhuang.gateway.filter.PooledNettyRoutingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * 上游连接池配置类
+ *
+ * 注册按路由选择连接池的 PooledNettyRoutingFilter，
+ * 需配合 spring.cloud.gateway.global-filter.netty-routing.enabled=false 关闭默认路由过滤器，
+ * 该开关同时会关闭默认的 NettyWriteResponseFilter，因此这里一并注册
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamPoolProperties.class)
+public class UpstreamPoolConfig {
+
+    @Bean
+    public PooledNettyRoutingFilter pooledNettyRoutingFilter(HttpClient httpClient,
+                                                             ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                             HttpClientProperties httpClientProperties,
+                                                             UpstreamPoolProperties poolProperties,
+                                                             ServerProperties serverProperties,
+                                                             HttpClientSslConfigurer sslConfigurer,
+                                                             ObjectProvider<HttpClientCustomizer> customizers,
+                                                             MeterRegistry meterRegistry,
+                                                             ObjectProvider<Http2AllocationStrategy> h2cAllocationStrategy) {
+        return new PooledNettyRoutingFilter(httpClient, headersFilters, httpClientProperties, poolProperties,
+                serverProperties, sslConfigurer, customizers.orderedStream().toList(), meterRegistry,
+                h2cAllocationStrategy.getIfAvailable());
+    }
+
+    @Bean
+    public NettyWriteResponseFilter nettyWriteResponseFilter(GatewayProperties gatewayProperties) {
+        return new NettyWriteResponseFilter(gatewayProperties.getStreamingMediaTypes());
+    }
+}
@@ -0,0 +1,63 @@
+package com.timelsszhuang.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 上游连接池配置（按路由）
+ *
+ * 全局连接池沿用 spring.cloud.gateway.httpclient.pool.*，
+ * 这里只声明需要独立连接池的路由，key 为路由 ID
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.upstream.pool")
+public class UpstreamPoolProperties {
+
+    /**
+     * 路由 ID -> 连接池配置
+     */
+    private Map<String, RoutePool> routes = new LinkedHashMap<>();
+
+    /**
+     * 单个路由的连接池配置
+     */
+    @Data
+    public static class RoutePool {
+
+        /**
+         * 最大连接数
+         */
+        private int maxConnections = 200;
+
+        /**
+         * 等待获取连接的最大排队数，-1 表示不限制
+         */
+        private int pendingAcquireMaxCount = 400;
+
+        /**
+         * 等待获取连接的超时时间
+         */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+        /**
+         * 连接最大空闲时间，超过后被回收
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        /**
+         * 连接最大存活时间
+         */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        /**
+         * 后台驱逐空闲/过期连接的间隔，0 表示不启用后台驱逐
+         */
+        private Duration evictionInterval = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,92 @@
+package com.timelsszhuang.gateway.config;
+
+import com.alibaba.csp.sentinel.adapter.gateway.sc.SentinelGatewayFilter;
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.gateway.filter.PooledNettyRoutingFilter;
+import com.timelsszhuang.gateway.service.GatewayWarmupService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 启动预热配置类
+ *
+ * 预热在 ApplicationRunner 中同步执行：此时 Web 服务器已监听端口，而 Spring Boot 在所有 Runner 完成后
+ * 才发布 ReadinessState.ACCEPTING_TRAFFIC，因此 /actuator/health/readiness 在预热结束前保持 OUT_OF_SERVICE。
+ * 注意 Nacos 注册发生在 Web 服务器启动时，直接通过 Nacos 发现网关的调用方不受就绪状态控制
+ * Sentinel 网关过滤器被包装为跳过预热模拟请求的版本，模拟请求不计入限流统计，也不会被限流；
+ * Sentinel 的资源由 GatewayWarmupService 在发送模拟请求前单独预热
+ *
+ * @author timelsszhuang
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+@ConditionalOnProperty(prefix = "gateway.warmup", name = "enabled", havingValue = "true")
+public class WarmupConfig {
+
+    @Bean
+    public GatewayWarmupService gatewayWarmupService(WarmupProperties properties, RouteLocator routeLocator,
+                                                     DiscoveryClient discoveryClient,
+                                                     PooledNettyRoutingFilter routingFilter, JwtUtil jwtUtil) {
+        return new GatewayWarmupService(properties, routeLocator, discoveryClient, routingFilter, jwtUtil);
+    }
+
+    @Bean
+    public ApplicationRunner gatewayWarmupRunner(GatewayWarmupService warmupService, ApplicationContext context) {
+        return args -> warmupService.warmUp(((WebServerApplicationContext) context).getWebServer().getPort());
+    }
+
+    /**
+     * 包装 SentinelGatewayFilter，预热模拟请求直接交给后续过滤器
+     */
+    @Bean
+    public static BeanPostProcessor sentinelWarmupExemption(ObjectProvider<GatewayWarmupService> warmupService) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof SentinelGatewayFilter sentinelFilter) {
+                    return new WarmupExemptFilter(sentinelFilter, warmupService);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class WarmupExemptFilter implements GlobalFilter, Ordered {
+
+        private final GlobalFilter delegate;
+        private final ObjectProvider<GatewayWarmupService> warmupService;
+
+        WarmupExemptFilter(SentinelGatewayFilter delegate, ObjectProvider<GatewayWarmupService> warmupService) {
+            this.delegate = delegate;
+            this.warmupService = warmupService;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            GatewayWarmupService service = warmupService.getIfAvailable();
+            if (service != null && service.isWarmupRequest(exchange.getRequest())) {
+                return chain.filter(exchange);
+            }
+            return delegate.filter(exchange, chain);
+        }
+
+        @Override
+        public int getOrder() {
+            return ((Ordered) delegate).getOrder();
+        }
+    }
+}
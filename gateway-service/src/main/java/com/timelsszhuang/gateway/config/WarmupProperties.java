@@ -0,0 +1,53 @@
+package com.timelsszhuang.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 启动预热配置
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "gateway.warmup")
+public class WarmupProperties {
+
+    /**
+     * 是否在就绪前预热
+     */
+    private boolean enabled = false;
+
+    /**
+     * 发往网关自身的模拟请求总数
+     */
+    private int requests = 2000;
+
+    /**
+     * 模拟请求的并发数
+     */
+    private int concurrency = 16;
+
+    /**
+     * 模拟请求的路径（GET，轮流使用）；应选择没有副作用的路径，上游返回 404 同样能完成预热
+     */
+    private List<String> paths = new ArrayList<>(List.of("/provider/warmup", "/consumer/warmup"));
+
+    /**
+     * 模拟请求使用的用户名（签发预热 Token）
+     */
+    private String username = "gateway-warmup";
+
+    /**
+     * 每个上游实例预先建立的连接数，0 表示不预建连接
+     */
+    private int connectionsPerInstance = 4;
+
+    /**
+     * 预热总耗时上限，超时后直接进入就绪
+     */
+    private Duration timeout = Duration.ofSeconds(60);
+}
@@ -1,18 +1,35 @@
 package com.timelsszhuang.gateway.controller;
 
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.gateway.filter.PooledNettyRoutingFilter;
 import com.timelsszhuang.gateway.filter.RequestStatisticsFilter;
+import com.timelsszhuang.gateway.service.CanaryRoutingService;
+import com.timelsszhuang.gateway.service.TokenRevocationService;
+import com.timelsszhuang.gateway.service.ConnectionPoolMetricsService;
+import com.timelsszhuang.gateway.util.SlowRequestRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Gateway 管理控制器
- * 提供网关状态查询、统计信息等接口
+ * 提供网关状态查询、统计信息等接口；修改类接口需携带 X-Admin-Token（见 AdminAuthWebFilter）
  *
  * @author timelsszhuang
  */
@@ -21,6 +38,28 @@ import java.util.Map;
 public class GatewayManagementController {
 
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter millisFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    @Autowired
+    private ConnectionPoolMetricsService connectionPoolMetricsService;
+
+    @Autowired
+    private PooledNettyRoutingFilter pooledNettyRoutingFilter;
+
+    @Autowired
+    private HttpClientProperties httpClientProperties;
+
+    @Autowired
+    private CanaryRoutingService canaryRoutingService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired(required = false)
+    private SlowRequestRecorder slowRequestRecorder;
 
     /**
      * 获取网关基本信息
@@ -47,6 +86,147 @@ public class GatewayManagementController {
         return result;
     }
 
+    /**
+     * 获取上游连接池配置和实时指标
+     * 包括活跃/空闲/排队连接数和获取连接耗时分布
+     */
+    @GetMapping("/pools")
+    public Map<String, Object> getPools() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(formatter));
+        result.put("globalPool", httpClientProperties.getPool());
+        result.put("routePools", pooledNettyRoutingFilter.getRoutePools());
+        result.put("metrics", connectionPoolMetricsService.getPoolMetrics());
+        return result;
+    }
+
+    /**
+     * 获取各服务的灰度规则
+     */
+    @GetMapping("/canary")
+    public Map<String, Object> getCanaryRules() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(formatter));
+        result.put("rules", canaryRoutingService.getRules());
+        return result;
+    }
+
+    /**
+     * 修改服务的灰度流量比例（百分比，0-100）
+     * 例如：PUT /gateway/canary/service-provider?weight=5（需 X-Admin-Token）
+     */
+    @PutMapping("/canary/{serviceId}")
+    public Map<String, Object> updateCanaryWeight(@PathVariable String serviceId, @RequestParam double weight) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(formatter));
+        try {
+            result.put("code", 200);
+            result.put("rule", canaryRoutingService.setWeight(serviceId, weight));
+        } catch (IllegalArgumentException e) {
+            result.put("code", 400);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 获取 Token 吊销列表状态
+     */
+    @GetMapping("/revocations")
+    public Map<String, Object> getRevocations() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(formatter));
+        result.put("revocations", tokenRevocationService.getStats());
+        return result;
+    }
+
+    /**
+     * 吊销 Token（完整 Token 或签名段），重复条目合并，Token 过期后自动移除
+     * 例如：POST /gateway/revocations ["eyJhbGciOi..."]（需 X-Admin-Token）
+     */
+    @PostMapping("/revocations")
+    public Map<String, Object> revokeTokens(@RequestBody List<String> tokens) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(formatter));
+        result.put("code", 200);
+        result.put("revocations", tokenRevocationService.revoke(tokens));
+        return result;
+    }
+
+    /**
+     * 从文件重新加载吊销列表
+     */
+    @PostMapping("/revocations/reload")
+    public Map<String, Object> reloadRevocations() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(formatter));
+        try {
+            result.put("code", 200);
+            result.put("revocations", tokenRevocationService.reload());
+        } catch (IllegalStateException e) {
+            result.put("code", 500);
+            result.put("message", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 获取 JWT 签名密钥状态（只返回 kid，不返回密钥）
+     */
+    @GetMapping("/jwt-keys")
+    public Map<String, Object> getJwtKeys() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(formatter));
+        result.put("keys", jwtUtil.getKeyRegistry().getStats());
+        return result;
+    }
+
+    /**
+     * 获取最近窗口内最慢的请求和最近的错误请求（含请求ID、路由、上游实例、各阶段耗时）
+     * 关闭 gateway.flight-recorder.enabled 时返回 404
+     */
+    @GetMapping("/slow-requests")
+    public Map<String, Object> getSlowRequests() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("timestamp", LocalDateTime.now().format(formatter));
+        if (slowRequestRecorder == null) {
+            result.put("code", 404);
+            result.put("message", "慢请求记录未开启（gateway.flight-recorder.enabled=false）");
+            return result;
+        }
+        long now = System.nanoTime();
+        result.put("recorder", slowRequestRecorder.getStats(now));
+        result.put("slowest", slowRequestRecorder.getSlowest(now).stream().map(this::toView).toList());
+        result.put("errors", slowRequestRecorder.getErrors().stream().map(this::toView).toList());
+        return result;
+    }
+
+    /**
+     * 耗时转换为毫秒（保留两位小数）
+     */
+    private Map<String, Object> toView(SlowRequestRecorder.Entry entry) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("time", LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestamp()), ZoneId.systemDefault())
+                .format(millisFormatter));
+        view.put("requestId", entry.requestId());
+        view.put("traceId", entry.traceId());
+        view.put("method", entry.method());
+        view.put("path", entry.path());
+        view.put("routeId", entry.routeId());
+        view.put("upstream", entry.upstream());
+        view.put("status", entry.status());
+        view.put("error", entry.error());
+        view.put("durationMs", millis(entry.durationNanos()));
+        Map<String, Double> phases = new LinkedHashMap<>();
+        entry.phases().forEach((phase, nanos) -> phases.put(phase, millis(nanos)));
+        view.put("phasesMs", phases);
+        return view;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
     /**
      * 健康检查
      */
@@ -0,0 +1,93 @@
+package com.timelsszhuang.gateway.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 管理接口鉴权过滤器
+ *
+ * /gateway/** 下的修改操作（非 GET / HEAD / OPTIONS）必须携带与 gateway.admin.token 一致的 X-Admin-Token，
+ * 未配置管理令牌时一律拒绝；查询接口不受影响
+ *
+ * @author timelsszhuang
+ */
+public class AdminAuthWebFilter implements WebFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminAuthWebFilter.class);
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private static final String PATH_SEGMENT = "gateway";
+
+    private final byte[] token;
+
+    public AdminAuthWebFilter(String token) {
+        this.token = StringUtils.hasText(token) ? token.trim().getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS
+                || !isManagementPath(request)) {
+            return chain.filter(exchange);
+        }
+        if (token == null) {
+            return errorResponse(exchange, HttpStatus.FORBIDDEN, "管理接口未开启：未配置 gateway.admin.token（GATEWAY_ADMIN_TOKEN）");
+        }
+        String provided = request.getHeaders().getFirst(HEADER);
+        // 常量时间比较，避免按响应时间逐字节猜测令牌
+        if (provided == null || !MessageDigest.isEqual(token, provided.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("管理接口鉴权失败: {} {}, remote={}", method, request.getPath().value(), request.getRemoteAddress());
+            return errorResponse(exchange, HttpStatus.UNAUTHORIZED, "管理令牌无效");
+        }
+        return chain.filter(exchange);
+    }
+
+    /**
+     * 按第一个路径段判断（解码并去掉矩阵参数后比较，与 Controller 的路径匹配一致，/gateway;x=1/... 同样拦截）
+     */
+    private static boolean isManagementPath(ServerHttpRequest request) {
+        for (PathContainer.Element element : request.getPath().pathWithinApplication().elements()) {
+            // 跳过连续斜杠产生的空路径段
+            if (element instanceof PathContainer.PathSegment segment && !segment.valueToMatch().isEmpty()) {
+                return PATH_SEGMENT.equals(segment.valueToMatch());
+            }
+        }
+        return false;
+    }
+
+    private Mono<Void> errorResponse(ServerWebExchange exchange, HttpStatus status, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        String body = String.format(
+            "{\"code\":%d,\"message\":\"%s\",\"data\":null,\"timestamp\":%d}",
+            status.value(),
+            message,
+            System.currentTimeMillis()
+        );
+
+        DataBuffer buffer = response.bufferFactory()
+                .wrap(body.getBytes(StandardCharsets.UTF_8));
+
+        return response.writeWith(Mono.just(buffer));
+    }
+}
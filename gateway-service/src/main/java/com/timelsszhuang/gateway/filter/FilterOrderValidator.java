@@ -48,7 +48,9 @@ public class FilterOrderValidator {
             int order = ((Ordered) filter).getOrder();
 
             // 只显示我们自定义的过滤器
-            if (className.contains("PreLogging") ||
+            if (className.contains("FlightRecorder") ||
+                className.contains("Tracing") ||
+                className.contains("PreLogging") ||
                 className.contains("JwtAuthentication") ||
                 className.contains("RequestStatistics") ||
                 className.contains("LoggingGlobal") ||
@@ -0,0 +1,171 @@
+package com.timelsszhuang.gateway.filter;
+
+import com.timelsszhuang.gateway.util.SlowRequestRecorder;
+import com.timelsszhuang.trace.Span;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 慢请求记录过滤器
+ *
+ * 请求进入时只记录开始时间，转发上游和收到上游响应头的时间由 PooledNettyRoutingFilter 标记，
+ * 请求结束时按总耗时判断是否进入最慢列表、按状态判断是否为错误，入选的请求才读取路由、上游实例等信息构造记录。
+ * 阶段耗时：
+ * <ul>
+ *   <li>gateway：进入网关到开始转发（鉴权、限流、负载均衡等），未转发的请求只有这一段</li>
+ *   <li>upstream：开始转发到收到上游响应头（获取连接 + 上游处理）</li>
+ *   <li>response：收到响应头到响应体写回客户端</li>
+ * </ul>
+ *
+ * @author timelsszhuang
+ */
+public class FlightRecorderFilter implements GlobalFilter, Ordered {
+
+    private static final String TIMINGS_ATTR = FlightRecorderFilter.class.getName() + ".timings";
+    private static final String REQUEST_ID = "REQUEST_ID";
+
+    private final SlowRequestRecorder recorder;
+    private final int errorStatus;
+
+    public FlightRecorderFilter(SlowRequestRecorder recorder, int errorStatus) {
+        this.recorder = recorder;
+        this.errorStatus = errorStatus;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Timings timings = new Timings(System.nanoTime());
+        exchange.getAttributes().put(TIMINGS_ATTR, timings);
+        return chain.filter(exchange)
+                .doOnError(e -> timings.error = e)
+                .doFinally(signal -> record(exchange, timings, signal));
+    }
+
+    /**
+     * 标记开始转发上游（路由过滤器调用）
+     */
+    public static void markRouted(ServerWebExchange exchange) {
+        Timings timings = exchange.getAttribute(TIMINGS_ATTR);
+        if (timings != null) {
+            timings.routed = System.nanoTime();
+        }
+    }
+
+    /**
+     * 标记收到上游响应头（路由过滤器调用）
+     */
+    public static void markResponded(ServerWebExchange exchange) {
+        Timings timings = exchange.getAttribute(TIMINGS_ATTR);
+        if (timings != null) {
+            timings.responded = System.nanoTime();
+        }
+    }
+
+    private void record(ServerWebExchange exchange, Timings timings, SignalType signal) {
+        long end = System.nanoTime();
+        long duration = end - timings.start;
+        int status = status(exchange, signal, timings.error);
+        boolean error = signal != SignalType.ON_COMPLETE || status >= errorStatus;
+        boolean slow = recorder.isSlow(duration, end);
+        if (!error && !slow) {
+            return;
+        }
+
+        SlowRequestRecorder.Entry entry = entry(exchange, timings, signal, status, end);
+        if (slow) {
+            recorder.recordSlow(entry, end);
+        }
+        if (error) {
+            recorder.recordError(entry);
+        }
+    }
+
+    private static SlowRequestRecorder.Entry entry(ServerWebExchange exchange, Timings timings, SignalType signal,
+                                                   int status, long end) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        Span span = exchange.getAttribute(TracingFilter.SPAN_ATTR);
+
+        String upstream = null;
+        URI requestUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (timings.routed > 0 && requestUrl != null) {
+            upstream = requestUrl.getScheme() + "://" + requestUrl.getRawAuthority();
+        }
+
+        String error = null;
+        if (timings.error != null) {
+            error = timings.error.getClass().getSimpleName() + ": " + timings.error.getMessage();
+        } else if (signal == SignalType.CANCEL) {
+            error = "客户端断开";
+        }
+
+        Map<String, Long> phases = new LinkedHashMap<>(4);
+        long routed = timings.routed;
+        long responded = timings.responded;
+        if (routed == 0) {
+            phases.put("gateway", end - timings.start);
+        } else {
+            phases.put("gateway", routed - timings.start);
+            if (responded == 0) {
+                phases.put("upstream", end - routed);
+            } else {
+                phases.put("upstream", responded - routed);
+                phases.put("response", end - responded);
+            }
+        }
+
+        return new SlowRequestRecorder.Entry(System.currentTimeMillis(), exchange.getAttribute(REQUEST_ID),
+                span != null ? span.getTraceId() : null, request.getMethod().name(), request.getPath().value(),
+                route != null ? route.getId() : null, upstream, status, error, end - timings.start, phases);
+    }
+
+    /**
+     * 异常结束时按异常推断错误处理器将返回的状态码，客户端断开时为 0
+     */
+    private static int status(ServerWebExchange exchange, SignalType signal, Throwable error) {
+        if (signal == SignalType.ON_ERROR) {
+            return error instanceof ResponseStatusException e ? e.getStatusCode().value() : 500;
+        }
+        if (signal == SignalType.CANCEL) {
+            return 0;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null ? status.value() : 0;
+    }
+
+    @Override
+    public int getOrder() {
+        // 优先级 -400：最外层的自定义过滤器，耗时包含 Tracing(-300) 及之后的全部过滤器
+        return -400;
+    }
+
+    /**
+     * 请求的时间点（System.nanoTime()），转发和响应在其他线程标记
+     */
+    private static final class Timings {
+
+        final long start;
+        volatile long routed;
+        volatile long responded;
+        volatile Throwable error;
+
+        Timings(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.timelsszhuang.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 幂等键过滤器工厂
+ *
+ * 写请求带 Idempotency-Key 请求头时，同一用户（X-User-Name）同一路由同一个键只执行一次：
+ * 第一个请求正常转发并记录响应；并发的重复请求等待它完成；之后的重复请求直接重放记录的响应
+ * （带 Idempotency-Replayed: true）。同一个键用于不同的方法或路径时返回 422。
+ * 只记录 2xx 和不可重试的 4xx 响应；5xx、408、429、上游异常、超过 maxBodySize 的响应不记录，
+ * 等待中的重复请求随后重新执行。执行超过 timeout 仍未完成时，等待的请求返回 409
+ * <pre>
+ * filters:
+ *   - Idempotency=/provider/order/create, 10m
+ * </pre>
+ *
+ * 过滤器顺序固定在 NettyWriteResponseFilter 之前（才能记录写出的响应体），JWT 认证之后，
+ * 因此 paths 按网关路径（改写前）匹配。结果缓存按响应体大小计算容量
+ * （gateway.idempotency.max-cache-size），只在单个网关实例内生效
+ *
+ * 指标：gateway.idempotency.requests（tag route、result=executed / replayed / waited / conflict / mismatch）
+ *
+ * @author timelsszhuang
+ */
+@Component
+public class IdempotencyGatewayFilterFactory extends AbstractGatewayFilterFactory<IdempotencyGatewayFilterFactory.Config> {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotency-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyGatewayFilterFactory.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    /**
+     * 可以重试、不记录的 4xx
+     */
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(408, 409, 425, 429);
+
+    /**
+     * 不记录的响应头（逐跳头和长度；CORS 等过滤器在本过滤器之前添加的头也不记录，重放时会重新添加）
+     */
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Entry> entries;
+
+    public IdempotencyGatewayFilterFactory(MeterRegistry meterRegistry,
+                                           @Value("${gateway.idempotency.max-cache-size:64MB}") DataSize maxCacheSize) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        Cache<String, Entry> cache = Caffeine.newBuilder()
+                .maximumWeight(maxCacheSize.toBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.weight())
+                .expireAfter(new EntryExpiry())
+                .build();
+        this.entries = cache.asMap();
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("paths", "ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter(new IdempotencyFilter(config),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private class IdempotencyFilter implements GatewayFilter {
+
+        private final Config config;
+        private final String routeId;
+        private final Counter executed;
+        private final Counter replayed;
+        private final Counter waited;
+        private final Counter conflict;
+        private final Counter mismatch;
+
+        IdempotencyFilter(Config config) {
+            this.config = config;
+            this.routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+            this.executed = counter("executed");
+            this.replayed = counter("replayed");
+            this.waited = counter("waited");
+            this.conflict = counter("conflict");
+            this.mismatch = counter("mismatch");
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            ServerHttpRequest request = exchange.getRequest();
+            String idempotencyKey = request.getHeaders().getFirst(KEY_HEADER);
+            if (idempotencyKey == null || !config.getMethods().contains(request.getMethod().name())
+                    || !matchesPath(request.getPath().value())) {
+                return chain.filter(exchange);
+            }
+            if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+                return errorResponse(exchange, HttpStatus.BAD_REQUEST, "无效的幂等键");
+            }
+
+            String user = request.getHeaders().getFirst("X-User-Name");
+            String key = routeId + '\n' + (user != null ? user : "") + '\n' + idempotencyKey;
+            String fingerprint = request.getMethod().name() + ' ' + request.getURI().getRawPath();
+            return execute(exchange, chain, key, fingerprint);
+        }
+
+        private Mono<Void> execute(ServerWebExchange exchange, GatewayFilterChain chain, String key, String fingerprint) {
+            Entry pending = new Entry(fingerprint, config.getTimeout());
+            Entry existing = entries.putIfAbsent(key, pending);
+            if (existing == null) {
+                executed.increment();
+                return forward(exchange, chain, key, pending);
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                mismatch.increment();
+                logger.warn("幂等键已用于其他请求: {}, 原请求: {}", fingerprint, existing.fingerprint);
+                return errorResponse(exchange, HttpStatus.UNPROCESSABLE_ENTITY, "幂等键已用于其他请求");
+            }
+            if (existing.response != null) {
+                replayed.increment();
+                logger.debug("重放幂等键结果: {}, 状态码: {}", fingerprint, existing.response.status.value());
+                return replay(exchange, existing.response);
+            }
+
+            // 相同请求正在执行：等待结果；原请求的结果没有记录时重新执行
+            waited.increment();
+            return existing.result.asMono()
+                    .map(response -> replay(exchange, response))
+                    .defaultIfEmpty(Mono.defer(() -> execute(exchange, chain, key, fingerprint)))
+                    .timeout(config.getTimeout())
+                    .onErrorResume(TimeoutException.class, e -> {
+                        conflict.increment();
+                        return Mono.just(errorResponse(exchange, HttpStatus.CONFLICT, "相同幂等键的请求仍在处理中"));
+                    })
+                    .flatMap(Function.identity());
+        }
+
+        private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, String key, Entry pending) {
+            ResponseCapture capture = new ResponseCapture(exchange.getResponse(), (int) config.getMaxBodySize().toBytes());
+            AtomicBoolean completed = new AtomicBoolean();
+            return chain.filter(exchange.mutate().response(capture).build())
+                    .doOnSuccess(v -> complete(key, pending, capture.toCachedResponse(), completed))
+                    .doOnError(e -> complete(key, pending, null, completed))
+                    .doOnCancel(() -> complete(key, pending, null, completed));
+        }
+
+        private void complete(String key, Entry pending, CachedResponse response, AtomicBoolean completed) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            if (response != null) {
+                // 替换为已完成的条目，按 ttl 重新计算过期时间和容量
+                entries.replace(key, pending, new Entry(pending.fingerprint, config.getTtl(), response));
+                pending.result.tryEmitValue(response);
+            } else {
+                entries.remove(key, pending);
+                pending.result.tryEmitEmpty();
+            }
+        }
+
+        private boolean matchesPath(String path) {
+            List<String> paths = config.getPaths();
+            if (paths.isEmpty()) {
+                return true;
+            }
+            for (String prefix : paths) {
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Counter counter(String result) {
+            return Counter.builder("gateway.idempotency.requests")
+                    .description("幂等键请求数")
+                    .tag("route", routeId)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static Mono<Void> replay(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(cached.status);
+        response.getHeaders().addAll(cached.headers);
+        response.getHeaders().setContentLength(cached.body.length);
+        response.getHeaders().set(REPLAYED_HEADER, "true");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body)));
+    }
+
+    private static Mono<Void> errorResponse(ServerWebExchange exchange, HttpStatus status, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String body = String.format("{\"code\":%d,\"message\":\"%s\",\"data\":null,\"timestamp\":%d}",
+                status.value(), message, System.currentTimeMillis());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * 在写出响应时复制响应体，超过上限或流式写出（writeAndFlushWith）时放弃记录
+     */
+    private static class ResponseCapture extends ServerHttpResponseDecorator {
+
+        private final int limit;
+        private final Set<String> existingHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private volatile boolean uncacheable;
+
+        ResponseCapture(ServerHttpResponse delegate, int limit) {
+            super(delegate);
+            this.limit = limit;
+            this.existingHeaders.addAll(delegate.getHeaders().keySet());
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::append));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            uncacheable = true;
+            return super.writeAndFlushWith(body);
+        }
+
+        private void append(DataBuffer buffer) {
+            int length = buffer.readableByteCount();
+            if (uncacheable || out.size() + length > limit) {
+                uncacheable = true;
+                return;
+            }
+            byte[] bytes = new byte[length];
+            int readPosition = buffer.readPosition();
+            buffer.read(bytes);
+            buffer.readPosition(readPosition);
+            synchronized (out) {
+                out.write(bytes, 0, length);
+            }
+        }
+
+        /**
+         * 可以记录时返回响应副本，否则返回 null
+         */
+        CachedResponse toCachedResponse() {
+            HttpStatusCode status = getStatusCode();
+            if (uncacheable || status == null || !(status.is2xxSuccessful()
+                    || status.is4xxClientError() && !RETRYABLE_STATUS.contains(status.value()))) {
+                return null;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (!existingHeaders.contains(name) && EXCLUDED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                    headers.addAll(name, values);
+                }
+            });
+            synchronized (out) {
+                return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), out.toByteArray());
+            }
+        }
+    }
+
+    private record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * 幂等键条目：执行中（response 为空，结果通过 result 通知等待的请求）或已完成
+     */
+    private static final class Entry {
+
+        final String fingerprint;
+        final Duration expireAfter;
+        final CachedResponse response;
+        final Sinks.One<CachedResponse> result;
+
+        Entry(String fingerprint, Duration timeout) {
+            this.fingerprint = fingerprint;
+            this.expireAfter = timeout;
+            this.response = null;
+            this.result = Sinks.one();
+        }
+
+        Entry(String fingerprint, Duration ttl, CachedResponse response) {
+            this.fingerprint = fingerprint;
+            this.expireAfter = ttl;
+            this.response = response;
+            this.result = null;
+        }
+
+        int weight() {
+            return fingerprint.length() + (response != null ? response.body.length + 256 : 0);
+        }
+    }
+
+    /**
+     * 执行中的条目在 timeout 后过期（避免挂起的请求永久占用幂等键），已完成的条目在 ttl 后过期
+     */
+    private static class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.expireAfter.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.expireAfter.toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        /**
+         * 生效的路径前缀（网关路径），为空表示路由下的所有路径
+         */
+        private List<String> paths = List.of();
+
+        /**
+         * 已完成结果的保留时间
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * 生效的请求方法
+         */
+        private Set<String> methods = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+        /**
+         * 可记录的最大响应体
+         */
+        private DataSize maxBodySize = DataSize.ofKilobytes(256);
+
+        /**
+         * 执行中条目的最长保留时间，也是重复请求的最长等待时间
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        private String routeId;
+    }
+}
@@ -0,0 +1,130 @@
+package com.timelsszhuang.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 请求体 JSON 字段提取过滤器工厂
+ *
+ * 通过 RequestBodyPeeker 只读取请求体前 maxBytes 字节，提取顶层 JSON 字段写入请求头，请求体继续流式转发。
+ * 客户端传入的同名请求头总是被移除，字段不在窥视窗口内时不设置请求头。例如从 seata-order/create 请求中提取 userId：
+ * <pre>
+ * filters:
+ *   - JsonFieldHeader=userId, X-User-Id, 1024
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+@Component
+public class JsonFieldHeaderGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<JsonFieldHeaderGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonFieldHeaderGatewayFilterFactory.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public JsonFieldHeaderGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("field", "header", "maxBytes");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            MediaType contentType = exchange.getRequest().getHeaders().getContentType();
+            if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+                return chain.filter(exchange);
+            }
+            return RequestBodyPeeker.peek(exchange, config.getMaxBytes()).flatMap(peeked -> {
+                String value = readTopLevelField(peeked.head(), config.getField());
+                if (value == null) {
+                    logger.debug("请求体前 {} 字节中未找到字段 {}", config.getMaxBytes(), config.getField());
+                }
+                // 先移除客户端传入的同名请求头，未提取到字段时不能让客户端自带的值透传到下游
+                ServerHttpRequest request = peeked.exchange().getRequest().mutate()
+                        .headers(headers -> {
+                            headers.remove(config.getHeader());
+                            if (value != null) {
+                                headers.set(config.getHeader(), value);
+                            }
+                        })
+                        .build();
+                ServerWebExchange forwarded = peeked.exchange().mutate().request(request).build();
+                // 后续过滤器没有转发请求体（例如直接返回错误响应）时释放窥视的 DataBuffer
+                return chain.filter(forwarded).doFinally(signal -> peeked.release());
+            });
+        };
+    }
+
+    /**
+     * 从（可能被截断的）JSON 片段中读取顶层字段的标量值
+     *
+     * @param head  请求体头部
+     * @param field 字段名
+     * @return 字段值，不存在、非标量、在截断位置之后或可能被截断时返回 null
+     */
+    public static String readTopLevelField(byte[] head, String field) {
+        try (JsonParser parser = JSON_FACTORY.createParser(head)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                token = parser.nextToken();
+                if (field.equals(name)) {
+                    if (!token.isScalarValue() || token == JsonToken.VALUE_NULL) {
+                        return null;
+                    }
+                    String text = parser.getText();
+                    // 数字没有结束符，恰好在窗口末尾结束时可能被截断（{"userId":12 实际可能是 1234）
+                    if (token.isNumeric()
+                            && parser.currentTokenLocation().getByteOffset() + text.length() >= head.length) {
+                        return null;
+                    }
+                    return text;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            // 字段位于窥视窗口之外，JSON 被截断
+            return null;
+        }
+    }
+
+    @Data
+    public static class Config {
+
+        /**
+         * 顶层 JSON 字段名
+         */
+        private String field;
+
+        /**
+         * 写入的请求头
+         */
+        private String header;
+
+        /**
+         * 窥视窗口大小（字节）
+         */
+        private int maxBytes = 1024;
+    }
+}
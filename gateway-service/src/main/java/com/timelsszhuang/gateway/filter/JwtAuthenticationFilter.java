@@ -1,6 +1,12 @@
 package com.timelsszhuang.gateway.filter;
 
-import com.timelsszhuang.gateway.util.JwtUtil;
+import com.timelsszhuang.auth.IdentityAssertion;
+import com.timelsszhuang.auth.InvalidTokenException;
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.auth.TokenClaims;
+import com.timelsszhuang.gateway.config.InternalListenerConfig;
+import com.timelsszhuang.gateway.service.TokenRevocationService;
+import com.timelsszhuang.gateway.util.RequestLogContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +30,12 @@ import java.util.List;
  * JWT 认证过滤器
  * 对请求进行 JWT Token 验证
  *
+ * 开启 jwt.assertion 时，验证通过后附带网关签发的身份断言（X-Identity-Assertion），
+ * 下游服务据此确认身份而不必再解析 JWT。服务间调用（consumer → provider）经网关的内部监听端口
+ * （gateway.internal.port）转发该断言，网关校验 MAC、吊销状态以及断言与 Authorization 中 Token 的对应关系后放行。
+ * 公网端口进入的请求自带的断言头一律移除并校验 JWT，无效断言不会到达下游；
+ * 公网端口进入的请求自带的 X-Mirror-Request 同样移除
+ *
  * @author timelsszhuang
  */
 @Component
@@ -34,6 +46,15 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired(required = false)
+    private IdentityAssertion identityAssertion;
+
+    @Autowired(required = false)
+    private InternalListenerConfig.InternalListener internalListener;
+
     /**
      * 白名单路径 - 不需要 JWT 认证的路径
      */
@@ -50,12 +71,40 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getPath().value();
 
+        // 移除请求自带的身份断言和用户名，只有校验通过的身份才会转发给下游（白名单路径上同样不能伪造，
+        // 灰度分桶、幂等键都按 X-User-Name 区分用户）；X-Mirror-Request 只认内部端口进入的请求，
+        // 否则客户端可以把真实写请求标记成镜像请求，让下游跳过写操作
+        boolean internal = internalListener != null && internalListener.accepts(request);
+        String inboundAssertion = request.getHeaders().getFirst(IdentityAssertion.HEADER);
+        boolean forgedMirror = !internal && request.getHeaders().containsKey(MirrorGatewayFilterFactory.MIRROR_HEADER);
+        if (inboundAssertion != null || forgedMirror || request.getHeaders().containsKey("X-User-Name")) {
+            request = request.mutate().headers(headers -> {
+                headers.remove(IdentityAssertion.HEADER);
+                headers.remove("X-User-Name");
+                if (forgedMirror) {
+                    headers.remove(MirrorGatewayFilterFactory.MIRROR_HEADER);
+                }
+            }).build();
+            exchange = exchange.mutate().request(request).build();
+        }
+
         // 检查是否在白名单中
         if (isWhiteListPath(path)) {
             logger.debug("白名单路径，跳过JWT验证: {}", path);
             return chain.filter(exchange);
         }
 
+        // 内部端口进入的服务间调用携带网关签发的身份断言：常量时间比较 MAC 即可，无需再解析 JWT
+        if (identityAssertion != null && inboundAssertion != null && internal) {
+            IdentityAssertion.Identity identity = verifyForwardedAssertion(inboundAssertion,
+                    request.getHeaders().getFirst(JwtUtil.HEADER_STRING));
+            if (identity != null) {
+                logger.debug("身份断言验证通过，用户: {}, 路径: {}", identity.username(), path);
+                return RequestLogContext.with(RequestLogContext.USERNAME, identity.username(),
+                        chain.filter(withIdentity(exchange, identity.username(), inboundAssertion)));
+            }
+        }
+
         // 从请求头中获取 Token
         String authHeader = request.getHeaders().getFirst(JwtUtil.HEADER_STRING);
 
@@ -71,32 +120,68 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             return unauthorizedResponse(exchange, "无效的令牌格式");
         }
 
-        // 验证 Token
-        if (!jwtUtil.validateToken(token)) {
-            logger.warn("Token 验证失败: {}", path);
+        // 验证 Token（签名、载荷、有效期一次完成）
+        TokenClaims claims;
+        try {
+            claims = jwtUtil.verify(token);
+        } catch (InvalidTokenException e) {
+            logger.warn("Token 验证失败: {}, {}", path, e.getMessage());
             return unauthorizedResponse(exchange, "令牌验证失败或已过期");
         }
+        if (claims.getSubject() == null) {
+            logger.warn("Token 缺少用户信息: {}", path);
+            return unauthorizedResponse(exchange, "令牌处理失败");
+        }
 
-        // Token 验证通过，从 Token 中提取用户信息并添加到请求头
-        try {
-            String username = jwtUtil.getUsernameFromToken(token);
+        // 检查 Token 是否已被吊销（Bloom 过滤器，命中后精确确认）
+        if (tokenRevocationService.isRevoked(token)) {
+            logger.warn("Token 已被吊销: {}", path);
+            return unauthorizedResponse(exchange, "令牌已被吊销");
+        }
 
-            // 将用户信息添加到请求头，传递给下游服务
-            ServerHttpRequest mutatedRequest = request.mutate()
-                    .header("X-User-Name", username)
-                    .build();
+        // Token 验证通过，将用户信息和身份断言添加到请求头，传递给下游服务
+        String username = claims.getSubject();
+        String assertion = identityAssertion != null
+                ? identityAssertion.issue(username, claims.getRole(), claims.getExpiresAt(), token) : null;
 
-            ServerWebExchange mutatedExchange = exchange.mutate()
-                    .request(mutatedRequest)
-                    .build();
+        logger.debug("JWT 验证通过，用户: {}, 路径: {}", username, path);
 
-            logger.debug("JWT 验证通过，用户: {}, 路径: {}", username, path);
+        // 用户名写入 Reactor Context，后续日志通过 MDC 输出
+        return RequestLogContext.with(RequestLogContext.USERNAME, username,
+                chain.filter(withIdentity(exchange, username, assertion)));
+    }
 
-            return chain.filter(mutatedExchange);
-        } catch (Exception e) {
-            logger.error("处理 Token 时发生错误: {}", e.getMessage());
-            return unauthorizedResponse(exchange, "令牌处理失败");
+    /**
+     * 校验转发的身份断言：MAC 和有效期、对应的 Token 未被吊销；
+     * 同时携带 Authorization 时，断言必须由该 Token 签发
+     *
+     * @return 身份，校验失败时返回 null（继续走 JWT 校验）
+     */
+    private IdentityAssertion.Identity verifyForwardedAssertion(String assertion, String authHeader) {
+        IdentityAssertion.Identity identity = identityAssertion.verify(assertion);
+        if (identity == null || identity.tokenRef().isEmpty()
+                || tokenRevocationService.isRevoked(identity.tokenRef())) {
+            return null;
+        }
+        if (authHeader != null) {
+            String token = jwtUtil.extractToken(authHeader);
+            if (token == null || !identity.isIssuedFor(token)) {
+                return null;
+            }
         }
+        return identity;
+    }
+
+    private ServerWebExchange withIdentity(ServerWebExchange exchange, String username, String assertion) {
+        ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.set("X-User-Name", username);
+                    if (assertion != null) {
+                        headers.set(IdentityAssertion.HEADER, assertion);
+                    }
+                })
+                .build();
+        return exchange.mutate().request(mutatedRequest).build();
     }
 
     /**
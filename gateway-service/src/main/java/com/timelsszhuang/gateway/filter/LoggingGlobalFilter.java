@@ -24,16 +24,14 @@ public class LoggingGlobalFilter implements GlobalFilter, Ordered {
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        String requestId = exchange.getAttribute("REQUEST_ID");
 
         // 获取目标路由信息（如果存在）
         String targetUri = exchange.getAttribute("org.springframework.cloud.gateway.support.ServerWebExchangeUtils.gatewayRequestUrl") != null
                 ? exchange.getAttribute("org.springframework.cloud.gateway.support.ServerWebExchangeUtils.gatewayRequestUrl").toString()
                 : "unknown";
 
-        // 记录路由信息（简洁版）
-        logger.debug("║ [路由处理] 请求ID: {} | 源路径: {} → 目标: {}",
-                requestId, request.getPath(), targetUri);
+        // 记录路由信息（简洁版，请求ID和用户名由 MDC 输出）
+        logger.debug("║ [路由处理] 源路径: {} → 目标: {}", request.getPath(), targetUri);
 
         return chain.filter(exchange);
     }
@@ -0,0 +1,290 @@
+package com.timelsszhuang.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpMethod;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 流量镜像过滤器工厂
+ *
+ * 按比例抽样复制请求到第二个上游（如压测版本的 service-provider），响应直接丢弃，主链路不等待镜像请求：
+ * 无请求体的请求立即异步发出；有请求体的请求在主链路转发请求体时顺带复制（超过 maxBodySize 则放弃镜像），
+ * 请求体转发完成后再异步发出。每条路由的在途镜像请求数超过 maxInFlight 时直接丢弃。
+ * 镜像请求带 X-Mirror-Request: true 请求头，下游可据此跳过写操作；带该请求头的请求不再镜像
+ * （镜像目标经由网关内部端口转发时不会形成循环）。公网端口进入的请求自带的该请求头
+ * 由 JwtAuthenticationFilter 移除，主链路转发到上游的真实请求不会带上它
+ * <pre>
+ * filters:
+ *   - Mirror=http://perf-provider:8081, 0.1
+ * </pre>
+ *
+ * 指标：gateway.mirror.requests（tag route、result=sent / dropped / failed / skipped）
+ *
+ * @author timelsszhuang
+ */
+@Component
+public class MirrorGatewayFilterFactory extends AbstractGatewayFilterFactory<MirrorGatewayFilterFactory.Config>
+        implements DisposableBean {
+
+    public static final String MIRROR_HEADER = "X-Mirror-Request";
+
+    private static final Logger logger = LoggerFactory.getLogger(MirrorGatewayFilterFactory.class);
+
+    /**
+     * 不复制到镜像请求的请求头（逐跳头由镜像连接自行处理）
+     */
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            "host", "connection", "keep-alive", "transfer-encoding", "te", "upgrade", "proxy-connection");
+
+    private final MeterRegistry meterRegistry;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+
+    public MirrorGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        // 与主链路连接池隔离，镜像请求不会占用主链路连接
+        this.connectionProvider = ConnectionProvider.builder("mirror")
+                .maxConnections(500)
+                .pendingAcquireMaxCount(-1)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("uri", "fraction", "maxInFlight");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new MirrorFilter(config);
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+
+    private class MirrorFilter implements GatewayFilter {
+
+        private final Config config;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter sent;
+        private final Counter dropped;
+        private final Counter failed;
+        private final Counter skipped;
+
+        MirrorFilter(Config config) {
+            this.config = config;
+            String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+            this.sent = counter(routeId, "sent");
+            this.dropped = counter(routeId, "dropped");
+            this.failed = counter(routeId, "failed");
+            this.skipped = counter(routeId, "skipped");
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            if (exchange.getRequest().getHeaders().containsKey(MIRROR_HEADER)
+                    || ThreadLocalRandom.current().nextDouble() >= config.getFraction()) {
+                return chain.filter(exchange);
+            }
+            if (inFlight.incrementAndGet() > config.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                dropped.increment();
+                return chain.filter(exchange);
+            }
+
+            ServerHttpRequest request = exchange.getRequest();
+            HttpHeaders headers = request.getHeaders();
+            long contentLength = headers.getContentLength();
+            boolean hasBody = contentLength > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+            if (!hasBody) {
+                send(request, null);
+                return chain.filter(exchange);
+            }
+
+            long maxBodySize = config.getMaxBodySize().toBytes();
+            if (contentLength > maxBodySize) {
+                release();
+                skipped.increment();
+                return chain.filter(exchange);
+            }
+
+            // 主链路转发请求体时复制，不额外缓冲、不延迟主链路
+            BodyCopy copy = new BodyCopy((int) maxBodySize);
+            ServerHttpRequest teeRequest = new ServerHttpRequestDecorator(request) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return super.getBody()
+                            .doOnNext(copy::append)
+                            .doOnComplete(() -> {
+                                if (copy.finish()) {
+                                    send(request, copy.toByteArray());
+                                } else {
+                                    release();
+                                    skipped.increment();
+                                }
+                            })
+                            .doOnError(e -> copy.abandon(MirrorFilter.this::release))
+                            .doOnCancel(() -> copy.abandon(MirrorFilter.this::release));
+                }
+            };
+            return chain.filter(exchange.mutate().request(teeRequest).build())
+                    // 主链路没有读取请求体（如鉴权失败、上游不可用）时释放名额
+                    .doFinally(signal -> copy.abandon(this::release));
+        }
+
+        private void send(ServerHttpRequest request, byte[] body) {
+            URI uri = request.getURI();
+            String target = config.getUri() + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+            HttpHeaders headers = request.getHeaders();
+            Mono<ByteBuf> payload = body != null ? Mono.just(Unpooled.wrappedBuffer(body)) : Mono.empty();
+
+            httpClient.headers(h -> {
+                        headers.forEach((name, values) -> {
+                            if (!EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                                h.add(name, values);
+                            }
+                        });
+                        h.set(MIRROR_HEADER, "true");
+                    })
+                    .responseTimeout(config.getTimeout())
+                    .request(HttpMethod.valueOf(request.getMethod().name()))
+                    .uri(target)
+                    .send(payload)
+                    .responseContent()
+                    .then()
+                    .timeout(config.getTimeout())
+                    .doFinally(signal -> release())
+                    .subscribe(v -> { }, e -> {
+                        failed.increment();
+                        logger.debug("镜像请求失败: {} {}", target, e.getMessage());
+                    }, sent::increment);
+        }
+
+        private void release() {
+            inFlight.decrementAndGet();
+        }
+
+        private Counter counter(String routeId, String result) {
+            return Counter.builder("gateway.mirror.requests")
+                    .description("流量镜像请求数")
+                    .tag("route", routeId)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 有上限的请求体副本，超过上限后停止复制
+     */
+    private static class BodyCopy {
+
+        private final int limit;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final AtomicBoolean done = new AtomicBoolean();
+        private boolean overflow;
+
+        BodyCopy(int limit) {
+            this.limit = limit;
+        }
+
+        void append(DataBuffer buffer) {
+            int length = buffer.readableByteCount();
+            if (overflow || out.size() + length > limit) {
+                overflow = true;
+                return;
+            }
+            byte[] bytes = new byte[length];
+            int readPosition = buffer.readPosition();
+            buffer.read(bytes);
+            buffer.readPosition(readPosition);
+            out.write(bytes, 0, length);
+        }
+
+        /**
+         * 请求体完整结束，返回是否可以发出镜像请求
+         */
+        boolean finish() {
+            return done.compareAndSet(false, true) && !overflow;
+        }
+
+        /**
+         * 放弃镜像，只执行一次
+         */
+        void abandon(Runnable release) {
+            if (done.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        /**
+         * 镜像目标地址，如 http://perf-provider:8081
+         */
+        private String uri;
+
+        /**
+         * 抽样比例（0-1）
+         */
+        private double fraction = 0.1;
+
+        /**
+         * 每条路由的最大在途镜像请求数
+         */
+        private int maxInFlight = 100;
+
+        /**
+         * 可镜像的最大请求体
+         */
+        private DataSize maxBodySize = DataSize.ofKilobytes(64);
+
+        /**
+         * 镜像请求超时
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        private String routeId;
+    }
+}
@@ -0,0 +1,176 @@
+package com.timelsszhuang.gateway.filter;
+
+import com.timelsszhuang.gateway.config.UpstreamPoolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按路由选择连接池的 Netty 路由过滤器
+ *
+ * 替换默认的 NettyRoutingFilter（通过 spring.cloud.gateway.global-filter.netty-routing.enabled=false 关闭），
+ * 在 gateway.upstream.pool.routes 中声明了独立连接池的路由使用各自的 HttpClient，
+ * 其余路由继续使用全局 HttpClient。所有连接池均开启 Micrometer 指标，路由连接池额外记录获取连接耗时。
+ * 同时为 FlightRecorderFilter 标记开始转发和收到上游响应头的时间
+ *
+ * @author timelsszhuang
+ */
+public class PooledNettyRoutingFilter extends NettyRoutingFilter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledNettyRoutingFilter.class);
+
+    /**
+     * 路由连接池名称前缀，指标中的 name 标签为 route-{路由ID}
+     */
+    public static final String ROUTE_POOL_PREFIX = "route-";
+
+    private final UpstreamPoolProperties poolProperties;
+    private final HttpClientProperties httpClientProperties;
+    private final ServerProperties serverProperties;
+    private final HttpClientSslConfigurer sslConfigurer;
+    private final List<HttpClientCustomizer> customizers;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * h2c 连接数上限（见 H2cUpstreamConfig），未开启 h2c prior-knowledge 时为 null
+     */
+    private final Http2AllocationStrategy h2cAllocationStrategy;
+
+    // 路由ID -> HttpClient，首次命中时创建
+    private final Map<String, HttpClient> routeClients = new ConcurrentHashMap<>();
+
+    // 路由ID -> ConnectionProvider，关闭时统一释放
+    private final Map<String, ConnectionProvider> routeProviders = new ConcurrentHashMap<>();
+
+    public PooledNettyRoutingFilter(HttpClient httpClient,
+                                    ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                    HttpClientProperties httpClientProperties,
+                                    UpstreamPoolProperties poolProperties,
+                                    ServerProperties serverProperties,
+                                    HttpClientSslConfigurer sslConfigurer,
+                                    List<HttpClientCustomizer> customizers,
+                                    MeterRegistry meterRegistry,
+                                    Http2AllocationStrategy h2cAllocationStrategy) {
+        super(httpClient, headersFiltersProvider, httpClientProperties);
+        this.poolProperties = poolProperties;
+        this.httpClientProperties = httpClientProperties;
+        this.serverProperties = serverProperties;
+        this.sslConfigurer = sslConfigurer;
+        // HttpClientFactory 会对 Customizer 列表排序，这里复制为可变列表
+        this.customizers = customizers != null ? new ArrayList<>(customizers) : new ArrayList<>();
+        this.meterRegistry = meterRegistry;
+        this.h2cAllocationStrategy = h2cAllocationStrategy;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        // 父类在收到上游响应头后完成，响应体由 NettyWriteResponseFilter 写回
+        return super.filter(exchange, chain).doOnSuccess(v -> FlightRecorderFilter.markResponded(exchange));
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        // 父类只在确实转发 http(s) 请求时获取 HttpClient；预热预建连接时 exchange 为 null
+        if (exchange != null) {
+            FlightRecorderFilter.markRouted(exchange);
+        }
+        UpstreamPoolProperties.RoutePool pool = poolProperties.getRoutes().get(route.getId());
+        if (pool == null) {
+            return super.getHttpClient(route, exchange);
+        }
+
+        HttpClient client = routeClients.computeIfAbsent(route.getId(), id -> createRouteClient(id, pool));
+
+        // 与父类保持一致：支持路由元数据 connect-timeout
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout != null) {
+            return client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.valueOf(connectTimeout.toString()));
+        }
+        return client;
+    }
+
+    /**
+     * 路由转发时使用的 HttpClient（供启动预热提前建立上游连接）
+     */
+    public HttpClient getHttpClient(Route route) {
+        return getHttpClient(route, null);
+    }
+
+    /**
+     * 创建路由专属 HttpClient
+     *
+     * 复用 HttpClientFactory 的 SSL、代理、Customizer 等全局配置，只替换连接池
+     */
+    private HttpClient createRouteClient(String routeId, UpstreamPoolProperties.RoutePool pool) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(ROUTE_POOL_PREFIX + routeId)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .metrics(true);
+        if (!pool.getEvictionInterval().isZero()) {
+            builder.evictInBackground(pool.getEvictionInterval());
+        }
+        if (h2cAllocationStrategy != null) {
+            // 代替 maxConnections，需在其后设置
+            builder.allocationStrategy(h2cAllocationStrategy);
+        }
+        ConnectionProvider provider = new TimedConnectionProvider(builder.build(), meterRegistry);
+        routeProviders.put(routeId, provider);
+
+        logger.info("路由 {} 使用独立连接池: {}", routeId, pool);
+
+        HttpClientFactory factory = new HttpClientFactory(httpClientProperties, serverProperties,
+                sslConfigurer, customizers) {
+            @Override
+            protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+                return provider;
+            }
+        };
+        factory.setSingleton(false);
+        try {
+            return factory.getObject();
+        } catch (Exception e) {
+            logger.error("创建路由 {} 的 HttpClient 失败", routeId, e);
+            throw new IllegalStateException("创建路由 HttpClient 失败: " + routeId, e);
+        }
+    }
+
+    /**
+     * 获取各路由连接池配置（供管理接口使用）
+     */
+    public Map<String, UpstreamPoolProperties.RoutePool> getRoutePools() {
+        return poolProperties.getRoutes();
+    }
+
+    @Override
+    public void destroy() {
+        routeProviders.values().forEach(ConnectionProvider::dispose);
+        routeProviders.clear();
+        routeClients.clear();
+    }
+}
@@ -1,5 +1,6 @@
 package com.timelsszhuang.gateway.filter;
 
+import com.timelsszhuang.gateway.util.RequestLogContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -16,6 +17,7 @@ import java.time.format.DateTimeFormatter;
 
 /**
  * 后置过滤器 - 响应返回时记录日志
+ * 日志在上游响应返回后的异步回调中输出，请求ID和用户名由 RequestLogContext 恢复到 MDC
  *
  * @author timelsszhuang
  */
@@ -23,15 +25,13 @@ import java.time.format.DateTimeFormatter;
 public class PostLoggingFilter implements GlobalFilter, Ordered {
 
     private static final Logger logger = LoggerFactory.getLogger(PostLoggingFilter.class);
-    private static final String REQUEST_ID = "REQUEST_ID";
     private static final String REQUEST_START_TIME = "REQUEST_START_TIME";
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-            // 从 attributes 中获取请求ID和开始时间
-            String requestId = exchange.getAttribute(REQUEST_ID);
+        return chain.filter(exchange).then(RequestLogContext.run(() -> {
+            // 从 attributes 中获取开始时间
             Long startTime = exchange.getAttribute(REQUEST_START_TIME);
 
             ServerHttpResponse response = exchange.getResponse();
@@ -54,7 +54,6 @@ public class PostLoggingFilter implements GlobalFilter, Ordered {
             logger.info("╔════════════════════════════════════════════════════════════════");
             logger.info("║ [后置过滤器] 响应返回 {}", statusEmoji);
             logger.info("╠════════════════════════════════════════════════════════════════");
-            logger.info("║ 请求ID      : {}", requestId);
             logger.info("║ 响应时间    : {}", LocalDateTime.now().format(formatter));
             logger.info("║ 请求方法    : {}", method);
             logger.info("║ 请求路径    : {}", path);
@@ -73,8 +72,7 @@ public class PostLoggingFilter implements GlobalFilter, Ordered {
 
             // 如果是错误响应，记录错误日志
             if (statusCode != null && statusCode.isError()) {
-                logger.error("请求失败! 请求ID: {}, 路径: {}, 状态码: {}",
-                        requestId, path, statusCode.value());
+                logger.error("请求失败! 路径: {}, 状态码: {}", path, statusCode.value());
             }
         }));
     }
@@ -1,5 +1,6 @@
 package com.timelsszhuang.gateway.filter;
 
+import com.timelsszhuang.gateway.util.RequestLogContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -66,7 +67,8 @@ public class PreLoggingFilter implements GlobalFilter, Ordered {
         logger.info("║ User-Agent  : {}", headers.getFirst(HttpHeaders.USER_AGENT));
         logger.info("╚════════════════════════════════════════════════════════════════");
 
-        return chain.filter(exchange);
+        // 请求ID写入 Reactor Context，后续过滤器和异步回调中的日志通过 MDC 输出
+        return RequestLogContext.with(RequestLogContext.REQUEST_ID, requestId, chain.filter(exchange));
     }
 
     @Override
@@ -0,0 +1,97 @@
+package com.timelsszhuang.gateway.filter;
+
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/**
+ * 路径前缀替换过滤器工厂
+ *
+ * 等价于 RewritePath=/provider/(?&lt;segment&gt;.*), /api/$\{segment}，但不使用正则：
+ * 前缀在路由构建时确定，每个请求只做一次 startsWith、substring 和拼接。
+ * 与 RewritePath 一样作用于原始（未解码）路径，查询参数保持不变，不匹配前缀的路径原样转发
+ * <pre>
+ * filters:
+ *   - PrefixRewrite=/provider/, /api/
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+@Component
+public class PrefixRewriteGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<PrefixRewriteGatewayFilterFactory.Config> {
+
+    public PrefixRewriteGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("fromPrefix", "toPrefix");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new PrefixRewriteFilter(config.getFromPrefix(), config.getToPrefix());
+    }
+
+    static class PrefixRewriteFilter implements GatewayFilter {
+
+        private final String fromPrefix;
+        private final String toPrefix;
+        private final int fromLength;
+
+        PrefixRewriteFilter(String fromPrefix, String toPrefix) {
+            this.fromPrefix = fromPrefix;
+            this.toPrefix = toPrefix;
+            this.fromLength = fromPrefix.length();
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            ServerHttpRequest request = exchange.getRequest();
+            addOriginalRequestUrl(exchange, request.getURI());
+
+            String path = request.getURI().getRawPath();
+            if (path.startsWith(fromPrefix)) {
+                path = toPrefix.concat(path.substring(fromLength));
+            }
+
+            ServerHttpRequest newRequest = request.mutate().path(path).build();
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, newRequest.getURI());
+            return chain.filter(exchange.mutate().request(newRequest).build());
+        }
+
+        @Override
+        public String toString() {
+            return filterToStringCreator(this)
+                    .append(fromPrefix, toPrefix)
+                    .toString();
+        }
+    }
+
+    @Data
+    public static class Config {
+
+        /**
+         * 需要替换的路径前缀，如 /provider/
+         */
+        private String fromPrefix;
+
+        /**
+         * 替换后的路径前缀，如 /api/
+         */
+        private String toPrefix;
+    }
+}
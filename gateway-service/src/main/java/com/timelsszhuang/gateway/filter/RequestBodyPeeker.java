@@ -0,0 +1,258 @@
+package com.timelsszhuang.gateway.filter;
+
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 请求体有界窥视工具
+ *
+ * 需要检查请求体的过滤器必须通过该工具读取，不要使用 cacheRequestBody / DataBufferUtils.join 聚合整个请求体：
+ * 只从上游读取到至少 maxBytes 字节（最多多出一个 chunk）就暂停，复制前 maxBytes 字节供检查，
+ * 已读取的 DataBuffer 原样（不复制）放回新的请求体最前面，剩余部分按下游背压继续从连接读取
+ *
+ * 用法：
+ * <pre>
+ * return RequestBodyPeeker.peek(exchange, 1024).flatMap(peeked -&gt; {
+ *     String userId = JsonFieldHeaderGatewayFilterFactory.readTopLevelField(peeked.head(), "userId");
+ *     ...
+ *     return chain.filter(peeked.exchange()).doFinally(signal -&gt; peeked.release());
+ * });
+ * </pre>
+ * 下游可能不订阅新的请求体（例如直接返回错误响应）或中途取消，此时必须调用 release()：
+ * 释放尚未转发的头部 DataBuffer 并取消上游读取，否则头部 DataBuffer 泄漏，连接上的请求体也不再被读取
+ *
+ * @author timelsszhuang
+ */
+public final class RequestBodyPeeker {
+
+    private RequestBodyPeeker() {
+    }
+
+    /**
+     * 窥视请求体前 maxBytes 字节
+     *
+     * @param exchange 当前请求
+     * @param maxBytes 窥视窗口大小
+     * @return 窥视结果，包含请求体头部副本和可继续转发的 exchange
+     */
+    public static Mono<PeekedBody> peek(ServerWebExchange exchange, int maxBytes) {
+        ServerHttpRequest request = exchange.getRequest();
+        return Mono.<PeekSubscriber>create(sink -> {
+            PeekSubscriber subscriber = new PeekSubscriber(maxBytes, sink);
+            sink.onCancel(subscriber::cancelAndRelease);
+            request.getBody().subscribe(subscriber);
+        }).map(s -> {
+            ServerHttpRequest decorated = new ServerHttpRequestDecorator(request) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return s.body();
+                }
+            };
+            return new PeekedBody(s.headCopy(), exchange.mutate().request(decorated).build(), s);
+        }).doOnDiscard(PeekSubscriber.class, PeekSubscriber::cancelAndRelease);
+    }
+
+    /**
+     * 窥视结果
+     */
+    public static final class PeekedBody {
+
+        private final byte[] head;
+        private final ServerWebExchange exchange;
+        private final PeekSubscriber subscriber;
+
+        PeekedBody(byte[] head, ServerWebExchange exchange, PeekSubscriber subscriber) {
+            this.head = head;
+            this.exchange = exchange;
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * 请求体前 maxBytes 字节的副本（请求体更短时为完整请求体）
+         */
+        public byte[] head() {
+            return head;
+        }
+
+        /**
+         * 请求体可被完整转发的 exchange
+         */
+        public ServerWebExchange exchange() {
+            return exchange;
+        }
+
+        /**
+         * 释放尚未转发的头部 DataBuffer 并取消上游读取；请求体已完整转发时没有影响，可重复调用
+         */
+        public void release() {
+            subscriber.cancelAndRelease();
+        }
+    }
+
+    /**
+     * 按需从上游请求 DataBuffer：窥视阶段逐个读取，窥视完成后按下游需求转发
+     */
+    private static final class PeekSubscriber extends BaseSubscriber<DataBuffer> {
+
+        private final int maxBytes;
+        private final MonoSink<PeekSubscriber> peekSink;
+        private final List<DataBuffer> head = new ArrayList<>();
+        private int headBytes;
+
+        private volatile boolean peeking = true;
+        private volatile boolean completed;
+        private volatile Throwable error;
+        private volatile FluxSink<DataBuffer> bodySink;
+
+        PeekSubscriber(int maxBytes, MonoSink<PeekSubscriber> peekSink) {
+            this.maxBytes = maxBytes;
+            this.peekSink = peekSink;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            subscription.request(1);
+        }
+
+        @Override
+        protected void hookOnNext(DataBuffer buffer) {
+            if (isDisposed()) {
+                // 取消后仍在途的 DataBuffer
+                DataBufferUtils.release(buffer);
+                return;
+            }
+            if (peeking) {
+                if (!addHead(buffer)) {
+                    return;
+                }
+                headBytes += buffer.readableByteCount();
+                if (headBytes >= maxBytes) {
+                    finishPeek();
+                } else {
+                    request(1);
+                }
+                return;
+            }
+            bodySink.next(buffer);
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed = true;
+            if (peeking) {
+                finishPeek();
+            } else if (bodySink != null) {
+                bodySink.complete();
+            }
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+            if (peeking) {
+                peeking = false;
+                releaseHead();
+                peekSink.error(throwable);
+            } else if (bodySink != null) {
+                bodySink.error(throwable);
+            }
+        }
+
+        private void finishPeek() {
+            peeking = false;
+            peekSink.success(this);
+        }
+
+        /**
+         * 复制请求体头部，最多 maxBytes 字节（唯一的一次有界复制）
+         */
+        byte[] headCopy() {
+            byte[] bytes = new byte[Math.min(headBytes, maxBytes)];
+            int offset = 0;
+            for (DataBuffer buffer : head) {
+                if (offset == bytes.length) {
+                    break;
+                }
+                int length = Math.min(buffer.readableByteCount(), bytes.length - offset);
+                int readPosition = buffer.readPosition();
+                buffer.read(bytes, offset, length);
+                buffer.readPosition(readPosition);
+                offset += length;
+            }
+            return bytes;
+        }
+
+        /**
+         * 新的请求体：已读取的头部 DataBuffer + 后续按需读取的部分
+         * 头部 DataBuffer 逐个交给下游，取消时未交出的头部 DataBuffer 和已排队的 DataBuffer 被释放
+         */
+        Flux<DataBuffer> body() {
+            Flux<DataBuffer> rest = Flux.create(sink -> {
+                if (error != null) {
+                    sink.error(error);
+                    return;
+                }
+                if (completed) {
+                    sink.complete();
+                    return;
+                }
+                bodySink = sink;
+                sink.onRequest(this::request);
+                sink.onCancel(this::cancel);
+                // 订阅前上游已经结束的情况
+                if (completed) {
+                    sink.complete();
+                }
+            });
+            return Flux.<DataBuffer>generate(sink -> {
+                        DataBuffer buffer = pollHead();
+                        if (buffer == null) {
+                            sink.complete();
+                        } else {
+                            sink.next(buffer);
+                        }
+                    })
+                    .concatWith(rest)
+                    .doOnCancel(this::cancelAndRelease)
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        }
+
+        /**
+         * 与 releaseHead 互斥：取消后到达的 DataBuffer 直接释放
+         */
+        private synchronized boolean addHead(DataBuffer buffer) {
+            if (isDisposed()) {
+                DataBufferUtils.release(buffer);
+                return false;
+            }
+            head.add(buffer);
+            return true;
+        }
+
+        private synchronized DataBuffer pollHead() {
+            return head.isEmpty() ? null : head.remove(0);
+        }
+
+        private synchronized void releaseHead() {
+            head.forEach(DataBufferUtils::release);
+            head.clear();
+        }
+
+        void cancelAndRelease() {
+            cancel();
+            releaseHead();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.timelsszhuang.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.resolver.AddressResolverGroup;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.TransportConfig;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 记录获取连接耗时的 ConnectionProvider 包装
+ *
+ * Reactor Netty 自带的 pending.connections.time 只统计进入等待队列的获取，
+ * 这里统计每一次获取（包括复用空闲连接和新建连接），用于观察排队带来的延迟毛刺。
+ * 按结果分别记录（outcome 标签）：success 获取成功，error 获取失败（排队超时、连接失败等），
+ * cancel 获取完成前请求被取消（客户端断开、响应超时），后两者同样计入耗时，排队严重时不会被漏掉。
+ * h2c prior-knowledge 模式下连接由 Reactor Netty 的 HTTP/2 连接池获取，不经过这里
+ *
+ * @author timelsszhuang
+ */
+public class TimedConnectionProvider implements ConnectionProvider {
+
+    /**
+     * 获取连接耗时指标名称
+     */
+    public static final String ACQUIRE_TIMER = "gateway.upstream.pool.acquire";
+
+    /**
+     * 连接池名称标签
+     */
+    public static final String POOL_TAG = "pool";
+
+    /**
+     * 获取结果标签：success / error / cancel
+     */
+    public static final String OUTCOME_TAG = "outcome";
+
+    private final ConnectionProvider delegate;
+    private final Timer successTimer;
+    private final Timer errorTimer;
+    private final Timer cancelTimer;
+
+    TimedConnectionProvider(ConnectionProvider delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.successTimer = timer(delegate.name(), "success", meterRegistry);
+        this.errorTimer = timer(delegate.name(), "error", meterRegistry);
+        this.cancelTimer = timer(delegate.name(), "cancel", meterRegistry);
+    }
+
+    private static Timer timer(String pool, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder(ACQUIRE_TIMER)
+                .description("上游连接获取耗时")
+                .tag(POOL_TAG, pool)
+                .tag(OUTCOME_TAG, outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10),
+                        Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(500),
+                        Duration.ofSeconds(1), Duration.ofSeconds(5))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<? extends Connection> acquire(TransportConfig config, ConnectionObserver connectionObserver,
+                                             Supplier<? extends SocketAddress> remoteAddress,
+                                             AddressResolverGroup<?> resolverGroup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // 每次获取只记录一次：成功后的取消、没有元素的完成都不再记录
+            AtomicBoolean recorded = new AtomicBoolean();
+            return delegate.acquire(config, connectionObserver, remoteAddress, resolverGroup)
+                    .doOnEach(signal -> {
+                        if (signal.isOnNext()) {
+                            record(successTimer, start, recorded);
+                        } else if (signal.isOnError()) {
+                            record(errorTimer, start, recorded);
+                        }
+                    })
+                    .doOnCancel(() -> record(cancelTimer, start, recorded));
+        });
+    }
+
+    private static void record(Timer timer, long start, AtomicBoolean recorded) {
+        if (recorded.compareAndSet(false, true)) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void disposeWhen(SocketAddress address) {
+        delegate.disposeWhen(address);
+    }
+
+    @Override
+    public void dispose() {
+        delegate.dispose();
+    }
+
+    @Override
+    public Mono<Void> disposeLater() {
+        return delegate.disposeLater();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate.isDisposed();
+    }
+
+    @Override
+    public int maxConnections() {
+        return delegate.maxConnections();
+    }
+
+    @Override
+    public Map<SocketAddress, Integer> maxConnectionsPerHost() {
+        return delegate.maxConnectionsPerHost();
+    }
+
+    @Override
+    public Builder mutate() {
+        return delegate.mutate();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+}
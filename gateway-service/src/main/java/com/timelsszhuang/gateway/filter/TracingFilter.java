@@ -0,0 +1,100 @@
+package com.timelsszhuang.gateway.filter;
+
+import com.timelsszhuang.gateway.config.InternalListenerConfig;
+import com.timelsszhuang.trace.SamplingSeal;
+import com.timelsszhuang.trace.Span;
+import com.timelsszhuang.trace.TraceContext;
+import com.timelsszhuang.trace.Tracer;
+import com.timelsszhuang.trace.config.TracingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * 链路追踪过滤器
+ *
+ * 为每个请求创建网关的 Span（继续入站 traceparent 的链路，按 tracing.sample-rate 采样），
+ * 并把 traceparent 改写为以网关 Span 为父节点、在 tracestate 中写入采样封印后转发给上游；请求结束（包括取消）时记录 Span。
+ * 沿用入站采样标记的请求：从内部端口进入，或带有本网关（或共享密钥的其他实例）写入的有效封印——
+ * 服务经公网端口回调网关时链路不会被重新采样；外部客户端没有封印，不能强制采样。
+ * 未采样的请求只生成 ID 并改写请求头
+ *
+ * @author timelsszhuang
+ */
+@Component
+public class TracingFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 网关 Span 的 exchange 属性（供其他过滤器读取 traceId）
+     */
+    public static final String SPAN_ATTR = TracingFilter.class.getName() + ".span";
+
+    private static final Logger logger = LoggerFactory.getLogger(TracingFilter.class);
+
+    private final Tracer tracer;
+    private final SamplingSeal seal;
+
+    @Autowired(required = false)
+    private InternalListenerConfig.InternalListener internalListener;
+
+    public TracingFilter(Tracer tracer, TracingProperties properties) {
+        this(tracer, new SamplingSeal(sealSecret(properties.getSealSecret())));
+    }
+
+    TracingFilter(Tracer tracer, SamplingSeal seal) {
+        this.tracer = tracer;
+        this.seal = seal;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String traceparent = request.getHeaders().getFirst(TraceContext.HEADER);
+        String tracestate = request.getHeaders().getFirst(TraceContext.STATE_HEADER);
+        boolean trusted = (internalListener != null && internalListener.accepts(request))
+                || seal.verify(traceparent, tracestate);
+        Span span = tracer.startServer(request.getMethod().name() + " " + request.getPath().value(),
+                traceparent, tracestate, trusted);
+        exchange.getAttributes().put(SPAN_ATTR, span);
+
+        ServerHttpRequest traced = request.mutate()
+                .headers(headers -> {
+                    headers.set(TraceContext.HEADER, span.traceparent());
+                    headers.set(TraceContext.STATE_HEADER, seal.seal(span, tracestate));
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(traced).build())
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    span.end(status != null ? status.value() : 0);
+                });
+    }
+
+    private static byte[] sealSecret(String configured) {
+        if (StringUtils.hasText(configured)) {
+            return Base64.getDecoder().decode(configured.trim());
+        }
+        logger.info("未配置 tracing.seal-secret，使用随机生成的采样封印密钥（多个网关实例之间无法校验封印）");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    @Override
+    public int getOrder() {
+        // 优先级 -300：在 PreLogging(-200) 之前，Span 覆盖其余自定义过滤器和上游调用的耗时
+        return -300;
+    }
+}
@@ -0,0 +1,76 @@
+package com.timelsszhuang.gateway.route;
+
+import com.timelsszhuang.gateway.config.CanaryProperties;
+import com.timelsszhuang.gateway.service.CanaryRoutingService;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 灰度实例筛选
+ *
+ * 服务配置了灰度规则时，按 X-User-Name 决定本次请求使用灰度实例（元数据匹配规则）还是稳定实例，
+ * 对应分组没有可用实例时回退到另一组。未配置规则的服务不做筛选
+ *
+ * @author timelsszhuang
+ */
+public class CanaryServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+    /**
+     * JwtAuthenticationFilter 写入的用户名请求头
+     */
+    private static final String USER_HEADER = "X-User-Name";
+
+    private final CanaryRoutingService canaryRoutingService;
+
+    public CanaryServiceInstanceListSupplier(ServiceInstanceListSupplier delegate,
+                                             CanaryRoutingService canaryRoutingService) {
+        super(delegate);
+        this.canaryRoutingService = canaryRoutingService;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return delegate.get().map(instances -> select(instances, false));
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get(Request request) {
+        boolean canary = isCanary(request);
+        return delegate.get(request).map(instances -> select(instances, canary));
+    }
+
+    private boolean isCanary(Request request) {
+        if (!(request.getContext() instanceof RequestDataContext context) || context.getClientRequest() == null) {
+            return false;
+        }
+        String userName = context.getClientRequest().getHeaders().getFirst(USER_HEADER);
+        return canaryRoutingService.isCanary(getServiceId(), userName);
+    }
+
+    private List<ServiceInstance> select(List<ServiceInstance> instances, boolean canary) {
+        CanaryProperties.Rule rule = canaryRoutingService.getRule(getServiceId());
+        if (rule == null) {
+            return instances;
+        }
+        List<ServiceInstance> canaryInstances = new ArrayList<>();
+        List<ServiceInstance> stableInstances = new ArrayList<>();
+        for (ServiceInstance instance : instances) {
+            if (rule.getMetadataValue().equals(instance.getMetadata().get(rule.getMetadataKey()))) {
+                canaryInstances.add(instance);
+            } else {
+                stableInstances.add(instance);
+            }
+        }
+        if (canary) {
+            return canaryInstances.isEmpty() ? stableInstances : canaryInstances;
+        }
+        return stableInstances.isEmpty() ? canaryInstances : stableInstances;
+    }
+}
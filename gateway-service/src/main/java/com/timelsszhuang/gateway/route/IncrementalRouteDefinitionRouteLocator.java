@@ -0,0 +1,171 @@
+package com.timelsszhuang.gateway.route;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 增量路由构建
+ *
+ * 替代 RouteDefinitionRouteLocator：每次刷新仍读取全部 RouteDefinition，但只对新增或内容变化的定义
+ * 重新实例化谓词和过滤器，未变化的定义直接复用上一次构建的 Route。
+ * Nacos 实例上下线只会触发刷新而不会改变服务发现生成的路由定义，此时整个刷新不再创建任何谓词和过滤器。
+ * 新路由表由 CachingRouteLocator 一次性替换。
+ * 转换复用同一个 RouteDefinitionRouteLocator（创建时会在 INFO 级别逐个输出加载的谓词工厂），
+ * 本次需要重建的定义通过 Reactor Context 传入，并发刷新互不影响
+ *
+ * 指标：
+ * gateway.routes.refresh：每次刷新的耗时（count 即刷新次数）
+ * gateway.routes.refresh.routes：各次刷新中复用 / 重建 / 移除的路由数（tag result）
+ *
+ * @author timelsszhuang
+ */
+public class IncrementalRouteDefinitionRouteLocator implements RouteLocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalRouteDefinitionRouteLocator.class);
+
+    /**
+     * 本次需要重建的定义在 Reactor Context 中的键
+     */
+    private static final String CHANGED_DEFINITIONS = IncrementalRouteDefinitionRouteLocator.class.getName() + ".changed";
+
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private final GatewayProperties gatewayProperties;
+    private final RouteDefinitionRouteLocator converter;
+
+    private final Timer refreshTimer;
+    private final Counter reusedCounter;
+    private final Counter rebuiltCounter;
+    private final Counter removedCounter;
+
+    /**
+     * 上一次构建结果，整体替换
+     */
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of());
+
+    public IncrementalRouteDefinitionRouteLocator(RouteDefinitionLocator routeDefinitionLocator,
+                                                  List<RoutePredicateFactory> predicates,
+                                                  List<GatewayFilterFactory> gatewayFilterFactories,
+                                                  GatewayProperties gatewayProperties,
+                                                  ConfigurationService configurationService,
+                                                  MeterRegistry meterRegistry) {
+        this.routeDefinitionLocator = routeDefinitionLocator;
+        this.gatewayProperties = gatewayProperties;
+        RouteDefinitionLocator changedLocator = () -> Flux.deferContextual(
+                context -> Flux.fromIterable(context.<List<RouteDefinition>>get(CHANGED_DEFINITIONS)));
+        this.converter = new RouteDefinitionRouteLocator(changedLocator, predicates, gatewayFilterFactories,
+                gatewayProperties, configurationService);
+        this.refreshTimer = Timer.builder("gateway.routes.refresh")
+                .description("路由刷新耗时")
+                .register(meterRegistry);
+        this.reusedCounter = routeCounter(meterRegistry, "reused");
+        this.rebuiltCounter = routeCounter(meterRegistry, "rebuilt");
+        this.removedCounter = routeCounter(meterRegistry, "removed");
+    }
+
+    @Override
+    public Flux<Route> getRoutes() {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return routeDefinitionLocator.getRouteDefinitions().collectList()
+                    .flatMap(this::build)
+                    .doOnTerminate(() -> sample.stop(refreshTimer))
+                    .flatMapIterable(Function.identity());
+        });
+    }
+
+    private Mono<List<Route>> build(List<RouteDefinition> definitions) {
+        Snapshot previous = this.snapshot;
+
+        // 默认过滤器变化或存在重复 id 时无法按 id 复用，全部重建
+        boolean reusable = previous.defaultFilters.equals(gatewayProperties.getDefaultFilters())
+                && definitions.stream().map(RouteDefinition::getId).distinct().count() == definitions.size();
+
+        List<RouteDefinition> changed = new ArrayList<>();
+        for (RouteDefinition definition : definitions) {
+            CachedRoute cached = reusable ? previous.routes.get(definition.getId()) : null;
+            if (cached == null || !cached.definition.equals(definition)) {
+                changed.add(definition);
+            }
+        }
+
+        return convert(changed).map(rebuilt -> {
+            Map<String, CachedRoute> routes = new HashMap<>();
+            List<Route> result = new ArrayList<>(definitions.size());
+            for (RouteDefinition definition : definitions) {
+                Route route = rebuilt.get(definition.getId());
+                if (route == null && reusable) {
+                    CachedRoute cached = previous.routes.get(definition.getId());
+                    route = cached != null && cached.definition.equals(definition) ? cached.route : null;
+                }
+                // 构建失败的路由与默认实现一样被跳过
+                if (route != null) {
+                    routes.put(definition.getId(), new CachedRoute(definition, route));
+                    result.add(route);
+                }
+            }
+
+            Set<String> removed = new HashSet<>(previous.routes.keySet());
+            removed.removeAll(routes.keySet());
+            this.snapshot = new Snapshot(routes, List.copyOf(gatewayProperties.getDefaultFilters()));
+
+            reusedCounter.increment(result.size() - rebuilt.size());
+            rebuiltCounter.increment(rebuilt.size());
+            removedCounter.increment(removed.size());
+            if (!changed.isEmpty() || !removed.isEmpty()) {
+                logger.info("路由增量刷新: 路由总数={}, 重建={}, 移除={}, 复用={}",
+                        result.size(), rebuilt.size(), removed.size(), result.size() - rebuilt.size());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 只对变化的定义实例化谓词和过滤器，复用 RouteDefinitionRouteLocator 的转换逻辑
+     */
+    private Mono<Map<String, Route>> convert(List<RouteDefinition> changed) {
+        if (changed.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return converter.getRoutes()
+                .collect(Collectors.toMap(Route::getId, Function.identity()))
+                .contextWrite(Context.of(CHANGED_DEFINITIONS, changed));
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.routes.refresh.routes")
+                .description("路由刷新中复用 / 重建 / 移除的路由数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record CachedRoute(RouteDefinition definition, Route route) {
+    }
+
+    private record Snapshot(Map<String, CachedRoute> routes, List<FilterDefinition> defaultFilters) {
+    }
+}
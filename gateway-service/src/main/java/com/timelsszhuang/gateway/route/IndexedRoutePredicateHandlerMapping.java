@@ -0,0 +1,93 @@
+package com.timelsszhuang.gateway.route;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_PATH_CONTAINER_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * 基于前缀树索引的路由查找
+ *
+ * 替换默认的 RoutePredicateHandlerMapping：默认实现对每个请求按顺序执行所有路由的谓词，
+ * 开启服务发现路由后耗时随服务数量线性增长。这里先通过 RouteIndex 一次查找得到候选路由，只对候选路由执行谓词。
+ * 索引在每次路由刷新完成（RefreshRoutesResultEvent）后重建，重建完成前使用默认实现
+ *
+ * @author timelsszhuang
+ */
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping
+        implements ApplicationListener<RefreshRoutesResultEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexedRoutePredicateHandlerMapping.class);
+
+    private final RouteLocator routeLocator;
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private final boolean enabled;
+
+    private volatile RouteIndex routeIndex;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                               RouteDefinitionLocator routeDefinitionLocator,
+                                               GlobalCorsProperties globalCorsProperties, Environment environment) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.routeLocator = routeLocator;
+        this.routeDefinitionLocator = routeDefinitionLocator;
+        this.enabled = environment.getProperty("gateway.route-index.enabled", Boolean.class, true);
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (!enabled || !event.isSuccess()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        routeLocator.getRoutes().collectList()
+                // 增量刷新后路由未变化（同一批 Route 实例）时沿用当前索引
+                .filter(routes -> routeIndex == null || !routeIndex.isBuiltFrom(routes))
+                .zipWith(routeDefinitionLocator.getRouteDefinitions().collectList())
+                .map(tuple -> RouteIndex.build(tuple.getT1(), tuple.getT2()))
+                .subscribe(index -> {
+                    this.routeIndex = index;
+                    logger.debug("路由索引已重建: 路由数={}, 未索引路由数={}, 耗时={}μs", index.getRouteCount(),
+                            index.getUnindexedCount(), (System.nanoTime() - startTime) / 1000);
+                }, e -> logger.error("路由索引重建失败，继续使用上一版索引: {}", e.getMessage(), e));
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        RouteIndex index = this.routeIndex;
+        if (index == null) {
+            return super.lookupRoute(exchange);
+        }
+
+        PathContainer path = (PathContainer) exchange.getAttributes().computeIfAbsent(
+                GATEWAY_PREDICATE_PATH_CONTAINER_ATTR,
+                s -> PathContainer.parsePath(exchange.getRequest().getURI().getRawPath()));
+
+        return Flux.fromIterable(index.candidates(path))
+                .concatMap(route -> Mono.just(route).filterWhen(r -> {
+                    exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                    return r.getPredicate().apply(exchange);
+                }).doOnError(e -> logger.error("Error applying predicate for route: {}", route.getId(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .next()
+                .map(route -> {
+                    logger.debug("Route matched: {}", route.getId());
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+}
@@ -0,0 +1,226 @@
+package com.timelsszhuang.gateway.route;
+
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.server.PathContainer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不可变的路由前缀树索引
+ *
+ * 路由刷新时把所有 Path 谓词的字面量前缀编译进一棵按路径段划分的前缀树，请求到达时沿请求路径走一遍即可得到候选路由，
+ * 候选路由再执行完整谓词（包括 Path 以外的谓词）。无法索引的路由（没有 Path 谓词、Path 模式以通配符开头、
+ * 没有对应 RouteDefinition 等）始终作为候选，因此结果与逐个路由匹配完全一致，只是跳过了不可能匹配的路由
+ *
+ * @author timelsszhuang
+ */
+public final class RouteIndex {
+
+    private static final String PATH_PREDICATE = "Path";
+
+    private final List<Route> routes;
+    private final Node root;
+    private final int[] unindexed;
+
+    private RouteIndex(List<Route> routes, Node root, int[] unindexed) {
+        this.routes = routes;
+        this.root = root;
+        this.unindexed = unindexed;
+    }
+
+    /**
+     * 构建索引
+     *
+     * @param routes      按优先级排序的路由（与 RouteLocator 返回顺序一致）
+     * @param definitions 路由定义，用于读取 Path 模式
+     * @return 路由索引
+     */
+    public static RouteIndex build(List<Route> routes, List<RouteDefinition> definitions) {
+        Map<String, RouteDefinition> definitionMap = new HashMap<>();
+        for (RouteDefinition definition : definitions) {
+            definitionMap.put(definition.getId(), definition);
+        }
+
+        Builder root = new Builder();
+        List<Integer> unindexed = new ArrayList<>();
+        for (int position = 0; position < routes.size(); position++) {
+            List<String> patterns = pathPatterns(definitionMap.get(routes.get(position).getId()));
+            if (patterns == null) {
+                unindexed.add(position);
+                continue;
+            }
+            for (String pattern : patterns) {
+                root.add(pattern, position);
+            }
+        }
+        return new RouteIndex(List.copyOf(routes), root.build(),
+                unindexed.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * 查找可能匹配该路径的路由，按原有优先级排序
+     */
+    public List<Route> candidates(PathContainer path) {
+        BitSet positions = new BitSet(routes.size());
+        for (int position : unindexed) {
+            positions.set(position);
+        }
+
+        Node node = root;
+        node.collectSubtree(positions);
+        for (PathContainer.Element element : path.elements()) {
+            if (!(element instanceof PathContainer.PathSegment segment) || segment.valueToMatch().isEmpty()) {
+                continue;
+            }
+            node = node.children.get(segment.valueToMatch());
+            if (node == null) {
+                break;
+            }
+            node.collectSubtree(positions);
+        }
+        if (node != null) {
+            for (int position : node.exact) {
+                positions.set(position);
+            }
+        }
+
+        if (positions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Route> result = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            result.add(routes.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 路由表是否与构建索引时完全相同（同一批 Route 实例、同样顺序）
+     */
+    public boolean isBuiltFrom(List<Route> routes) {
+        if (routes.size() != this.routes.size()) {
+            return false;
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            if (routes.get(i) != this.routes.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getRouteCount() {
+        return routes.size();
+    }
+
+    public int getUnindexedCount() {
+        return unindexed.length;
+    }
+
+    /**
+     * 读取路由的全部 Path 模式，无法索引时返回 null
+     */
+    private static List<String> pathPatterns(RouteDefinition definition) {
+        if (definition == null) {
+            return null;
+        }
+        List<String> patterns = new ArrayList<>();
+        for (PredicateDefinition predicate : definition.getPredicates()) {
+            if (!PATH_PREDICATE.equals(predicate.getName())) {
+                continue;
+            }
+            // 多个 Path 谓词是"与"关系，任取一个即可作为必要条件
+            if (!patterns.isEmpty()) {
+                continue;
+            }
+            for (Map.Entry<String, String> arg : predicate.getArgs().entrySet()) {
+                String key = arg.getKey();
+                if (key.startsWith("matchTrailingSlash") || key.startsWith("matchOptionalTrailingSeparator")) {
+                    continue;
+                }
+                String value = arg.getValue();
+                if (value == null || !value.startsWith("/") || value.contains("#{")) {
+                    return null;
+                }
+                patterns.add(value);
+            }
+        }
+        return patterns.isEmpty() ? null : patterns;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children;
+        private final int[] subtree;
+        private final int[] exact;
+
+        private Node(Map<String, Node> children, int[] subtree, int[] exact) {
+            this.children = children;
+            this.subtree = subtree;
+            this.exact = exact;
+        }
+
+        private void collectSubtree(BitSet positions) {
+            for (int position : subtree) {
+                positions.set(position);
+            }
+        }
+    }
+
+    /**
+     * 构建阶段的可变节点
+     */
+    private static final class Builder {
+
+        private final Map<String, Builder> children = new HashMap<>();
+        private final List<Integer> subtree = new ArrayList<>();
+        private final List<Integer> exact = new ArrayList<>();
+
+        /**
+         * 按字面量前缀插入：全部为字面量段时精确匹配，否则从最后一个字面量段起匹配整个子树
+         */
+        void add(String pattern, int position) {
+            Builder node = this;
+            for (String segment : pattern.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (!isLiteral(segment)) {
+                    node.subtree.add(position);
+                    return;
+                }
+                node = node.children.computeIfAbsent(segment, k -> new Builder());
+            }
+            node.exact.add(position);
+        }
+
+        Node build() {
+            Map<String, Node> built = new HashMap<>(children.size() * 2);
+            children.forEach((segment, child) -> built.put(segment, child.build()));
+            return new Node(Map.copyOf(built), toArray(subtree), toArray(exact));
+        }
+
+        private static boolean isLiteral(String segment) {
+            for (char c : segment.toCharArray()) {
+                if (c == '*' || c == '?' || c == '{' || c == '}' || c == '%' || c == ';') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int[] toArray(List<Integer> positions) {
+            int[] array = positions.stream().mapToInt(Integer::intValue).distinct().toArray();
+            Arrays.sort(array);
+            return array;
+        }
+    }
+}
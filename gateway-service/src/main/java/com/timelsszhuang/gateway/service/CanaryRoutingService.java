@@ -0,0 +1,100 @@
+package com.timelsszhuang.gateway.service;
+
+import com.timelsszhuang.gateway.config.CanaryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 灰度路由服务
+ *
+ * 保存各服务的灰度规则（启动时来自配置，运行时可通过管理接口修改），并决定某个用户是否进入灰度：
+ * 对 服务名 + 用户名 做哈希映射到 0-9999 的桶，桶号小于 weight * 100 即为灰度用户。
+ * 同一用户始终落在同一个桶，不需要保存任何用户状态；调大比例时已有灰度用户保持不变，只会新增
+ *
+ * @author timelsszhuang
+ */
+@Service
+public class CanaryRoutingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CanaryRoutingService.class);
+    private static final int BUCKETS = 10000;
+
+    private final Map<String, CanaryProperties.Rule> rules = new ConcurrentHashMap<>();
+
+    public CanaryRoutingService(CanaryProperties properties) {
+        properties.getServices().forEach((serviceId, rule) -> checkWeight(rule.getWeight()));
+        rules.putAll(properties.getServices());
+        rules.forEach((serviceId, rule) -> logger.info("灰度规则: service={}, weight={}%, {}={}",
+                serviceId, rule.getWeight(), rule.getMetadataKey(), rule.getMetadataValue()));
+    }
+
+    /**
+     * 获取服务的灰度规则，未配置时返回 null
+     */
+    public CanaryProperties.Rule getRule(String serviceId) {
+        return rules.get(serviceId);
+    }
+
+    /**
+     * 用户是否进入灰度
+     */
+    public boolean isCanary(String serviceId, String userName) {
+        CanaryProperties.Rule rule = rules.get(serviceId);
+        if (rule == null || userName == null || rule.getWeight() <= 0) {
+            return false;
+        }
+        return bucket(serviceId, userName) < rule.getWeight() * (BUCKETS / 100);
+    }
+
+    /**
+     * 修改灰度比例，服务未配置规则时使用默认元数据 version=canary 创建
+     */
+    public CanaryProperties.Rule setWeight(String serviceId, double weight) {
+        checkWeight(weight);
+        CanaryProperties.Rule updated = rules.compute(serviceId, (id, current) -> {
+            CanaryProperties.Rule rule = new CanaryProperties.Rule();
+            if (current != null) {
+                rule.setMetadataKey(current.getMetadataKey());
+                rule.setMetadataValue(current.getMetadataValue());
+            }
+            rule.setWeight(weight);
+            return rule;
+        });
+        logger.info("灰度比例已修改: service={}, weight={}%", serviceId, weight);
+        return updated;
+    }
+
+    public Map<String, CanaryProperties.Rule> getRules() {
+        return new LinkedHashMap<>(rules);
+    }
+
+    private static void checkWeight(double weight) {
+        // 写成取反的区间判断，NaN 同样被拒绝
+        if (!(weight >= 0 && weight <= 100)) {
+            throw new IllegalArgumentException("灰度比例必须在 0-100 之间: " + weight);
+        }
+    }
+
+    /**
+     * FNV-1a 哈希 + murmur3 finalizer，映射到 [0, BUCKETS)
+     */
+    static int bucket(String serviceId, String userName) {
+        int hash = 0x811c9dc5;
+        for (byte b : (serviceId + ':' + userName).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Integer.remainderUnsigned(hash, BUCKETS);
+    }
+}
@@ -0,0 +1,137 @@
+package com.timelsszhuang.gateway.service;
+
+import com.timelsszhuang.gateway.filter.TimedConnectionProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上游连接池指标服务
+ *
+ * 从 MeterRegistry 中读取连接池指标并按连接池名称聚合：
+ * 每个远端地址的活跃/空闲/排队连接数（Reactor Netty 连接池指标），
+ * 排队等待耗时，以及路由连接池的获取连接耗时分布（acquireLatency 为成功获取，
+ * acquireLatencyError / acquireLatencyCancel 为获取失败和获取完成前被取消）
+ *
+ * @author timelsszhuang
+ */
+@Service
+public class ConnectionPoolMetricsService {
+
+    private static final String NETTY_PREFIX = "reactor.netty.connection.provider.";
+    private static final String NETTY_PENDING_TIME = NETTY_PREFIX + "pending.connections.time";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConnectionPoolMetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 获取所有连接池的实时指标
+     *
+     * @return 连接池名称 -> 指标
+     */
+    public Map<String, Object> getPoolMetrics() {
+        Map<String, Map<String, Object>> pools = new TreeMap<>();
+        // key: 连接池名称|远端地址
+        Map<String, Map<String, Object>> hosts = new TreeMap<>();
+
+        for (Meter meter : meterRegistry.getMeters()) {
+            String name = meter.getId().getName();
+
+            if (TimedConnectionProvider.ACQUIRE_TIMER.equals(name) && meter instanceof Timer timer) {
+                String outcome = meter.getId().getTag(TimedConnectionProvider.OUTCOME_TAG);
+                String key = "success".equals(outcome) ? "acquireLatency"
+                        : "acquireLatency" + StringUtils.capitalize(String.valueOf(outcome));
+                pool(pools, meter.getId().getTag(TimedConnectionProvider.POOL_TAG)).put(key, toLatency(timer));
+                continue;
+            }
+            // 分位数/直方图会以独立 Gauge 的形式出现，跳过
+            if (!name.startsWith(NETTY_PREFIX) || name.endsWith(".percentile") || name.endsWith(".histogram")) {
+                continue;
+            }
+
+            String poolName = meter.getId().getTag("name");
+            String remoteAddress = meter.getId().getTag("remote.address");
+            Map<String, Object> host = hosts.computeIfAbsent(poolName + "|" + remoteAddress, k -> {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("remoteAddress", remoteAddress);
+                List<Map<String, Object>> list = hostList(pool(pools, poolName));
+                list.add(m);
+                return m;
+            });
+
+            if (meter instanceof Gauge gauge) {
+                host.put(toKey(name.substring(NETTY_PREFIX.length())), (long) gauge.value());
+            } else if (meter instanceof Timer timer && NETTY_PENDING_TIME.equals(name)) {
+                String status = meter.getId().getTag("status");
+                host.put("SUCCESS".equalsIgnoreCase(status) ? "pendingWait" : "pendingWaitError", toLatency(timer));
+            }
+        }
+        return new LinkedHashMap<>(pools);
+    }
+
+    private Map<String, Object> pool(Map<String, Map<String, Object>> pools, String poolName) {
+        return pools.computeIfAbsent(poolName, k -> new LinkedHashMap<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> hostList(Map<String, Object> pool) {
+        return (List<Map<String, Object>>) pool.computeIfAbsent("hosts", k -> new ArrayList<Map<String, Object>>());
+    }
+
+    /**
+     * 耗时统计（毫秒）
+     */
+    private Map<String, Object> toLatency(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", snapshot.count());
+        latency.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        latency.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile p : snapshot.percentileValues()) {
+            percentiles.put("p" + Math.round(p.percentile() * 100), p.value(TimeUnit.MILLISECONDS));
+        }
+        latency.put("percentilesMs", percentiles);
+
+        Map<String, Double> histogram = new LinkedHashMap<>();
+        for (CountAtBucket bucket : snapshot.histogramCounts()) {
+            histogram.put("le" + (long) bucket.bucket(TimeUnit.MILLISECONDS) + "ms", bucket.count());
+        }
+        latency.put("histogram", histogram);
+        return latency;
+    }
+
+    /**
+     * active.connections -> activeConnections
+     */
+    private String toKey(String suffix) {
+        StringBuilder sb = new StringBuilder(suffix.length());
+        boolean upper = false;
+        for (char c : suffix.toCharArray()) {
+            if (c == '.') {
+                upper = true;
+            } else {
+                sb.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return sb.toString();
+    }
+}
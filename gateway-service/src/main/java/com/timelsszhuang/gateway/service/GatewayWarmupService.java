@@ -0,0 +1,306 @@
+package com.timelsszhuang.gateway.service;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.GatewayApiDefinitionManager;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.gateway.config.WarmupProperties;
+import com.timelsszhuang.gateway.filter.PooledNettyRoutingFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 网关启动预热
+ *
+ * 刚启动的网关前几千个请求明显偏慢：JIT 未编译、Sentinel 资源与 jjwt 类首次使用时才初始化、上游连接池为空。
+ * 预热在就绪前完成三件事：
+ * 1. 按路由使用的连接池（PooledNettyRoutingFilter 的路由连接池或全局连接池），向服务发现中的每个
+ *    lb:// 上游实例并发发送 HEAD 请求，预先建立连接
+ * 2. 以 SentinelGatewayFilter 相同的资源类型、入口类型和上下文，对每个路由和 API 分组资源执行一次 SphU.entry / exit，
+ *    初始化上下文、资源的 Slot 链和统计节点。不带请求参数进入：网关流控规则按请求参数检查和计数，不带参数时直接跳过，
+ *    不占用限流配额
+ * 3. 携带预热 Token 向网关自身端口发送 GET 请求，完整经过过滤器链、JWT 校验、负载均衡和上游转发
+ * 模拟请求携带随机生成的预热标记（X-Gateway-Warmup），不经过 Sentinel 网关限流（见 WarmupConfig）：
+ * 否则超出阈值的模拟请求直接返回 429，既没有预热后续过滤器和上游转发，也占用了限流窗口的配额。标记只在发送期间有效
+ * 任何响应状态（包括 401、404）都算完成预热；失败或超时只记录日志，不影响启动
+ *
+ * @author timelsszhuang
+ */
+public class GatewayWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayWarmupService.class);
+
+    private static final String LB_SCHEME = "lb";
+    private static final String USER_AGENT = "gateway-warmup";
+
+    /**
+     * 模拟请求的预热标记请求头
+     */
+    public static final String WARMUP_HEADER = "X-Gateway-Warmup";
+
+    private final WarmupProperties properties;
+    private final RouteLocator routeLocator;
+    private final DiscoveryClient discoveryClient;
+    private final PooledNettyRoutingFilter routingFilter;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * 本次预热的标记，只在发送模拟请求期间非空
+     */
+    private volatile String warmupKey;
+
+    public GatewayWarmupService(WarmupProperties properties, RouteLocator routeLocator,
+                                DiscoveryClient discoveryClient, PooledNettyRoutingFilter routingFilter,
+                                JwtUtil jwtUtil) {
+        this.properties = properties;
+        this.routeLocator = routeLocator;
+        this.discoveryClient = discoveryClient;
+        this.routingFilter = routingFilter;
+        this.jwtUtil = jwtUtil;
+    }
+
+    /**
+     * 执行预热，阻塞到完成或超时
+     *
+     * @param port 网关监听端口
+     */
+    public void warmUp(int port) {
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeout().toNanos();
+
+        int connections = preconnect(deadline);
+        int resources = warmUpSentinel(deadline);
+        String requests = sendRequests(port, deadline);
+
+        logger.info("网关预热完成: 预建上游连接 {} 个, Sentinel 资源 {} 个, {}, 耗时 {} ms",
+                connections, resources, requests, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 是否为正在进行的预热发出的模拟请求（标记不匹配或预热已结束时返回 false）
+     */
+    public boolean isWarmupRequest(ServerHttpRequest request) {
+        String key = this.warmupKey;
+        String header = request.getHeaders().getFirst(WARMUP_HEADER);
+        return key != null && header != null
+                && MessageDigest.isEqual(key.getBytes(StandardCharsets.US_ASCII), header.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 为每个 lb:// 路由的上游实例预建连接
+     *
+     * @return 成功建立（收到响应）的连接数
+     */
+    private int preconnect(long deadline) {
+        int perInstance = properties.getConnectionsPerInstance();
+        if (perInstance <= 0) {
+            return 0;
+        }
+        AtomicInteger opened = new AtomicInteger();
+        try {
+            List<Route> routes = routeLocator.getRoutes()
+                    .filter(route -> LB_SCHEME.equals(route.getUri().getScheme()))
+                    .collectList()
+                    .block(remaining(deadline));
+            Flux.fromIterable(routes == null ? List.<Route>of() : routes)
+                    .flatMap(route -> {
+                        HttpClient client = routingFilter.getHttpClient(route);
+                        List<ServiceInstance> instances = discoveryClient.getInstances(route.getUri().getHost());
+                        return Flux.fromIterable(instances)
+                                .flatMap(instance -> Flux.range(0, perInstance)
+                                        .flatMap(i -> head(client, instance), perInstance)
+                                        .doOnNext(status -> opened.incrementAndGet())
+                                        .onErrorResume(e -> {
+                                            logger.warn("上游实例预建连接失败: route={}, instance={}, error={}",
+                                                    route.getId(), instance.getUri(), e.toString());
+                                            return Mono.empty();
+                                        }));
+                    })
+                    .then()
+                    .block(remaining(deadline));
+        } catch (RuntimeException e) {
+            logger.warn("上游连接预建未完成: {}", e.toString());
+        }
+        return opened.get();
+    }
+
+    /**
+     * 初始化 SentinelGatewayFilter 会用到的 Sentinel 资源：路由 ID（路由上下文）和 API 分组（默认上下文）
+     *
+     * @return 成功进入的资源数
+     */
+    private int warmUpSentinel(long deadline) {
+        int entered = 0;
+        try {
+            List<Route> routes = routeLocator.getRoutes().collectList().block(remaining(deadline));
+            for (Route route : routes == null ? List.<Route>of() : routes) {
+                ContextUtil.enter(SentinelGatewayConstants.GATEWAY_CONTEXT_ROUTE_PREFIX + route.getId(), "");
+                try {
+                    entered += enterSentinel(route.getId());
+                } finally {
+                    ContextUtil.exit();
+                }
+            }
+            for (ApiDefinition api : GatewayApiDefinitionManager.getApiDefinitions()) {
+                entered += enterSentinel(api.getApiName());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Sentinel 资源预热未完成: {}", e.toString());
+        }
+        return entered;
+    }
+
+    /**
+     * 不带请求参数进入并退出资源：网关流控规则转换成的热点参数规则找不到参数，直接放行且不计数
+     */
+    static int enterSentinel(String resource) {
+        Entry entry = null;
+        try {
+            entry = SphU.entry(resource, ResourceTypeConstants.COMMON_API_GATEWAY, EntryType.IN);
+            return 1;
+        } catch (BlockException e) {
+            // 系统保护等不按参数检查的规则仍可能拦截，此时 Slot 链同样已初始化
+            logger.debug("Sentinel 资源预热被拦截: resource={}, rule={}", resource, e.getClass().getSimpleName());
+            return 1;
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
+        }
+    }
+
+    /**
+     * 并发发送的 HEAD 请求各自占用一个连接，响应读完后连接回到连接池
+     */
+    private static Mono<Integer> head(HttpClient client, ServiceInstance instance) {
+        return client.headers(headers -> headers.set(HttpHeaders.USER_AGENT, USER_AGENT))
+                .head()
+                .uri(instance.getUri().resolve("/").toString())
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())));
+    }
+
+    /**
+     * 向网关自身发送模拟请求
+     *
+     * @return 结果摘要
+     */
+    private String sendRequests(int port, long deadline) {
+        int total = properties.getRequests();
+        List<String> paths = properties.getPaths();
+        if (total <= 0 || paths.isEmpty()) {
+            return "未发送模拟请求";
+        }
+        String token = warmupToken();
+        String key = newWarmupKey();
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        long[] latencies = new long[total];
+        int concurrency = Math.max(1, properties.getConcurrency());
+
+        ConnectionProvider provider = ConnectionProvider.create("gateway-warmup", concurrency);
+        HttpClient client = HttpClient.create(provider)
+                .baseUrl("http://127.0.0.1:" + port)
+                .headers(headers -> {
+                    headers.set(HttpHeaders.USER_AGENT, USER_AGENT);
+                    headers.set(WARMUP_HEADER, key);
+                    if (token != null) {
+                        headers.set(JwtUtil.HEADER_STRING, token);
+                    }
+                });
+        warmupKey = key;
+        try {
+            Flux.range(0, total)
+                    .flatMap(i -> Mono.defer(() -> {
+                        long begin = System.nanoTime();
+                        return client.get()
+                                .uri(paths.get(i % paths.size()))
+                                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                                .map(String::valueOf)
+                                .onErrorResume(e -> Mono.just(e.getClass().getSimpleName()))
+                                .doOnNext(status -> {
+                                    latencies[i] = System.nanoTime() - begin;
+                                    statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+                                });
+                    }), concurrency)
+                    .then()
+                    .block(remaining(deadline));
+        } catch (RuntimeException e) {
+            logger.warn("模拟请求未完成: {}", e.toString());
+        } finally {
+            warmupKey = null;
+            provider.dispose();
+        }
+
+        Map<String, Long> summary = new TreeMap<>();
+        statuses.forEach((status, count) -> summary.put(status, count.sum()));
+        int tenth = Math.max(1, total / 10);
+        return String.format("模拟请求 %d 个（状态 %s），前 10%% 平均 %.2f ms，后 10%% 平均 %.2f ms",
+                summary.values().stream().mapToLong(Long::longValue).sum(), summary,
+                averageMillis(latencies, 0, tenth), averageMillis(latencies, total - tenth, total));
+    }
+
+    /**
+     * 签发预热 Token；只配置了 ES256 公钥时网关无法签发，模拟请求不带 Token（仍经过认证过滤器的拒绝路径）
+     */
+    private String warmupToken() {
+        try {
+            return JwtUtil.TOKEN_PREFIX + jwtUtil.generateToken(properties.getUsername());
+        } catch (RuntimeException e) {
+            logger.warn("无法签发预热 Token，模拟请求不携带 Token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String newWarmupKey() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * 区间内已完成请求的平均耗时（未完成的请求耗时为 0，不计入）
+     */
+    private static double averageMillis(long[] latencies, int from, int to) {
+        long sum = 0;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (latencies[i] > 0) {
+                sum += latencies[i];
+                count++;
+            }
+        }
+        return count == 0 ? 0 : sum / 1_000_000.0 / count;
+    }
+
+    private static Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(1, deadline - System.nanoTime()));
+    }
+}
@@ -0,0 +1,260 @@
+package com.timelsszhuang.gateway.service;
+
+import com.timelsszhuang.auth.IdentityAssertion;
+import com.timelsszhuang.auth.InvalidTokenException;
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.auth.TokenClaims;
+import com.timelsszhuang.gateway.util.TokenRevocationList;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 吊销服务
+ *
+ * 吊销列表来自本地文件（gateway.revocation.file，每行一个完整 Token 或签名段，# 开头为注释），
+ * 启动时加载，可通过管理接口重新加载或追加。吊销条目只保存在不可变的 TokenRevocationList 中
+ * （每个条目一个 long：指纹 + 失效小时），分为三部分：文件条目、已合并的追加条目、尚未合并的追加条目。
+ * 追加时只重建很小的待合并列表；定期清理、重新加载或待合并条目超过上限时才线性合并进追加条目列表，
+ * 不在每次追加时重建整个列表。鉴权路径上只读 volatile 引用，没有锁。
+ * 条目的失效时间：完整 Token 取其 exp（已过期或校验不通过的 Token 本身就无法使用，直接忽略），
+ * 只有签名段时按 max-token-ttl 计算；按小时向上取整，定期清理已失效的条目，列表大小只取决于仍然有效的吊销 Token
+ *
+ * @author timelsszhuang
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 待合并条目上限，超过后立即合并
+     */
+    private static final int MAX_PENDING = 4096;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${gateway.revocation.file:}")
+    private String file;
+
+    @Value("${gateway.revocation.expected-entries:1000000}")
+    private int expectedEntries;
+
+    @Value("${gateway.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * 签发 Token 的最长有效期，只有签名段的条目在追加后保留这么久
+     */
+    @Value("${gateway.revocation.max-token-ttl:24h}")
+    private Duration maxTokenTtl = Duration.ofHours(24);
+
+    @Value("${gateway.revocation.purge-interval:10m}")
+    private Duration purgeInterval = Duration.ofMinutes(10);
+
+    private volatile TokenRevocationList fileList = TokenRevocationList.empty();
+    private volatile TokenRevocationList addedList = TokenRevocationList.empty();
+    private volatile TokenRevocationList pendingList = TokenRevocationList.empty();
+
+    /**
+     * 尚未合并的追加条目，pendingList 由它构建
+     */
+    private TokenRevocationList.Builder pending = new TokenRevocationList.Builder();
+    private volatile String lastReloadTime;
+    private ScheduledExecutorService purger;
+
+    @PostConstruct
+    public void init() {
+        if (purgeInterval.toMillis() > 0) {
+            purger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "token-revocation-purger");
+                thread.setDaemon(true);
+                return thread;
+            });
+            purger.scheduleWithFixedDelay(this::purgeExpired,
+                    purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (!StringUtils.hasText(file)) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IllegalStateException e) {
+            logger.error("吊销列表加载失败，暂不吊销任何 Token: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * Token 是否已被吊销
+     *
+     * @param token 完整 Token，或签名段前至少 20 个字符（例如身份断言中的 tokenRef）
+     */
+    public boolean isRevoked(String token) {
+        long fingerprint = TokenRevocationList.fingerprint(token);
+        return fileList.contains(fingerprint) || addedList.contains(fingerprint) || pendingList.contains(fingerprint);
+    }
+
+    /**
+     * 从文件重新加载（保留通过管理接口追加的条目）
+     */
+    public synchronized Map<String, Object> reload() {
+        if (!StringUtils.hasText(file)) {
+            throw new IllegalStateException("未配置 gateway.revocation.file");
+        }
+        long now = System.currentTimeMillis();
+        TokenRevocationList.Builder builder = new TokenRevocationList.Builder();
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines++;
+                    long expiresAt = expiresAt(line, now);
+                    if (expiresAt > now) {
+                        builder.add(TokenRevocationList.fingerprint(line), expiresAt);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("读取吊销列表文件失败: " + file, e);
+        }
+        fileList = builder.build(expectedEntries, falsePositiveRate);
+        mergePending(now);
+        logger.info("吊销列表已从文件加载: file={}, lines={}, entries={}", file, lines, fileList.size());
+        return getStats();
+    }
+
+    /**
+     * 追加吊销的 Token，重复的条目只保留一个
+     *
+     * @return 状态，accepted 为本次实际生效的条目数（不含已过期、无法识别的条目）
+     */
+    public synchronized Map<String, Object> revoke(Collection<String> tokens) {
+        long now = System.currentTimeMillis();
+        int accepted = 0;
+        int added = 0;
+        for (String token : tokens) {
+            if (token == null) {
+                continue;
+            }
+            token = token.trim();
+            long expiresAt = expiresAt(token, now);
+            if (expiresAt <= now) {
+                continue;
+            }
+            accepted++;
+            // 已在列表中的签名对应同一个 Token，失效时间不会更晚
+            long fingerprint = TokenRevocationList.fingerprint(token);
+            if (!fileList.contains(fingerprint) && !addedList.contains(fingerprint) && !pendingList.contains(fingerprint)
+                    && pending.add(fingerprint, expiresAt)) {
+                added++;
+            }
+        }
+        if (pending.size() >= MAX_PENDING) {
+            mergePending(now);
+        } else if (added > 0) {
+            pendingList = pending.build(0, falsePositiveRate);
+        }
+        lastReloadTime = LocalDateTime.now().format(formatter);
+        logger.info("新增吊销 Token: 提交 {} 个，生效 {} 个", tokens.size(), accepted);
+        Map<String, Object> stats = getStats();
+        stats.put("accepted", accepted);
+        return stats;
+    }
+
+    public Map<String, Object> getStats() {
+        TokenRevocationList file = this.fileList;
+        TokenRevocationList added = this.addedList;
+        TokenRevocationList pendingEntries = this.pendingList;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", file.size() + added.size() + pendingEntries.size());
+        stats.put("pendingEntries", pendingEntries.size());
+        stats.put("bloomBits", (long) file.getBitCount() + added.getBitCount() + pendingEntries.getBitCount());
+        stats.put("hashFunctions", file.getHashFunctions());
+        stats.put("memoryBytes", file.getMemoryBytes() + added.getMemoryBytes() + pendingEntries.getMemoryBytes());
+        stats.put("file", this.file);
+        stats.put("lastReloadTime", lastReloadTime);
+        return stats;
+    }
+
+    /**
+     * 清理已失效的条目，同时合并待合并的追加条目
+     */
+    void purgeExpired() {
+        purgeExpired(System.currentTimeMillis());
+    }
+
+    synchronized void purgeExpired(long now) {
+        int before = fileList.size() + addedList.size() + pendingList.size();
+        fileList = fileList.merge(TokenRevocationList.empty(), now, expectedEntries, falsePositiveRate);
+        mergePending(now);
+        int after = fileList.size() + addedList.size();
+        if (after != before) {
+            logger.info("已清理失效的吊销条目: {} -> {}", before, after);
+        }
+    }
+
+    /**
+     * 待合并条目并入追加条目列表（先发布合并后的列表，再清空待合并列表，期间不会漏判）
+     */
+    private void mergePending(long now) {
+        addedList = addedList.merge(pending.build(0, falsePositiveRate), now, 0, falsePositiveRate);
+        pending = new TokenRevocationList.Builder();
+        pendingList = TokenRevocationList.empty();
+        lastReloadTime = LocalDateTime.now().format(formatter);
+    }
+
+    /**
+     * 条目的失效时间（毫秒）
+     *
+     * @return 已过期、无效或无法识别的条目返回 0
+     */
+    private long expiresAt(String entry, long now) {
+        String ref = IdentityAssertion.tokenRef(entry);
+        if (ref.length() < IdentityAssertion.TOKEN_REF_CHARS) {
+            return 0;
+        }
+        long expiresAt = now + maxTokenTtl.toMillis();
+        if (entry.indexOf('.') >= 0) {
+            try {
+                TokenClaims claims = jwtUtil.verify(entry);
+                if (claims.getExpiresAt() > 0) {
+                    expiresAt = Math.min(expiresAt, claims.getExpiresAt() * 1000);
+                }
+            } catch (InvalidTokenException e) {
+                return 0;
+            }
+        }
+        return expiresAt;
+    }
+}
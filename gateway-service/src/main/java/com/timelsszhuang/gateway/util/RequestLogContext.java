@@ -0,0 +1,73 @@
+package com.timelsszhuang.gateway.util;
+
+import io.micrometer.context.ContextRegistry;
+import org.slf4j.MDC;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * 请求日志上下文：请求ID和用户名通过 Reactor Context 传递，日志通过 MDC（%X{requestId}、%X{username}）输出
+ *
+ * 不开启 Hooks.enableAutomaticContextPropagation()（它会在每个操作符上保存/恢复 ThreadLocal），只在两处设置 MDC：
+ * - {@link #with}：订阅过滤器链时同步设置一次，覆盖各过滤器 filter() 方法中同步执行的日志
+ * - {@link #run}：异步回调中的日志（例如上游响应返回后），借助 Reactor 在 handle 操作符上按需从 Context 恢复 ThreadLocal
+ *   （classpath 中存在 context-propagation 且未开启全局 Hook 时生效）
+ * 其他操作符不受影响，没有额外开销
+ *
+ * @author timelsszhuang
+ */
+public final class RequestLogContext {
+
+    public static final String REQUEST_ID = "requestId";
+    public static final String USERNAME = "username";
+
+    static {
+        register(REQUEST_ID);
+        register(USERNAME);
+    }
+
+    private RequestLogContext() {
+    }
+
+    /**
+     * 将 key 对应的 MDC 注册为 ThreadLocal，handle / tap 操作符执行前从 Context 恢复，执行后还原
+     */
+    private static void register(String key) {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(key,
+                () -> MDC.get(key), value -> MDC.put(key, value), () -> MDC.remove(key));
+    }
+
+    /**
+     * 将 key=value 写入下游过滤器链的 Context，并在订阅期间设置 MDC
+     *
+     * @param chain 后续过滤器链，例如 chain.filter(exchange)
+     */
+    public static Mono<Void> with(String key, String value, Mono<Void> chain) {
+        if (value == null) {
+            return chain;
+        }
+        return Mono.<Void>fromDirect(subscriber -> {
+            String previous = MDC.get(key);
+            MDC.put(key, value);
+            try {
+                chain.subscribe(subscriber);
+            } finally {
+                if (previous != null) {
+                    MDC.put(key, previous);
+                } else {
+                    MDC.remove(key);
+                }
+            }
+        }).contextWrite(Context.of(key, value));
+    }
+
+    /**
+     * 在恢复了 MDC 的情况下执行异步回调，用于替代 Mono.fromRunnable 记录日志
+     */
+    public static Mono<Void> run(Runnable action) {
+        return Mono.just(Boolean.TRUE).handle((ignored, sink) -> {
+            action.run();
+            sink.complete();
+        });
+    }
+}
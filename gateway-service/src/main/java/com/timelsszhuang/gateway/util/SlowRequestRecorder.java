@@ -0,0 +1,196 @@
+package com.timelsszhuang.gateway.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 慢请求记录器：最近窗口内最慢的 N 个请求 + 最近的 M 个错误请求，全部在内存中，不加锁
+ *
+ * 最慢请求按固定长度的窗口滚动，每个窗口有 N 个槽位，新请求只替换当前最快的槽位（CAS），
+ * 槽位中的耗时只增不减，因此最快槽位的耗时可以作为准入门槛：调用方先用 {@link #isSlow} 判断，
+ * 不够慢的请求不构造 {@link Entry}。查询时合并当前窗口和上一个窗口，覆盖最近 1~2 个窗口长度。
+ * 错误请求写入环形缓冲区，写满后覆盖最旧的
+ *
+ * 时间参数均为 System.nanoTime()
+ *
+ * @author timelsszhuang
+ */
+public class SlowRequestRecorder {
+
+    /**
+     * 一个请求的记录，只在请求入选时构造
+     *
+     * @param timestamp     完成时间（Unix 毫秒）
+     * @param upstream      实际转发的上游实例（scheme://host:port），未转发时为 null
+     * @param status        响应状态码，没有响应时为 0
+     * @param error         异常或取消信息，正常完成时为 null
+     * @param durationNanos 总耗时
+     * @param phases        各阶段耗时（阶段名 -> 纳秒），按发生顺序
+     */
+    public record Entry(long timestamp, String requestId, String traceId, String method, String path,
+                        String routeId, String upstream, int status, String error,
+                        long durationNanos, Map<String, Long> phases) {
+    }
+
+    private final int slowest;
+    private final long windowNanos;
+    private final AtomicReference<Window> window;
+
+    private final AtomicReferenceArray<Entry> errors;
+    private final AtomicLong nextError = new AtomicLong();
+
+    /**
+     * @param slowest     每个窗口保留的最慢请求数
+     * @param windowNanos 窗口长度
+     * @param errors      保留的最近错误请求数
+     */
+    public SlowRequestRecorder(int slowest, long windowNanos, int errors, long nowNanos) {
+        this.slowest = Math.max(1, slowest);
+        this.windowNanos = windowNanos;
+        this.window = new AtomicReference<>(new Window(nowNanos, this.slowest, null));
+        this.errors = new AtomicReferenceArray<>(Math.max(1, errors));
+    }
+
+    /**
+     * 耗时是否可能进入当前窗口的最慢列表（可能因并发写入在 {@link #recordSlow} 时落选）
+     */
+    public boolean isSlow(long durationNanos, long nowNanos) {
+        return durationNanos > window(nowNanos).floor.get();
+    }
+
+    public void recordSlow(Entry entry, long nowNanos) {
+        window(nowNanos).offer(entry);
+    }
+
+    public void recordError(Entry entry) {
+        errors.lazySet((int) (nextError.getAndIncrement() % errors.length()), entry);
+    }
+
+    /**
+     * 最近 1~2 个窗口内最慢的请求，按耗时从慢到快
+     */
+    public List<Entry> getSlowest(long nowNanos) {
+        Window current = window(nowNanos);
+        List<Entry> result = new ArrayList<>(slowest * 2);
+        collect(current.slots, result);
+        if (current.previous != null) {
+            collect(current.previous, result);
+        }
+        result.sort(Comparator.comparingLong(Entry::durationNanos).reversed());
+        return result.size() > slowest ? new ArrayList<>(result.subList(0, slowest)) : result;
+    }
+
+    /**
+     * 最近的错误请求，从新到旧
+     */
+    public List<Entry> getErrors() {
+        long end = nextError.get();
+        long start = Math.max(0, end - errors.length());
+        List<Entry> result = new ArrayList<>((int) (end - start));
+        for (long i = end - 1; i >= start; i--) {
+            Entry entry = errors.get((int) (i % errors.length()));
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public Map<String, Object> getStats(long nowNanos) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("windowSeconds", windowNanos / 1_000_000_000L);
+        stats.put("windowAgeSeconds", (nowNanos - window(nowNanos).start) / 1_000_000_000L);
+        stats.put("errorsRecorded", nextError.get());
+        return stats;
+    }
+
+    /**
+     * 当前窗口，过期时切换到新窗口（CAS，失败说明其他线程已切换）
+     */
+    private Window window(long nowNanos) {
+        Window current = window.get();
+        while (nowNanos - current.start >= windowNanos) {
+            // 中间有空窗口时上一个窗口视为空，只保留上一个窗口的槽位，不形成链表
+            long start = current.start + (nowNanos - current.start) / windowNanos * windowNanos;
+            AtomicReferenceArray<Entry> previous = start - current.start == windowNanos ? current.slots : null;
+            Window next = new Window(start, slowest, previous);
+            if (window.compareAndSet(current, next)) {
+                return next;
+            }
+            current = window.get();
+        }
+        return current;
+    }
+
+    private static void collect(AtomicReferenceArray<Entry> slots, List<Entry> result) {
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry != null) {
+                result.add(entry);
+            }
+        }
+    }
+
+    private static final class Window {
+
+        final long start;
+        final AtomicReferenceArray<Entry> slots;
+        final AtomicReferenceArray<Entry> previous;
+        /**
+         * 准入门槛：槽位写满前为 -1，之后不超过槽位中的最小耗时
+         */
+        final AtomicLong floor = new AtomicLong(-1);
+
+        Window(long start, int size, AtomicReferenceArray<Entry> previous) {
+            this.start = start;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.previous = previous;
+        }
+
+        void offer(Entry entry) {
+            while (true) {
+                int minIndex = 0;
+                Entry min = null;
+                long minDuration = Long.MAX_VALUE;
+                for (int i = 0; i < slots.length(); i++) {
+                    Entry slot = slots.get(i);
+                    long duration = slot != null ? slot.durationNanos() : -1;
+                    if (duration < minDuration) {
+                        minIndex = i;
+                        min = slot;
+                        minDuration = duration;
+                    }
+                }
+                if (entry.durationNanos() <= minDuration) {
+                    // 并发写入后已经不够慢
+                    return;
+                }
+                if (slots.compareAndSet(minIndex, min, entry)) {
+                    updateFloor();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 重新计算门槛。每个槽位只增不减，扫描结果不会超过真实的最小值，门槛偏低只会多构造几次 Entry
+         */
+        private void updateFloor() {
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < slots.length(); i++) {
+                Entry slot = slots.get(i);
+                if (slot == null) {
+                    return;
+                }
+                min = Math.min(min, slot.durationNanos());
+            }
+            floor.accumulateAndGet(min, Math::max);
+        }
+    }
+}
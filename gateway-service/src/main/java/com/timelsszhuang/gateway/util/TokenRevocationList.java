@@ -0,0 +1,315 @@
+package com.timelsszhuang.gateway.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 不可变的 Token 吊销列表：Bloom 过滤器 + 精确集合
+ *
+ * Token 以签名段（最后一个 '.' 之后的 HMAC，base64url）标识。签名本身是均匀分布的随机值，
+ * 直接取前 11 个字符（64 bit）作为指纹，不需要再做哈希。每个条目压缩为一个 long：
+ * 高 52 bit 为指纹，低 12 bit 为失效时间（相对 baseHour 的小时数，向上取整），数组按 long 排序，即按指纹排序。
+ * Bloom 过滤器命中后再二分查找确认；52 bit 指纹在 100 万条目时的碰撞概率约 2e-10，
+ * 再乘以 Bloom 误判率，未吊销的 Token 被误判的概率可以忽略。
+ * 每个条目约 9.6 bit（1% 误判率）+ 8 字节：100 万条目时 Bloom 过滤器约 1.2MB，精确集合 8MB，共约 9.2MB。
+ * 未吊销的 Token 绝大多数在 Bloom 过滤器处就返回，只读几个 long，不分配对象
+ *
+ * @author timelsszhuang
+ */
+public final class TokenRevocationList {
+
+    /**
+     * 条目需要的签名字符数（与身份断言的 tokenRef 一致），指纹只用前 11 个字符
+     */
+    private static final int SIGNATURE_CHARS = 20;
+    private static final int FINGERPRINT_CHARS = 11;
+
+    private static final int EXPIRY_BITS = 12;
+    private static final long EXPIRY_MASK = (1L << EXPIRY_BITS) - 1;
+    /**
+     * 永不失效（不按 baseHour 平移）；其余条目最多保留 4094 小时（约 170 天）
+     */
+    private static final long NEVER = EXPIRY_MASK;
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private static final TokenRevocationList EMPTY = new Builder().build(1, 0.01);
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashFunctions;
+    /**
+     * 排序后的条目：指纹 &lt;&lt; 12 | 失效小时
+     */
+    private final long[] entries;
+    private final long baseHour;
+
+    private TokenRevocationList(long[] bits, int bitCount, int hashFunctions, long[] entries, long baseHour) {
+        this.bits = bits;
+        this.bitCount = bitCount;
+        this.hashFunctions = hashFunctions;
+        this.entries = entries;
+        this.baseHour = baseHour;
+    }
+
+    public static TokenRevocationList empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 构建永不失效的吊销列表
+     *
+     * @param entries           完整 Token 或签名段，无法识别的条目被忽略
+     * @param expectedEntries   预期条目数，用于确定 Bloom 过滤器大小
+     * @param falsePositiveRate Bloom 过滤器误判率
+     */
+    public static TokenRevocationList build(Collection<String> entries, int expectedEntries, double falsePositiveRate) {
+        Builder builder = new Builder();
+        entries.forEach(entry -> builder.add(fingerprint(entry), Long.MAX_VALUE));
+        return builder.build(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * Token 是否已被吊销
+     *
+     * @param token 完整 Token（不带 Bearer 前缀）
+     */
+    public boolean isRevoked(String token) {
+        return entries.length > 0 && contains(fingerprint(token));
+    }
+
+    /**
+     * 指纹是否在列表中（不检查失效时间，失效条目由 {@link #merge} 清理）
+     *
+     * @param fingerprint {@link #fingerprint} 的结果，0 表示无效
+     */
+    public boolean contains(long fingerprint) {
+        if (fingerprint == 0 || entries.length == 0) {
+            return false;
+        }
+        long key = fingerprint & ~EXPIRY_MASK;
+        return mightContain(key) && find(key) >= 0;
+    }
+
+    /**
+     * 合并两个列表并去掉已失效的条目，返回新列表（两个列表均已排序，线性合并，不重新排序）
+     *
+     * @param other 另一个列表，传 {@link #empty()} 表示只清理失效条目
+     * @param now   当前时间（毫秒）
+     */
+    public TokenRevocationList merge(TokenRevocationList other, long now, int expectedEntries, double falsePositiveRate) {
+        long nowHour = Math.floorDiv(now, HOUR_MILLIS);
+        long[] merged = new long[entries.length + other.entries.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < entries.length || j < other.entries.length) {
+            long next;
+            if (j == other.entries.length
+                    || (i < entries.length && (entries[i] & ~EXPIRY_MASK) <= (other.entries[j] & ~EXPIRY_MASK))) {
+                next = rebase(entries[i++], baseHour, nowHour);
+            } else {
+                next = rebase(other.entries[j++], other.baseHour, nowHour);
+            }
+            if (next == 0) {
+                continue;
+            }
+            // 同一指纹只保留失效时间最晚的
+            if (count > 0 && (merged[count - 1] & ~EXPIRY_MASK) == (next & ~EXPIRY_MASK)) {
+                merged[count - 1] = Math.max(merged[count - 1], next);
+            } else {
+                merged[count++] = next;
+            }
+        }
+        return create(Arrays.copyOf(merged, count), nowHour, expectedEntries, falsePositiveRate);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Bloom 过滤器 + 精确集合占用的内存（字节）
+     */
+    public long getMemoryBytes() {
+        return (long) bits.length * Long.BYTES + (long) entries.length * Long.BYTES;
+    }
+
+    /**
+     * 取签名段前 11 个字符作为 64 bit 指纹；签名段不足 20 个字符或格式不正确时返回 0
+     */
+    public static long fingerprint(String tokenOrSignature) {
+        if (tokenOrSignature == null) {
+            return 0;
+        }
+        int start = tokenOrSignature.lastIndexOf('.') + 1;
+        if (tokenOrSignature.length() - start < SIGNATURE_CHARS) {
+            return 0;
+        }
+        long fingerprint = 0;
+        for (int i = 0; i < SIGNATURE_CHARS; i++) {
+            char c = tokenOrSignature.charAt(start + i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return 0;
+            }
+            if (i < FINGERPRINT_CHARS) {
+                // 11 个字符共 66 bit，最后一个字符只取高 4 bit
+                fingerprint = i < FINGERPRINT_CHARS - 1 ? (fingerprint << 6) | value : (fingerprint << 4) | (value >>> 2);
+            }
+        }
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /**
+     * 平移到新的 baseHour，已失效时返回 0（有效条目的失效小时至少为 1，不会是 0）
+     */
+    private static long rebase(long entry, long fromHour, long toHour) {
+        long expiry = entry & EXPIRY_MASK;
+        if (expiry == NEVER) {
+            return entry;
+        }
+        long shifted = fromHour + expiry - toHour;
+        return shifted <= 0 ? 0 : (entry & ~EXPIRY_MASK) | shifted;
+    }
+
+    private static TokenRevocationList create(long[] sorted, long baseHour, int expectedEntries, double falsePositiveRate) {
+        int n = Math.max(Math.max(expectedEntries, sorted.length), 1);
+        int bitCount = (int) Math.min(Integer.MAX_VALUE - 63,
+                Math.max(64, Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)))));
+        int hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        long[] bits = new long[(bitCount + 63) >>> 6];
+
+        TokenRevocationList list = new TokenRevocationList(bits, bitCount, hashFunctions, sorted, baseHour);
+        for (long entry : sorted) {
+            list.put(entry & ~EXPIRY_MASK);
+        }
+        return list;
+    }
+
+    /**
+     * 双重哈希：指纹本身是随机值，乘法混合后拆成两个哈希，步长取奇数
+     */
+    private void put(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        long step = Long.rotateLeft(h, 32) | 1L;
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Long.remainderUnsigned(h, bitCount);
+            bits[index >>> 6] |= 1L << index;
+            h += step;
+        }
+    }
+
+    private boolean mightContain(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        long step = Long.rotateLeft(h, 32) | 1L;
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = (int) Long.remainderUnsigned(h, bitCount);
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+            h += step;
+        }
+        return true;
+    }
+
+    /**
+     * 二分查找指纹（条目低 12 bit 为失效时间，按指纹部分比较）
+     */
+    private int find(long key) {
+        int from = 0;
+        int to = entries.length - 1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            long value = entries[mid] & ~EXPIRY_MASK;
+            if (value == key) {
+                return mid;
+            }
+            if (value < key) {
+                from = mid + 1;
+            } else {
+                to = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 逐个追加 (指纹, 失效时间) 后一次构建，只在构建时排序
+     */
+    public static final class Builder {
+
+        private long[] fingerprints = new long[16];
+        private long[] expiresAt = new long[16];
+        private int count;
+
+        /**
+         * @param fingerprint {@link #fingerprint} 的结果，0（无效）被忽略
+         * @param expiresAt   失效时间（毫秒），Long.MAX_VALUE 表示永不失效
+         * @return 是否追加
+         */
+        public boolean add(long fingerprint, long expiresAt) {
+            if (fingerprint == 0) {
+                return false;
+            }
+            if (count == fingerprints.length) {
+                fingerprints = Arrays.copyOf(fingerprints, count * 2);
+                this.expiresAt = Arrays.copyOf(this.expiresAt, count * 2);
+            }
+            fingerprints[count] = fingerprint;
+            this.expiresAt[count++] = expiresAt;
+            return true;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        /**
+         * 构建列表（不清空已追加的条目）
+         */
+        public TokenRevocationList build(int expectedEntries, double falsePositiveRate) {
+            long baseHour = Math.floorDiv(System.currentTimeMillis(), HOUR_MILLIS);
+            long[] packed = new long[count];
+            for (int i = 0; i < count; i++) {
+                long expiry;
+                if (expiresAt[i] == Long.MAX_VALUE) {
+                    expiry = NEVER;
+                } else {
+                    // 向上取整到小时：条目最多比 Token 晚一小时清理，不会提前清理
+                    expiry = Math.max(1, Math.min(NEVER - 1, Math.floorDiv(expiresAt[i] + HOUR_MILLIS - 1, HOUR_MILLIS) - baseHour));
+                }
+                packed[i] = (fingerprints[i] & ~EXPIRY_MASK) | expiry;
+            }
+            Arrays.sort(packed);
+            // 合并重复的指纹：排序后相邻，失效时间较晚的在后
+            int unique = 0;
+            for (int i = 0; i < packed.length; i++) {
+                if (unique > 0 && (packed[unique - 1] & ~EXPIRY_MASK) == (packed[i] & ~EXPIRY_MASK)) {
+                    packed[unique - 1] = packed[i];
+                } else {
+                    packed[unique++] = packed[i];
+                }
+            }
+            return create(unique == packed.length ? packed : Arrays.copyOf(packed, unique), baseHour,
+                    expectedEntries, falsePositiveRate);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.timelsszhuang.gateway.config;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 压缩时 Vary 合并到上游已有的取值，不重复追加 Accept-Encoding
+ *
+ * @author timelsszhuang
+ */
+class CompressionConfigTest {
+
+    @Test
+    void mergesVaryWithUpstreamTokens() {
+        assertEquals(List.of("accept-encoding"), vary());
+        assertEquals(List.of("Origin", "accept-encoding"), vary("Origin"));
+        assertEquals(List.of("Origin, Accept-Encoding"), vary("Origin, Accept-Encoding"));
+        assertEquals(List.of("Origin", "accept-encoding"), vary("Origin", "accept-encoding"));
+        assertEquals(List.of("*"), vary("*"));
+    }
+
+    private static List<String> vary(String... upstream) {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        for (String value : upstream) {
+            headers.add(HttpHeaderNames.VARY, value);
+        }
+        CompressionConfig.CompressionPredicate.addVaryAcceptEncoding(headers);
+        return headers.getAll(HttpHeaderNames.VARY);
+    }
+}
@@ -0,0 +1,31 @@
+package com.timelsszhuang.gateway.config;
+
+import com.timelsszhuang.gateway.filter.PrefixRewriteGatewayFilterFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * native-image 运行时提示覆盖过滤器配置绑定和 Sentinel SPI
+ *
+ * @author timelsszhuang
+ */
+class GatewayRuntimeHintsTest {
+
+    @Test
+    void registersFilterConfigsAndSentinelSpi() {
+        RuntimeHints hints = new RuntimeHints();
+        new GatewayRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(PrefixRewriteGatewayFilterFactory.Config.class, "setFromPrefix").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/com.alibaba.csp.sentinel.slotchain.SlotChainBuilder").test(hints));
+        // sentinel-core 的默认插槽链，SpiLoader 反射创建
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("com.alibaba.csp.sentinel.slots.DefaultSlotChainBuilder")).test(hints));
+    }
+}
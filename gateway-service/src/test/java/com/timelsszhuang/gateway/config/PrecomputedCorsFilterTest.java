@@ -0,0 +1,163 @@
+package com.timelsszhuang.gateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 预先计算响应头的 CORS 过滤器与 CorsWebFilter（DefaultCorsProcessor）的响应头和状态码一致
+ *
+ * @author timelsszhuang
+ */
+class PrecomputedCorsFilterTest {
+
+    private static final String ALLOWED_ORIGIN = "https://app.example.com";
+
+    @Test
+    void allowedPreflight() {
+        for (CorsConfiguration config : configs()) {
+            Result result = compare(config, () -> preflight(ALLOWED_ORIGIN, "PUT")
+                    .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "Authorization, Content-Type"));
+            assertEquals(HttpStatus.OK, result.status);
+            assertFalse(result.passed);
+            assertEquals(ALLOWED_ORIGIN, result.headers.getAccessControlAllowOrigin());
+        }
+    }
+
+    @Test
+    void rejectedMethod() {
+        for (CorsConfiguration config : configs()) {
+            Result result = compare(config, () -> preflight(ALLOWED_ORIGIN, "TRACE"));
+            assertEquals(HttpStatus.FORBIDDEN, result.status);
+            assertFalse(result.passed);
+        }
+    }
+
+    @Test
+    void rejectedOrigin() {
+        CorsConfiguration config = restricted();
+        Result result = compare(config, () -> preflight("https://evil.example.com", "GET"));
+        assertEquals(HttpStatus.FORBIDDEN, result.status);
+
+        result = compare(config, () -> MockServerHttpRequest.get("http://gateway.example.com/provider/hello")
+                .header(HttpHeaders.ORIGIN, "https://evil.example.com"));
+        assertEquals(HttpStatus.FORBIDDEN, result.status);
+        assertFalse(result.passed);
+    }
+
+    @Test
+    void allowedActualRequest() {
+        for (CorsConfiguration config : configs()) {
+            Result result = compare(config, () -> MockServerHttpRequest.post("http://gateway.example.com/provider/hello")
+                    .header(HttpHeaders.ORIGIN, ALLOWED_ORIGIN));
+            assertTrue(result.passed);
+            assertEquals(List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.CONTENT_TYPE, "X-User-Name"),
+                    result.headers.getAccessControlExposeHeaders());
+        }
+    }
+
+    @Test
+    void sameOriginRequestWithOrigin() {
+        // 浏览器对同源 POST 同样带 Origin，不是跨域请求，即使 Origin 不在允许列表中也放行
+        for (CorsConfiguration config : configs()) {
+            Result result = compare(config, () -> MockServerHttpRequest.post("http://gateway.example.com/provider/hello")
+                    .header(HttpHeaders.ORIGIN, "http://gateway.example.com"));
+            assertTrue(result.passed);
+            assertNull(result.headers.getAccessControlAllowOrigin());
+        }
+    }
+
+    @Test
+    void optionsWithoutCorsHeaders() {
+        // CorsWebFilter 交给后续过滤器处理；预先计算的过滤器直接返回 200，不经过认证和限流（有意的差异），响应头一致
+        for (CorsConfiguration config : configs()) {
+            Supplier<MockServerHttpRequest.BaseBuilder<?>> request =
+                    () -> MockServerHttpRequest.options("http://gateway.example.com/provider/hello");
+            Result expected = run(reference(config), request.get());
+            Result actual = run(precomputed(config), request.get());
+            assertEquals(expected.headers, actual.headers);
+            assertTrue(expected.passed);
+            assertFalse(actual.passed);
+            assertEquals(HttpStatus.OK, actual.status);
+        }
+    }
+
+    /**
+     * 网关实际使用的规则，以及只允许指定 Origin、方法和请求头的规则
+     */
+    private static List<CorsConfiguration> configs() {
+        return List.of(CorsConfig.corsConfiguration(), restricted());
+    }
+
+    private static CorsConfiguration restricted() {
+        CorsConfiguration config = new CorsConfiguration();
+        config.addAllowedOrigin(ALLOWED_ORIGIN);
+        config.setAllowedMethods(List.of("GET", "POST", "PUT"));
+        config.setAllowedHeaders(List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.CONTENT_TYPE));
+        config.setAllowCredentials(true);
+        config.setMaxAge(600L);
+        config.setExposedHeaders(List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.CONTENT_TYPE, "X-User-Name"));
+        return config;
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> preflight(String origin, String method) {
+        return MockServerHttpRequest.options("http://gateway.example.com/provider/hello")
+                .header(HttpHeaders.ORIGIN, origin)
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, method);
+    }
+
+    /**
+     * 同一个请求分别经过两个过滤器，响应头、状态码和是否放行均一致
+     */
+    private static Result compare(CorsConfiguration config, Supplier<MockServerHttpRequest.BaseBuilder<?>> request) {
+        Result expected = run(reference(config), request.get());
+        Result actual = run(precomputed(config), request.get());
+        assertEquals(expected.headers, actual.headers);
+        assertEquals(expected.status, actual.status);
+        assertEquals(expected.passed, actual.passed);
+        return actual;
+    }
+
+    private static WebFilter reference(CorsConfiguration config) {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", config);
+        return new CorsWebFilter(source);
+    }
+
+    private static WebFilter precomputed(CorsConfiguration config) {
+        return new CorsConfig.PrecomputedCorsFilter(config, 100);
+    }
+
+    private static Result run(WebFilter filter, MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        AtomicBoolean passed = new AtomicBoolean();
+        filter.filter(exchange, e -> {
+            passed.set(true);
+            return Mono.empty();
+        }).block();
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        // 未设置状态码的响应按 200 返回
+        return new Result(exchange.getResponse().getHeaders(), status == null ? HttpStatus.OK : status, passed.get());
+    }
+
+    private record Result(HttpHeaders headers, HttpStatusCode status, boolean passed) {
+    }
+}
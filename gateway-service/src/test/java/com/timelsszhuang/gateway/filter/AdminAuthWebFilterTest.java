@@ -0,0 +1,69 @@
+package com.timelsszhuang.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 管理接口鉴权：修改操作需要管理令牌，查询接口和业务路由不受影响
+ *
+ * @author timelsszhuang
+ */
+class AdminAuthWebFilterTest {
+
+    private final AdminAuthWebFilter filter = new AdminAuthWebFilter("s3cret");
+
+    @Test
+    void requiresTokenForManagementWrites() {
+        assertEquals(HttpStatus.UNAUTHORIZED, run(MockServerHttpRequest.post("/gateway/revocations")));
+        assertEquals(HttpStatus.UNAUTHORIZED, run(MockServerHttpRequest.put("/gateway/canary/service-provider")
+                .header(AdminAuthWebFilter.HEADER, "wrong")));
+        // 矩阵参数、编码和连续斜杠不能绕过
+        assertEquals(HttpStatus.UNAUTHORIZED, run(MockServerHttpRequest.post("/gateway;x=1/revocations")));
+        assertEquals(HttpStatus.UNAUTHORIZED, run(MockServerHttpRequest.method(HttpMethod.POST, URI.create("/%67ateway/revocations"))));
+        assertEquals(HttpStatus.UNAUTHORIZED, run(MockServerHttpRequest.method(HttpMethod.POST, URI.create("http://localhost//gateway/revocations"))));
+
+        assertNull(run(MockServerHttpRequest.post("/gateway/revocations").header(AdminAuthWebFilter.HEADER, "s3cret")));
+        assertNull(run(MockServerHttpRequest.get("/gateway/revocations")));
+        assertNull(run(MockServerHttpRequest.post("/provider/order/create")));
+    }
+
+    @Test
+    void rejectsWritesWhenTokenNotConfigured() {
+        AdminAuthWebFilter disabled = new AdminAuthWebFilter("");
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/gateway/revocations")
+                .header(AdminAuthWebFilter.HEADER, ""));
+        AtomicBoolean passed = new AtomicBoolean();
+        disabled.filter(exchange, e -> {
+            passed.set(true);
+            return Mono.empty();
+        }).block();
+        assertFalse(passed.get());
+        assertEquals(HttpStatus.FORBIDDEN, exchange.getResponse().getStatusCode());
+    }
+
+    /**
+     * @return 被拒绝时的状态码，放行时为 null
+     */
+    private HttpStatus run(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        AtomicBoolean passed = new AtomicBoolean();
+        filter.filter(exchange, e -> {
+            passed.set(true);
+            return Mono.empty();
+        }).block();
+        assertTrue(passed.get() == (exchange.getResponse().getStatusCode() == null));
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+}
@@ -0,0 +1,319 @@
+package com.timelsszhuang.gateway.filter;
+
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.gateway.service.TokenRevocationService;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 请求体 / 响应体流式转发测试
+ *
+ * 用惰性生成的大请求体和大响应体经过网关自定义 GlobalFilter 链，断言：
+ * 任意时刻在途 DataBuffer 数量有界（没有过滤器聚合请求体），且到达终端的是同一个 DataBuffer 实例（没有复制）
+ *
+ * @author timelsszhuang
+ */
+class BodyStreamingTest {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final int CHUNK_COUNT = 8 * 1024; // 64MB
+    private static final int MAX_IN_FLIGHT = 2;
+
+    @Test
+    void largeUploadIsStreamedThroughCustomFilters() {
+        BufferSource source = new BufferSource(CHUNK_COUNT);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/provider/order/create")
+                        .header(HttpHeaders.AUTHORIZATION, JwtUtil.TOKEN_PREFIX + new JwtUtil().generateToken("admin"))
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .body(source.flux()));
+
+        AtomicLong received = new AtomicLong();
+        filterChain(ex -> ex.getRequest().getBody()
+                .doOnNext(buffer -> {
+                    source.assertStreamed(buffer);
+                    received.addAndGet(buffer.readableByteCount());
+                })
+                .then())
+                .filter(exchange)
+                .block();
+
+        assertEquals((long) CHUNK_SIZE * CHUNK_COUNT, received.get());
+    }
+
+    @Test
+    void largeDownloadIsStreamedThroughCustomFilters() {
+        BufferSource source = new BufferSource(CHUNK_COUNT);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/provider/order/export")
+                        .header(HttpHeaders.AUTHORIZATION, JwtUtil.TOKEN_PREFIX + new JwtUtil().generateToken("admin")));
+
+        AtomicLong written = new AtomicLong();
+        MockServerHttpResponse response = exchange.getResponse();
+        // 默认 writeHandler 会缓存整个响应体，这里改为逐块消费
+        response.setWriteHandler(body -> Flux.from(body)
+                .doOnNext(buffer -> {
+                    source.assertStreamed(buffer);
+                    written.addAndGet(buffer.readableByteCount());
+                })
+                .then());
+
+        filterChain(ex -> ex.getResponse().writeWith(source.flux()))
+                .filter(exchange)
+                .block();
+
+        assertEquals((long) CHUNK_SIZE * CHUNK_COUNT, written.get());
+    }
+
+    @Test
+    void peekReadsOnlyBoundedWindowAndForwardsOriginalBuffers() {
+        byte[] json = "{\"commodityCode\":\"C001\",\"userId\":\"U100\",\"count\":1,\"amount\":10}"
+                .getBytes(StandardCharsets.UTF_8);
+        // JSON 头部按 16 字节拆成多个 chunk，后面跟大量填充 chunk
+        List<byte[]> chunks = new ArrayList<>();
+        for (int i = 0; i < json.length; i += 16) {
+            chunks.add(Arrays.copyOfRange(json, i, Math.min(json.length, i + 16)));
+        }
+        BufferSource source = new BufferSource(chunks, CHUNK_COUNT);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/provider/seata-order/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(source.flux()));
+
+        RequestBodyPeeker.PeekedBody peeked = RequestBodyPeeker.peek(exchange, 48).block();
+
+        assertEquals(48, peeked.head().length);
+        assertEquals("U100", JsonFieldHeaderGatewayFilterFactory.readTopLevelField(peeked.head(), "userId"));
+        // 窥视阶段只读取了覆盖窗口的 chunk
+        assertEquals(3, source.generated.get());
+
+        AtomicLong received = new AtomicLong();
+        peeked.exchange().getRequest().getBody()
+                .doOnNext(buffer -> {
+                    source.assertForwarded(buffer);
+                    received.addAndGet(buffer.readableByteCount());
+                })
+                .then()
+                .block();
+
+        assertEquals(json.length + (long) CHUNK_SIZE * CHUNK_COUNT, received.get());
+    }
+
+    @Test
+    void peekedBufferReleasedWhenBodyNotSubscribed() {
+        TrackedSource source = new TrackedSource();
+        JsonFieldHeaderGatewayFilterFactory factory = new JsonFieldHeaderGatewayFilterFactory();
+        JsonFieldHeaderGatewayFilterFactory.Config config = new JsonFieldHeaderGatewayFilterFactory.Config();
+        config.setField("userId");
+        config.setHeader("X-User-Id");
+        config.setMaxBytes(48);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/provider/seata-order/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(source.flux()));
+
+        // 后续过滤器直接返回响应，不订阅请求体
+        AtomicReference<String> header = new AtomicReference<>();
+        factory.apply(config).filter(exchange, ex -> {
+            header.set(ex.getRequest().getHeaders().getFirst("X-User-Id"));
+            return Mono.empty();
+        }).block();
+
+        assertEquals("U100", header.get());
+        source.assertReleasedAndCancelled(3);
+    }
+
+    @Test
+    void peekedBufferReleasedWhenBodyCancelled() {
+        TrackedSource source = new TrackedSource();
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/provider/seata-order/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(source.flux()));
+        RequestBodyPeeker.PeekedBody peeked = RequestBodyPeeker.peek(exchange, 48).block();
+
+        // 只读取第一个头部 DataBuffer 就取消：其余头部 DataBuffer 被释放，上游被取消
+        DataBuffer first = peeked.exchange().getRequest().getBody().blockFirst();
+        DataBufferUtils.release(first);
+
+        source.assertReleasedAndCancelled(3);
+    }
+
+    @Test
+    void fieldOutsidePeekWindowIsNotFound() {
+        byte[] head = "{\"commodityCode\":\"C001\",\"us".getBytes(StandardCharsets.UTF_8);
+        assertNull(JsonFieldHeaderGatewayFilterFactory.readTopLevelField(head, "userId"));
+    }
+
+    @Test
+    void numberCutAtPeekWindowIsNotFound() {
+        byte[] json = "{\"commodityCode\":\"C001\",\"userId\":1234,\"count\":1}".getBytes(StandardCharsets.UTF_8);
+        JsonFieldHeaderGatewayFilterFactory factory = new JsonFieldHeaderGatewayFilterFactory();
+        JsonFieldHeaderGatewayFilterFactory.Config config = new JsonFieldHeaderGatewayFilterFactory.Config();
+        config.setField("userId");
+        config.setHeader("X-User-Id");
+        // 窗口在 1234 的 12 之后截断
+        config.setMaxBytes(new String(json, StandardCharsets.UTF_8).indexOf("34"));
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/provider/seata-order/create")
+                        .header("X-User-Id", "forged")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(json))));
+
+        AtomicReference<List<String>> header = new AtomicReference<>();
+        factory.apply(config).filter(exchange, ex -> {
+            header.set(ex.getRequest().getHeaders().get("X-User-Id"));
+            return Mono.empty();
+        }).block();
+
+        // 截断的数字不写入请求头，客户端传入的同名请求头也被移除
+        assertNull(header.get());
+        assertEquals("1234", JsonFieldHeaderGatewayFilterFactory.readTopLevelField(json, "userId"));
+    }
+
+    /**
+     * 按 Order 排序的自定义 GlobalFilter 链，terminal 模拟路由过滤器
+     */
+    private static GatewayFilterChain filterChain(Function<ServerWebExchange, Mono<Void>> terminal) {
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(jwtFilter, "jwtUtil", new JwtUtil());
+        ReflectionTestUtils.setField(jwtFilter, "tokenRevocationService", new TokenRevocationService());
+        List<GlobalFilter> filters = new ArrayList<>(List.of(
+                new PreLoggingFilter(), jwtFilter, new RequestStatisticsFilter(),
+                new LoggingGlobalFilter(), new PostLoggingFilter()));
+        filters.sort(Comparator.comparingInt(f -> ((Ordered) f).getOrder()));
+        return chain(filters, 0, terminal);
+    }
+
+    private static GatewayFilterChain chain(List<GlobalFilter> filters, int index,
+                                            Function<ServerWebExchange, Mono<Void>> terminal) {
+        if (index == filters.size()) {
+            return terminal::apply;
+        }
+        return exchange -> filters.get(index).filter(exchange, chain(filters, index + 1, terminal));
+    }
+
+    /**
+     * 按 16 字节 chunk 惰性生成带引用计数的 JSON 请求体，记录生成的 DataBuffer 和上游是否被取消
+     */
+    private static class TrackedSource {
+
+        private static final byte[] JSON = ("{\"commodityCode\":\"C001\",\"userId\":\"U100\",\"count\":1,"
+                + "\"amount\":10,\"remark\":\"" + "x".repeat(1024) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        private final NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        private final List<DataBuffer> generated = new ArrayList<>();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        Flux<DataBuffer> flux() {
+            return Flux.range(0, (JSON.length + 15) / 16)
+                    .map(i -> {
+                        DataBuffer buffer = factory.allocateBuffer(16)
+                                .write(JSON, i * 16, Math.min(16, JSON.length - i * 16));
+                        generated.add(buffer);
+                        return buffer;
+                    })
+                    .doOnCancel(() -> cancelled.set(true));
+        }
+
+        void assertReleasedAndCancelled(int expectedGenerated) {
+            assertTrue(cancelled.get(), "上游未被取消");
+            assertEquals(expectedGenerated, generated.size());
+            for (DataBuffer buffer : generated) {
+                assertFalse(((PooledDataBuffer) buffer).isAllocated(), "窥视的 DataBuffer 未释放");
+            }
+        }
+    }
+
+    /**
+     * 惰性生成 DataBuffer，记录生成数量和各实例，用于检查在途数量和实例一致性
+     */
+    private static class BufferSource {
+
+        private final List<byte[]> prefix;
+        private final int fillerCount;
+        private final AtomicInteger generated = new AtomicInteger();
+        private final AtomicInteger consumed = new AtomicInteger();
+        private final List<DataBuffer> emitted = new ArrayList<>();
+        private final AtomicReference<DataBuffer> last = new AtomicReference<>();
+
+        BufferSource(int fillerCount) {
+            this(List.of(), fillerCount);
+        }
+
+        BufferSource(List<byte[]> prefix, int fillerCount) {
+            this.prefix = prefix;
+            this.fillerCount = fillerCount;
+        }
+
+        Flux<DataBuffer> flux() {
+            byte[] filler = new byte[CHUNK_SIZE];
+            return Flux.concat(Flux.fromIterable(prefix), Flux.range(0, fillerCount).map(i -> filler))
+                    .map(bytes -> {
+                        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+                        generated.incrementAndGet();
+                        last.set(buffer);
+                        if (emitted.size() < prefix.size()) {
+                            emitted.add(buffer);
+                        }
+                        return buffer;
+                    });
+        }
+
+        /**
+         * 逐块转发：收到的正是最新生成的实例，且生成数量没有超前于消费数量
+         */
+        void assertStreamed(DataBuffer buffer) {
+            assertSame(last.get(), buffer, "DataBuffer 被复制");
+            int inFlight = generated.get() - consumed.incrementAndGet();
+            assertTrue(inFlight < MAX_IN_FLIGHT, "请求体被缓冲, 在途 DataBuffer: " + inFlight);
+        }
+
+        /**
+         * 窥视后转发：头部是窥视阶段读取的原实例，之后逐块转发
+         */
+        void assertForwarded(DataBuffer buffer) {
+            int index = consumed.get();
+            if (index < generated.get() && index < emitted.size()) {
+                assertSame(emitted.get(index), buffer, "窥视过的 DataBuffer 被复制");
+                consumed.incrementAndGet();
+                return;
+            }
+            assertStreamed(buffer);
+        }
+    }
+}
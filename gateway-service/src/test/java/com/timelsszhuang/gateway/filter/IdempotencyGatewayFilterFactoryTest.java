@@ -0,0 +1,110 @@
+package com.timelsszhuang.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 幂等键过滤器测试：并发重复请求只执行一次，之后重放；失败不记录；键复用于其他路径返回 422
+ *
+ * @author timelsszhuang
+ */
+class IdempotencyGatewayFilterFactoryTest {
+
+    private final GatewayFilter filter = newFilter();
+
+    @Test
+    void concurrentDuplicatesExecuteOnceAndReplay() {
+        AtomicInteger executions = new AtomicInteger();
+        Sinks.Empty<Void> upstream = Sinks.empty();
+        GatewayFilterChain chain = exchange -> {
+            executions.incrementAndGet();
+            return upstream.asMono().then(Mono.defer(() -> write(exchange.getResponse(), HttpStatus.CREATED, "{\"orderNo\":\"ORD001\"}")));
+        };
+
+        MockServerWebExchange first = exchange("/provider/order/create", "k1");
+        MockServerWebExchange second = exchange("/provider/order/create", "k1");
+        Mono<Void> firstResult = filter.filter(first, chain).cache();
+        Mono<Void> secondResult = filter.filter(second, chain).cache();
+        firstResult.subscribe();
+        secondResult.subscribe();
+        upstream.tryEmitEmpty();
+        firstResult.block();
+        secondResult.block();
+
+        MockServerWebExchange third = exchange("/provider/order/create", "k1");
+        filter.filter(third, chain).block();
+
+        assertEquals(1, executions.get());
+        assertEquals("{\"orderNo\":\"ORD001\"}", first.getResponse().getBodyAsString().block());
+        assertNull(first.getResponse().getHeaders().getFirst(IdempotencyGatewayFilterFactory.REPLAYED_HEADER));
+        for (MockServerWebExchange duplicate : List.of(second, third)) {
+            assertEquals(HttpStatus.CREATED, duplicate.getResponse().getStatusCode());
+            assertEquals(MediaType.APPLICATION_JSON, duplicate.getResponse().getHeaders().getContentType());
+            assertEquals("true", duplicate.getResponse().getHeaders().getFirst(IdempotencyGatewayFilterFactory.REPLAYED_HEADER));
+            assertEquals("{\"orderNo\":\"ORD001\"}", duplicate.getResponse().getBodyAsString().block());
+        }
+    }
+
+    @Test
+    void failedResultIsNotRecorded() {
+        AtomicInteger executions = new AtomicInteger();
+        GatewayFilterChain chain = exchange -> executions.incrementAndGet() == 1
+                ? write(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, "{}")
+                : write(exchange.getResponse(), HttpStatus.OK, "{\"ok\":true}");
+
+        filter.filter(exchange("/provider/order/create", "k2"), chain).block();
+        MockServerWebExchange retry = exchange("/provider/order/create", "k2");
+        filter.filter(retry, chain).block();
+
+        assertEquals(2, executions.get());
+        assertEquals(HttpStatus.OK, retry.getResponse().getStatusCode());
+    }
+
+    @Test
+    void keyReusedForOtherPathIsRejected() {
+        GatewayFilterChain chain = exchange -> write(exchange.getResponse(), HttpStatus.OK, "{}");
+        filter.filter(exchange("/provider/order/create", "k3"), chain).block();
+
+        MockServerWebExchange other = exchange("/provider/order/create-batch", "k3");
+        filter.filter(other, chain).block();
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, other.getResponse().getStatusCode());
+    }
+
+    private static GatewayFilter newFilter() {
+        IdempotencyGatewayFilterFactory factory =
+                new IdempotencyGatewayFilterFactory(new SimpleMeterRegistry(), DataSize.ofMegabytes(1));
+        IdempotencyGatewayFilterFactory.Config config = new IdempotencyGatewayFilterFactory.Config();
+        config.setPaths(List.of("/provider/order/"));
+        config.setRouteId("service-provider");
+        return factory.apply(config);
+    }
+
+    private static MockServerWebExchange exchange(String path, String key) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post(path)
+                .header("X-User-Name", "admin")
+                .header(IdempotencyGatewayFilterFactory.KEY_HEADER, key));
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, HttpStatus status, String body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,133 @@
+package com.timelsszhuang.gateway.filter;
+
+import com.timelsszhuang.auth.IdentityAssertion;
+import com.timelsszhuang.auth.JwtUtil;
+import com.timelsszhuang.gateway.config.InternalListenerConfig;
+import com.timelsszhuang.gateway.service.TokenRevocationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JWT 过滤器的身份断言处理：公网端口不接受断言，内部端口校验吊销和 Token 绑定
+ *
+ * @author timelsszhuang
+ */
+class JwtAuthenticationFilterTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final TokenRevocationService revocationService = new TokenRevocationService();
+    private final IdentityAssertion identityAssertion = new IdentityAssertion(new byte[32], Duration.ofSeconds(60));
+    private final InternalListenerConfig.InternalListener internalListener =
+            mock(InternalListenerConfig.InternalListener.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+
+    private final String token = jwtUtil.generateToken("alice");
+    private final String assertion = identityAssertion.issue("alice", "USER", 0, token);
+
+    JwtAuthenticationFilterTest() {
+        ReflectionTestUtils.setField(revocationService, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(revocationService, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", revocationService);
+        ReflectionTestUtils.setField(filter, "identityAssertion", identityAssertion);
+        ReflectionTestUtils.setField(filter, "internalListener", internalListener);
+    }
+
+    @AfterEach
+    void close() {
+        jwtUtil.close();
+    }
+
+    @Test
+    void publicListenerIgnoresAssertion() {
+        when(internalListener.accepts(any())).thenReturn(false);
+
+        // 只有断言：拒绝
+        assertEquals(HttpStatus.UNAUTHORIZED, run(null, assertion).getResponse().getStatusCode());
+
+        // 断言 + 有效 JWT：按 JWT 放行，转发的是新签发的断言而不是请求自带的
+        AtomicReference<String> forwarded = new AtomicReference<>();
+        MockServerWebExchange exchange = run(JwtUtil.TOKEN_PREFIX + token, assertion, forwarded);
+        assertNull(exchange.getResponse().getStatusCode());
+        assertNotEquals(assertion, forwarded.get());
+        assertEquals("alice", identityAssertion.verify(forwarded.get()).username());
+    }
+
+    @Test
+    void stripsInboundUserName() {
+        // 白名单路径不校验 Token，但请求自带的 X-User-Name 不能传到灰度分桶和下游
+        AtomicReference<ServerHttpRequest> forwarded = new AtomicReference<>();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/provider/auth/login")
+                .header("X-User-Name", "mallory"));
+        filter.filter(exchange, e -> {
+            forwarded.set(e.getRequest());
+            return Mono.empty();
+        }).block();
+        assertNull(forwarded.get().getHeaders().getFirst("X-User-Name"));
+
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/provider/order/list")
+                .header("X-User-Name", "mallory")
+                .header(JwtUtil.HEADER_STRING, JwtUtil.TOKEN_PREFIX + token));
+        filter.filter(exchange, e -> {
+            forwarded.set(e.getRequest());
+            return Mono.empty();
+        }).block();
+        assertEquals(List.of("alice"), forwarded.get().getHeaders().get("X-User-Name"));
+    }
+
+    @Test
+    void internalListenerChecksRevocationAndBinding() {
+        when(internalListener.accepts(any())).thenReturn(true);
+
+        AtomicReference<String> forwarded = new AtomicReference<>();
+        assertNull(run(null, assertion, forwarded).getResponse().getStatusCode());
+        assertEquals(assertion, forwarded.get());
+
+        // 断言与 Authorization 中的 Token 不对应：改为校验该 Token
+        String other = jwtUtil.generateToken("bob");
+        forwarded.set(null);
+        run(JwtUtil.TOKEN_PREFIX + other, assertion, forwarded);
+        assertEquals("bob", identityAssertion.verify(forwarded.get()).username());
+
+        // Token 吊销后，由它签发的断言同样失效
+        revocationService.revoke(List.of(token));
+        assertEquals(HttpStatus.UNAUTHORIZED, run(null, assertion).getResponse().getStatusCode());
+    }
+
+    private MockServerWebExchange run(String authorization, String inboundAssertion) {
+        return run(authorization, inboundAssertion, new AtomicReference<>());
+    }
+
+    private MockServerWebExchange run(String authorization, String inboundAssertion, AtomicReference<String> forwarded) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/provider/order/list")
+                .header(IdentityAssertion.HEADER, inboundAssertion);
+        if (authorization != null) {
+            request.header(JwtUtil.HEADER_STRING, authorization);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        GatewayFilterChain chain = e -> {
+            forwarded.set(e.getRequest().getHeaders().getFirst(IdentityAssertion.HEADER));
+            return Mono.empty();
+        };
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,204 @@
+package com.timelsszhuang.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流量镜像过滤器测试：在途镜像请求数上限、X-Mirror-Request 防循环、公网请求自带的 X-Mirror-Request 被移除、
+ * 镜像失败不影响主链路
+ *
+ * @author timelsszhuang
+ */
+class MirrorGatewayFilterFactoryTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MirrorGatewayFilterFactory factory = new MirrorGatewayFilterFactory(meterRegistry);
+
+    /**
+     * 镜像目标收到的请求：请求行、X-Mirror-Request、请求体
+     */
+    private final List<String> mirrored = new CopyOnWriteArrayList<>();
+    private final Sinks.Empty<Void> mirrorResponse = Sinks.empty();
+    private final DisposableServer mirrorTarget = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .handle((request, response) -> request.receive().aggregate().asString(StandardCharsets.UTF_8)
+                    .defaultIfEmpty("")
+                    .flatMap(body -> {
+                        mirrored.add(request.method() + " " + request.uri() + " "
+                                + request.requestHeaders().get(MirrorGatewayFilterFactory.MIRROR_HEADER) + " " + body);
+                        // 镜像目标等到测试放行后才响应
+                        return mirrorResponse.asMono().then(response.sendString(Mono.just("mirror")).then());
+                    }))
+            .bindNow();
+
+    @AfterEach
+    void close() {
+        mirrorTarget.disposeNow();
+        factory.destroy();
+    }
+
+    @Test
+    void dropsBeyondMaxInFlight() {
+        GatewayFilter filter = newFilter("http://127.0.0.1:" + mirrorTarget.port(), 2, Duration.ofSeconds(5));
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/provider/hello?i=" + i));
+            filter.filter(exchange, chain()).block();
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        }
+        await(() -> mirrored.size() == 2);
+        assertEquals(3, count("dropped"));
+
+        // 在途的镜像请求完成后名额释放
+        mirrorResponse.tryEmitEmpty();
+        await(() -> count("sent") == 2);
+        filter.filter(exchange(MockServerHttpRequest.get("/provider/hello?i=5")), chain()).block();
+        await(() -> count("sent") == 3);
+        assertEquals(List.of("GET /provider/hello?i=0 true ", "GET /provider/hello?i=1 true ",
+                "GET /provider/hello?i=5 true "), mirrored);
+    }
+
+    @Test
+    void mirroredRequestIsNotMirroredAgain() {
+        mirrorResponse.tryEmitEmpty();
+        GatewayFilter filter = newFilter("http://127.0.0.1:" + mirrorTarget.port(), 100, Duration.ofSeconds(5));
+
+        MockServerWebExchange loop = exchange(MockServerHttpRequest.get("/provider/hello")
+                .header(MirrorGatewayFilterFactory.MIRROR_HEADER, "true"));
+        filter.filter(loop, chain()).block();
+        assertEquals(HttpStatus.OK, loop.getResponse().getStatusCode());
+
+        // 带请求体的请求：主链路读取请求体时复制，完成后发出镜像
+        MockServerWebExchange post = exchange(post("{\"count\":1}"));
+        filter.filter(post, chain()).block();
+        await(() -> count("sent") == 1);
+        assertEquals(List.of("POST /provider/order/create true {\"count\":1}"), mirrored);
+    }
+
+    @Test
+    void publicMirrorHeaderNeverReachesPrimaryUpstream() {
+        mirrorResponse.tryEmitEmpty();
+        GatewayFilter filter = newFilter("http://127.0.0.1:" + mirrorTarget.port(), 100, Duration.ofSeconds(5));
+        JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter();
+
+        // 公网端口进入的请求自带 X-Mirror-Request：在边缘被移除，主链路不带该请求头，且照常镜像
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.post("/provider/auth/login")
+                .header(MirrorGatewayFilterFactory.MIRROR_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(2)
+                .body("{}"));
+        List<String> upstream = new CopyOnWriteArrayList<>();
+        jwtFilter.filter(exchange, ex -> filter.filter(ex, primary -> {
+            upstream.add(String.valueOf(primary.getRequest().getHeaders().get(MirrorGatewayFilterFactory.MIRROR_HEADER)));
+            return chain().filter(primary);
+        })).block();
+
+        assertEquals(List.of("null"), upstream);
+        await(() -> count("sent") == 1);
+        assertEquals(List.of("POST /provider/auth/login true {}"), mirrored);
+    }
+
+    @Test
+    void mirrorFailureDoesNotAffectPrimary() {
+        // 连接被拒绝的目标、迟迟不响应的目标（超时）：主链路都照常完成，且不等待镜像请求
+        DisposableServer closed = HttpServer.create().host("127.0.0.1").port(0).bindNow();
+        int closedPort = closed.port();
+        closed.disposeNow();
+        for (String target : List.of("http://127.0.0.1:" + closedPort, "http://127.0.0.1:" + mirrorTarget.port())) {
+            GatewayFilter filter = newFilter(target, 100, Duration.ofMillis(300));
+            long start = System.nanoTime();
+            MockServerWebExchange exchange = exchange(post("{\"count\":1}"));
+            filter.filter(exchange, chain()).block(Duration.ofSeconds(1));
+            assertTrue(System.nanoTime() - start < Duration.ofMillis(300).toNanos());
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals("{\"count\":1}", exchange.getResponse().getBodyAsString().block());
+        }
+        await(() -> count("failed") == 2);
+        assertEquals(0, count("sent"));
+    }
+
+    private GatewayFilter newFilter(String uri, int maxInFlight, Duration timeout) {
+        MirrorGatewayFilterFactory.Config config = new MirrorGatewayFilterFactory.Config();
+        config.setUri(uri);
+        config.setFraction(1);
+        config.setMaxInFlight(maxInFlight);
+        config.setTimeout(timeout);
+        config.setRouteId("service-provider");
+        return factory.apply(config);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static MockServerHttpRequest post(String body) {
+        return MockServerHttpRequest.post("/provider/order/create")
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.getBytes(StandardCharsets.UTF_8).length)
+                .body(body);
+    }
+
+    /**
+     * 主链路：读取请求体并原样返回
+     */
+    private static GatewayFilterChain chain() {
+        return exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+                .map(buffer -> {
+                    String body = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return body;
+                })
+                .defaultIfEmpty("")
+                .flatMap(body -> write(exchange.getResponse(), body));
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, String body) {
+        response.setStatusCode(HttpStatus.OK);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.mirror.requests").tag("route", "service-provider").tag("result", result)
+                .counter().count();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "等待超时");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
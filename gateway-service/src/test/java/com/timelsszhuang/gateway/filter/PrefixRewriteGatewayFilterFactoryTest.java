@@ -0,0 +1,55 @@
+package com.timelsszhuang.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * PrefixRewrite 与 RewritePath 行为一致性测试
+ *
+ * @author timelsszhuang
+ */
+class PrefixRewriteGatewayFilterFactoryTest {
+
+    private static final List<String> URIS = List.of(
+            "/provider/order/create",
+            "/provider/seata-order/ORD001/complete?force=true&reason=a%20b",
+            "/provider/",
+            "/provider",
+            "/provider/user/%E5%BC%A0%E4%B8%89",
+            "/providers/order",
+            "/consumer/hello?name=x");
+
+    @Test
+    void rewritesSameAsRegex() {
+        GatewayFilter regex = new RewritePathGatewayFilterFactory()
+                .apply(c -> c.setRegexp("/provider/(?<segment>.*)").setReplacement("/api/${segment}"));
+        PrefixRewriteGatewayFilterFactory.Config config = new PrefixRewriteGatewayFilterFactory.Config();
+        config.setFromPrefix("/provider/");
+        config.setToPrefix("/api/");
+        GatewayFilter prefix = new PrefixRewriteGatewayFilterFactory().apply(config);
+
+        for (String uri : URIS) {
+            assertEquals(rewrite(regex, uri), rewrite(prefix, uri), uri);
+        }
+    }
+
+    private static URI rewrite(GatewayFilter filter, String uri) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+        AtomicReference<URI> result = new AtomicReference<>();
+        filter.filter(exchange, ex -> {
+            result.set(ex.getRequest().getURI());
+            return Mono.empty();
+        }).block();
+        return result.get();
+    }
+}
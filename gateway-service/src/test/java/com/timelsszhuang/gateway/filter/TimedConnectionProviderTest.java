@@ -0,0 +1,80 @@
+package com.timelsszhuang.gateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 获取连接耗时按结果（成功 / 失败 / 取消）分别记录，每次获取只记录一次
+ *
+ * @author timelsszhuang
+ */
+class TimedConnectionProviderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConnectionProvider delegate = mock(ConnectionProvider.class);
+    private final TimedConnectionProvider provider;
+
+    TimedConnectionProviderTest() {
+        when(delegate.name()).thenReturn("route-service-provider");
+        provider = new TimedConnectionProvider(delegate, meterRegistry);
+    }
+
+    @Test
+    void recordsEachOutcome() {
+        acquireReturns(Mono.just(mock(Connection.class)));
+        acquire().block();
+        acquire().block();
+
+        acquireReturns(Mono.error(new TimeoutException("Pool#acquire(Duration) has been pending for more than 5s")));
+        assertThrows(RuntimeException.class, () -> acquire().block());
+
+        // 排队中请求被取消（客户端断开）
+        acquireReturns(Mono.never());
+        Disposable pending = acquire().subscribe();
+        pending.dispose();
+        pending.dispose();
+
+        assertEquals(2, count("success"));
+        assertEquals(1, count("error"));
+        assertEquals(1, count("cancel"));
+    }
+
+    @Test
+    void cancelAfterConnectionNotCounted() {
+        acquireReturns(Mono.just(mock(Connection.class)));
+        // 获取成功后取消（下游只取第一个元素）不再记为 cancel
+        acquire().flux().take(1).blockLast();
+        assertEquals(1, count("success"));
+        assertEquals(0, count("cancel"));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void acquireReturns(Mono<? extends Connection> result) {
+        when(delegate.acquire(any(), any(), any(), any())).thenReturn((Mono) result);
+    }
+
+    private Mono<? extends Connection> acquire() {
+        return provider.acquire(null, null, () -> InetSocketAddress.createUnresolved("127.0.0.1", 8081), null);
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.get(TimedConnectionProvider.ACQUIRE_TIMER)
+                .tag(TimedConnectionProvider.POOL_TAG, "route-service-provider")
+                .tag(TimedConnectionProvider.OUTCOME_TAG, outcome)
+                .timer().count();
+    }
+}
@@ -0,0 +1,123 @@
+package com.timelsszhuang.gateway.route;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.factory.AddRequestHeaderGatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 增量路由构建：未变化的路由复用上一次的 Route，变化的路由重建，删除的路由移除
+ *
+ * @author timelsszhuang
+ */
+class IncrementalRouteDefinitionRouteLocatorTest {
+
+    private final List<RouteDefinition> definitions = new ArrayList<>();
+    private final GatewayProperties gatewayProperties = new GatewayProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IncrementalRouteDefinitionRouteLocator locator;
+
+    IncrementalRouteDefinitionRouteLocatorTest() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("conversionService", new DefaultFormattingConversionService());
+        beanFactory.registerSingleton("validator", new Validator() {
+            @Override
+            public boolean supports(Class<?> clazz) {
+                return true;
+            }
+
+            @Override
+            public void validate(Object target, Errors errors) {
+            }
+        });
+        ConfigurationService configurationService = new ConfigurationService(beanFactory,
+                beanFactory.getBeanProvider(ConversionService.class), beanFactory.getBeanProvider(Validator.class));
+        locator = new IncrementalRouteDefinitionRouteLocator(() -> Flux.fromIterable(List.copyOf(definitions)),
+                List.of(new PathRoutePredicateFactory()), List.of(new AddRequestHeaderGatewayFilterFactory()),
+                gatewayProperties, configurationService, meterRegistry);
+    }
+
+    @Test
+    void reusesUnchangedAndRebuildsChanged() {
+        definitions.add(definition("service-provider", "/provider/**", "X-Version, v1"));
+        definitions.add(definition("service-consumer", "/consumer/**", "X-Version, v1"));
+        definitions.add(definition("legacy", "/legacy/**", "X-Version, v1"));
+        Map<String, Route> first = refresh();
+        assertEquals(3, first.size());
+
+        // 定义不变（新的 RouteDefinition 实例，内容相同）：全部复用
+        definitions.clear();
+        definitions.add(definition("service-provider", "/provider/**", "X-Version, v1"));
+        definitions.add(definition("service-consumer", "/consumer/**", "X-Version, v1"));
+        definitions.add(definition("legacy", "/legacy/**", "X-Version, v1"));
+        Map<String, Route> second = refresh();
+        first.forEach((id, route) -> assertSame(route, second.get(id)));
+
+        // 修改一个过滤器参数、删除一个路由：只重建被修改的路由
+        definitions.set(1, definition("service-consumer", "/consumer/**", "X-Version, v2"));
+        definitions.remove(2);
+        Map<String, Route> third = refresh();
+        assertEquals(List.of("service-provider", "service-consumer"), List.copyOf(third.keySet()));
+        assertSame(first.get("service-provider"), third.get("service-provider"));
+        assertNotSame(first.get("service-consumer"), third.get("service-consumer"));
+
+        assertEquals(3 + 1, count("rebuilt"));
+        assertEquals(3 + 1, count("reused"));
+        assertEquals(1, count("removed"));
+        assertEquals(3, meterRegistry.get("gateway.routes.refresh").timer().count());
+    }
+
+    @Test
+    void defaultFilterChangeRebuildsAll() {
+        definitions.add(definition("service-provider", "/provider/**", "X-Version, v1"));
+        Route first = refresh().get("service-provider");
+
+        gatewayProperties.setDefaultFilters(List.of(new FilterDefinition("AddRequestHeader=X-Gateway, true")));
+        Route second = refresh().get("service-provider");
+        assertNotSame(first, second);
+        assertEquals(2, second.getFilters().size());
+    }
+
+    private Map<String, Route> refresh() {
+        return locator.getRoutes().collect(Collectors.toMap(Route::getId, Function.identity(),
+                (a, b) -> a, LinkedHashMap::new)).block();
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.routes.refresh.routes").tag("result", result).counter().count();
+    }
+
+    private static RouteDefinition definition(String id, String path, String header) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        definition.setUri(URI.create("lb://" + id));
+        definition.getPredicates().add(new PredicateDefinition("Path=" + path));
+        definition.getFilters().add(new FilterDefinition("AddRequestHeader=" + header));
+        return definition;
+    }
+}
@@ -0,0 +1,55 @@
+package com.timelsszhuang.gateway.route;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.http.server.PathContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * RouteIndex 候选路由测试
+ *
+ * @author timelsszhuang
+ */
+class RouteIndexTest {
+
+    @Test
+    void candidatesKeepRouteOrder() {
+        List<Route> routes = new ArrayList<>();
+        List<RouteDefinition> definitions = new ArrayList<>();
+        add(routes, definitions, "seata", "Path=/provider/seata-order/create", "Method=POST");
+        add(routes, definitions, "provider", "Path=/provider/**");
+        add(routes, definitions, "consumer", "Path=/consumer/**,/c/**");
+        add(routes, definitions, "order-detail", "Path=/orders/{id}/detail");
+        add(routes, definitions, "any-host", "Host=**.example.com");
+
+        RouteIndex index = RouteIndex.build(routes, definitions);
+
+        assertEquals(List.of("seata", "provider", "any-host"), ids(index, "/provider/seata-order/create"));
+        assertEquals(List.of("provider", "any-host"), ids(index, "/provider/seata-order/create/x"));
+        assertEquals(List.of("provider", "any-host"), ids(index, "/provider"));
+        assertEquals(List.of("consumer", "any-host"), ids(index, "/c/hello/"));
+        assertEquals(List.of("order-detail", "any-host"), ids(index, "/orders/1/detail"));
+        assertEquals(List.of("any-host"), ids(index, "/providers/order"));
+        assertEquals(1, index.getUnindexedCount());
+    }
+
+    private static void add(List<Route> routes, List<RouteDefinition> definitions, String id, String... predicates) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(id);
+        for (String predicate : predicates) {
+            definition.getPredicates().add(new PredicateDefinition(predicate));
+        }
+        definitions.add(definition);
+        routes.add(Route.async().id(id).uri("http://localhost").predicate(exchange -> true).build());
+    }
+
+    private static List<String> ids(RouteIndex index, String path) {
+        return index.candidates(PathContainer.parsePath(path)).stream().map(Route::getId).toList();
+    }
+}
@@ -0,0 +1,77 @@
+package com.timelsszhuang.gateway.service;
+
+import com.timelsszhuang.gateway.config.CanaryProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 灰度分桶：哈希结果固定、分布均匀、调大比例只新增灰度用户，以及比例的取值范围
+ *
+ * @author timelsszhuang
+ */
+class CanaryRoutingServiceTest {
+
+    private static final String SERVICE = "service-provider";
+    private static final int USERS = 100_000;
+
+    private final CanaryRoutingService service = new CanaryRoutingService(new CanaryProperties());
+
+    @Test
+    void bucketsAreStableAndUniform() {
+        // 固定值：改动哈希会让已有灰度用户整体漂移
+        assertEquals(534, CanaryRoutingService.bucket(SERVICE, "alice"));
+        assertEquals(8111, CanaryRoutingService.bucket(SERVICE, "bob"));
+
+        int[] counts = new int[10];
+        IntStream.range(0, USERS).forEach(i -> counts[CanaryRoutingService.bucket(SERVICE, "user" + i) / 1000]++);
+        for (int count : counts) {
+            assertEquals(USERS / 10.0, count, USERS / 100.0);
+        }
+    }
+
+    @Test
+    void raisingWeightOnlyAddsUsers() {
+        service.setWeight(SERVICE, 5);
+        boolean[] before = new boolean[USERS];
+        int canary = 0;
+        for (int i = 0; i < USERS; i++) {
+            before[i] = service.isCanary(SERVICE, "user" + i);
+            canary += before[i] ? 1 : 0;
+        }
+        assertEquals(USERS * 0.05, canary, USERS * 0.005);
+
+        service.setWeight(SERVICE, 10);
+        for (int i = 0; i < USERS; i++) {
+            if (before[i]) {
+                assertTrue(service.isCanary(SERVICE, "user" + i), "user" + i);
+            }
+        }
+        assertFalse(service.isCanary(SERVICE, null));
+        assertFalse(service.isCanary("service-consumer", "user1"));
+    }
+
+    @Test
+    void weightBounds() {
+        service.setWeight(SERVICE, 0);
+        assertTrue(IntStream.range(0, 1000).noneMatch(i -> service.isCanary(SERVICE, "user" + i)));
+        service.setWeight(SERVICE, 100);
+        assertTrue(IntStream.range(0, 1000).allMatch(i -> service.isCanary(SERVICE, "user" + i)));
+
+        assertThrows(IllegalArgumentException.class, () -> service.setWeight(SERVICE, -0.01));
+        assertThrows(IllegalArgumentException.class, () -> service.setWeight(SERVICE, 100.01));
+        assertThrows(IllegalArgumentException.class, () -> service.setWeight(SERVICE, Double.NaN));
+        assertEquals(100, service.getRule(SERVICE).getWeight());
+
+        CanaryProperties properties = new CanaryProperties();
+        CanaryProperties.Rule rule = new CanaryProperties.Rule();
+        rule.setWeight(150);
+        properties.getServices().put(SERVICE, rule);
+        assertThrows(IllegalArgumentException.class, () -> new CanaryRoutingService(properties));
+    }
+}
@@ -0,0 +1,48 @@
+package com.timelsszhuang.gateway.service;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayRuleManager;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 网关预热测试：Sentinel 资源预热不占用网关流控配额
+ *
+ * @author timelsszhuang
+ */
+class GatewayWarmupServiceTest {
+
+    private static final String RESOURCE = "warmup-test";
+
+    @AfterEach
+    void clearRules() {
+        GatewayRuleManager.loadRules(Set.of());
+    }
+
+    @Test
+    void sentinelWarmupDoesNotConsumeGatewayFlowQuota() throws BlockException {
+        GatewayRuleManager.loadRules(Set.of(new GatewayFlowRule(RESOURCE).setCount(1).setIntervalSec(60)));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, GatewayWarmupService.enterSentinel(RESOURCE));
+        }
+
+        // 预热之后，按 SentinelGatewayFilter 的方式带参数进入：配额仍在，第一个请求通过，第二个被限流
+        Object[] params = {SentinelGatewayConstants.GATEWAY_DEFAULT_PARAM};
+        Entry entry = SphU.entry(RESOURCE, ResourceTypeConstants.COMMON_API_GATEWAY, EntryType.IN, params);
+        entry.exit(1, params);
+        assertThrows(BlockException.class,
+                () -> SphU.entry(RESOURCE, ResourceTypeConstants.COMMON_API_GATEWAY, EntryType.IN, params));
+    }
+}
@@ -0,0 +1,99 @@
+package com.timelsszhuang.gateway.service;
+
+import com.timelsszhuang.auth.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 吊销条目的去重与过期清理
+ *
+ * @author timelsszhuang
+ */
+class TokenRevocationServiceTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final TokenRevocationService service = new TokenRevocationService();
+
+    TokenRevocationServiceTest() {
+        ReflectionTestUtils.setField(service, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(service, "expectedEntries", 1000);
+    }
+
+    @AfterEach
+    void close() {
+        jwtUtil.close();
+    }
+
+    @Test
+    void deduplicatesAndSkipsUnusableTokens() {
+        String token = jwtUtil.generateToken("alice");
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        String expired = jwtUtil.getKeyRegistry().sign(Jwts.builder().setSubject("bob")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))).compact();
+
+        Map<String, Object> stats = service.revoke(List.of(token, token, signature, expired, "a.b.forged-signature-xxxxxx", "short"));
+        // 重复的 Token 和它的签名段合并为一个条目，过期、伪造和过短的条目不生效
+        assertEquals(3, stats.get("accepted"));
+        assertEquals(1, stats.get("entries"));
+        assertTrue(service.isRevoked(token));
+
+        service.revoke(List.of(token));
+        assertEquals(1, service.getStats().get("entries"));
+    }
+
+    @Test
+    void purgesEntriesAfterTokenExpiry() {
+        // 只有签名段时按 max-token-ttl 计算失效时间，按小时向上取整后清理
+        ReflectionTestUtils.setField(service, "maxTokenTtl", Duration.ofMillis(50));
+        String token = jwtUtil.generateToken("alice");
+        service.revoke(List.of(token.substring(token.lastIndexOf('.') + 1)));
+        assertTrue(service.isRevoked(token));
+
+        service.purgeExpired(System.currentTimeMillis());
+        assertTrue(service.isRevoked(token));
+        service.purgeExpired(System.currentTimeMillis() + Duration.ofHours(2).toMillis());
+        assertFalse(service.isRevoked(token));
+        assertEquals(0, service.getStats().get("entries"));
+    }
+
+    @Test
+    void mergesPendingEntriesInBatches() {
+        List<String> signatures = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            byte[] bytes = new byte[32];
+            random.nextBytes(bytes);
+            signatures.add(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes));
+        }
+        // 逐个追加只重建待合并列表，超过上限（4096）后并入追加条目列表
+        for (String signature : signatures.subList(0, 4000)) {
+            service.revoke(List.of(signature));
+        }
+        assertEquals(4000, service.getStats().get("pendingEntries"));
+        service.revoke(signatures.subList(4000, 5000));
+        assertEquals(0, service.getStats().get("pendingEntries"));
+        assertEquals(5000, service.getStats().get("entries"));
+        signatures.forEach(signature -> assertTrue(service.isRevoked("a.b." + signature)));
+
+        // 清理时同样合并，已在列表中的条目不重复追加
+        service.revoke(signatures.subList(0, 10));
+        service.revoke(List.of(signatures.get(0).replace(signatures.get(0).charAt(0), '_') + "x"));
+        service.purgeExpired();
+        assertEquals(5001, service.getStats().get("entries"));
+        assertEquals(0, service.getStats().get("pendingEntries"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.timelsszhuang.gateway.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 请求ID在同步订阅和异步回调中都能通过 MDC 获取，且不会残留在线程上
+ *
+ * @author timelsszhuang
+ */
+class RequestLogContextTest {
+
+    @Test
+    void propagatesToMdcOnlyWhereScoped() {
+        AtomicReference<String> onSubscribe = new AtomicReference<>();
+        AtomicReference<String> inCallback = new AtomicReference<>();
+        AtomicReference<String> callbackUser = new AtomicReference<>();
+        AtomicReference<String> callbackThread = new AtomicReference<>();
+        AtomicReference<String> afterCallback = new AtomicReference<>("unset");
+
+        Mono<Void> chain = Mono.defer(() -> {
+                    // 相当于下游过滤器 filter() 方法中的同步日志
+                    onSubscribe.set(MDC.get(RequestLogContext.REQUEST_ID));
+                    return Mono.delay(Duration.ofMillis(10), Schedulers.parallel());
+                })
+                .then(RequestLogContext.run(() -> {
+                    inCallback.set(MDC.get(RequestLogContext.REQUEST_ID));
+                    callbackUser.set(MDC.get(RequestLogContext.USERNAME));
+                    callbackThread.set(Thread.currentThread().getName());
+                }))
+                .then(Mono.fromRunnable(() -> afterCallback.set(MDC.get(RequestLogContext.REQUEST_ID))));
+
+        RequestLogContext.with(RequestLogContext.REQUEST_ID, "req-1",
+                RequestLogContext.with(RequestLogContext.USERNAME, "alice", chain)).block();
+
+        assertEquals("req-1", onSubscribe.get());
+        assertEquals("req-1", inCallback.get());
+        assertEquals("alice", callbackUser.get());
+        assertEquals(true, callbackThread.get().startsWith("parallel"));
+        // 未使用 run 的操作符不恢复 MDC，run 执行后也不残留
+        assertNull(afterCallback.get());
+        assertNull(MDC.get(RequestLogContext.REQUEST_ID));
+    }
+}
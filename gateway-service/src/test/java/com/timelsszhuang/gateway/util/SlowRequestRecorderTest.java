@@ -0,0 +1,73 @@
+package com.timelsszhuang.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 最慢请求的准入、窗口滚动和错误环形缓冲区
+ *
+ * @author timelsszhuang
+ */
+class SlowRequestRecorderTest {
+
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(5);
+
+    @Test
+    void keepsSlowestPerWindow() throws InterruptedException {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(3, WINDOW, 2, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(1000);
+        for (long duration = 1; duration <= 1000; duration++) {
+            long d = duration;
+            executor.execute(() -> {
+                if (recorder.isSlow(d, 1)) {
+                    recorder.recordSlow(entry(d), 1);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(List.of(1000L, 999L, 998L), durations(recorder.getSlowest(2)));
+        assertFalse(recorder.isSlow(998, 2));
+        assertTrue(recorder.isSlow(999, 2));
+
+        // 下一个窗口重新准入，查询仍包含上一个窗口
+        assertTrue(recorder.isSlow(1, WINDOW + 1));
+        recorder.recordSlow(entry(5000), WINDOW + 1);
+        assertEquals(List.of(5000L, 1000L, 999L), durations(recorder.getSlowest(WINDOW + 2)));
+
+        // 中间隔了空窗口时，上一个窗口视为空
+        assertEquals(List.of(), recorder.getSlowest(4 * WINDOW));
+    }
+
+    @Test
+    void keepsMostRecentErrors() {
+        SlowRequestRecorder recorder = new SlowRequestRecorder(3, WINDOW, 2, 0);
+        LongStream.rangeClosed(1, 5).forEach(d -> recorder.recordError(entry(d)));
+        assertEquals(List.of(5L, 4L), durations(recorder.getErrors()));
+        assertEquals(5L, recorder.getStats(0).get("errorsRecorded"));
+    }
+
+    private static SlowRequestRecorder.Entry entry(long durationNanos) {
+        return new SlowRequestRecorder.Entry(0, "r" + durationNanos, null, "GET", "/provider/hello",
+                "service-provider", "http://127.0.0.1:8081", 200, null, durationNanos,
+                Map.of("gateway", durationNanos));
+    }
+
+    private static List<Long> durations(List<SlowRequestRecorder.Entry> entries) {
+        return entries.stream().map(SlowRequestRecorder.Entry::durationNanos).toList();
+    }
+}
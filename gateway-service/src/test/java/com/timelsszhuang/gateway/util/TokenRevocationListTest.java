@@ -0,0 +1,108 @@
+package com.timelsszhuang.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 吊销列表：无漏判、Bloom 误判由精确集合兜底、完整 Token 与签名段等价、非法条目被忽略
+ *
+ * @author timelsszhuang
+ */
+class TokenRevocationListTest {
+
+    private static final Random random = new Random(42);
+
+    @Test
+    void revokedTokensAreFoundAndOthersAreNot() {
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            revoked.add(signature());
+        }
+        // 过滤器按 100 个条目设计，实际 1 万个：Bloom 几乎全满，只能靠精确集合判定
+        TokenRevocationList list = TokenRevocationList.build(revoked, 100, 0.01);
+        assertEquals(revoked.size(), list.size());
+        revoked.forEach(signature -> assertTrue(list.isRevoked("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ4In0." + signature)));
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(list.isRevoked("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJ4In0." + signature()));
+        }
+    }
+
+    @Test
+    void matchesBySignaturePrefix() {
+        String signature = signature();
+        TokenRevocationList list = TokenRevocationList.build(List.of("a.b." + signature), 10, 0.01);
+        assertTrue(list.isRevoked(signature));
+        assertTrue(list.isRevoked(signature.substring(0, 20)));
+        assertFalse(list.isRevoked(signature.substring(0, 19)));
+        assertFalse(list.isRevoked(null));
+    }
+
+    @Test
+    void ignoresMalformedEntries() {
+        TokenRevocationList list = TokenRevocationList.build(List.of("short", "a.b.c", "!!!!!!!!!!!!!!!!!!!!!!!!"), 10, 0.01);
+        assertEquals(0, list.size());
+        assertFalse(list.isRevoked("a.b." + signature()));
+        assertFalse(TokenRevocationList.empty().isRevoked("a.b." + signature()));
+    }
+
+    @Test
+    void mergeDropsExpiredEntriesAndKeepsLatestExpiry() {
+        long now = System.currentTimeMillis();
+        long hour = 3_600_000L;
+        String shortLived = signature();
+        String longLived = signature();
+        String extended = signature();
+        String permanent = signature();
+        TokenRevocationList.Builder first = new TokenRevocationList.Builder();
+        first.add(TokenRevocationList.fingerprint(shortLived), now + 1000);
+        first.add(TokenRevocationList.fingerprint(longLived), now + 5 * hour);
+        first.add(TokenRevocationList.fingerprint(extended), now + 1000);
+        TokenRevocationList.Builder second = new TokenRevocationList.Builder();
+        second.add(TokenRevocationList.fingerprint(extended), now + 5 * hour);
+        second.add(TokenRevocationList.fingerprint(permanent), Long.MAX_VALUE);
+        assertFalse(second.add(TokenRevocationList.fingerprint("short"), now + hour));
+
+        TokenRevocationList merged = first.build(10, 0.01).merge(second.build(10, 0.01), now, 10, 0.01);
+        assertEquals(4, merged.size());
+
+        // 两小时后：只保留失效时间更晚的条目，同一指纹取较晚的失效时间
+        TokenRevocationList purged = merged.merge(TokenRevocationList.empty(), now + 2 * hour, 10, 0.01);
+        assertEquals(3, purged.size());
+        assertFalse(purged.isRevoked(shortLived));
+        assertTrue(purged.isRevoked(longLived));
+        assertTrue(purged.isRevoked(extended));
+        assertTrue(purged.isRevoked(permanent));
+
+        TokenRevocationList later = purged.merge(TokenRevocationList.empty(), now + 10 * hour, 10, 0.01);
+        assertEquals(1, later.size());
+        assertTrue(later.isRevoked(permanent));
+    }
+
+    @Test
+    void usesAboutNineBytesPerEntry() {
+        List<String> revoked = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            revoked.add(signature());
+        }
+        TokenRevocationList list = TokenRevocationList.build(revoked, revoked.size(), 0.01);
+        assertEquals(revoked.size(), list.size());
+        assertTrue(list.getMemoryBytes() < revoked.size() * 9.5, "memoryBytes=" + list.getMemoryBytes());
+    }
+
+    /**
+     * 与 HS256 签名段形状相同的随机值（32 字节，base64url 无填充）
+     */
+    private static String signature() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -1,5 +1,8 @@
 package com.timelsszhuang.consumer;
 
+import com.timelsszhuang.consumer.config.IdentityAssertionForwardingInterceptor;
+import com.timelsszhuang.trace.TracingClientHttpRequestInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
@@ -20,16 +23,23 @@ public class ServiceConsumerApplication {
      */
     @Bean("loadBalancedRestTemplate")
     @LoadBalanced
-    public RestTemplate loadBalancedRestTemplate() {
-        return new RestTemplate();
+    public RestTemplate loadBalancedRestTemplate(ObjectProvider<TracingClientHttpRequestInterceptor> tracing) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new IdentityAssertionForwardingInterceptor());
+        tracing.ifAvailable(restTemplate.getInterceptors()::add);
+        return restTemplate;
     }
 
     /**
      * 普通 RestTemplate，用于直接调用 IP:PORT（如 http://127.0.0.1:8085/...）
      */
     @Bean("plainRestTemplate")
-    public RestTemplate plainRestTemplate() {
-        return new RestTemplate();
+    public RestTemplate plainRestTemplate(ObjectProvider<TracingClientHttpRequestInterceptor> tracing) {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new IdentityAssertionForwardingInterceptor());
+        // 调用经网关到 provider，traceparent 串起 consumer -> gateway -> provider 的 Span
+        tracing.ifAvailable(restTemplate.getInterceptors()::add);
+        return restTemplate;
     }
 
 }
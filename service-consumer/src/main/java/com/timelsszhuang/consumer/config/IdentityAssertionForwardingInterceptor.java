@@ -0,0 +1,40 @@
+package com.timelsszhuang.consumer.config;
+
+import com.timelsszhuang.auth.IdentityAssertion;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+/**
+ * 转发网关签发的身份断言
+ *
+ * 当前请求带有 X-Identity-Assertion 时，经 RestTemplate 发出的调用（经网关到 provider）原样携带。
+ * 只有调用网关的内部监听端口（gateway.url 指向 gateway.internal.port）时，网关才校验断言放行，
+ * 不必再解析 Authorization 中的 JWT；公网端口会移除断言并校验 JWT
+ *
+ * @author timelsszhuang
+ */
+public class IdentityAssertionForwardingInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes
+                && !request.getHeaders().containsKey(IdentityAssertion.HEADER)) {
+            HttpServletRequest current = servletAttributes.getRequest();
+            String assertion = current.getHeader(IdentityAssertion.HEADER);
+            if (assertion != null) {
+                request.getHeaders().set(IdentityAssertion.HEADER, assertion);
+            }
+        }
+        return execution.execute(request, body);
+    }
+}
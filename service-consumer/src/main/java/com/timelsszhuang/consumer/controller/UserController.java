@@ -1,6 +1,7 @@
 package com.timelsszhuang.consumer.controller;
 
-import com.timelsszhuang.consumer.util.JwtUtil;
+import com.timelsszhuang.auth.IdentityAssertion;
+import com.timelsszhuang.auth.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +25,9 @@ public class UserController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired(required = false)
+    private IdentityAssertion identityAssertion;
+
     /**
      * 用户登录
      */
@@ -141,10 +145,19 @@ public class UserController {
      * 验证 Token
      */
     @GetMapping("/validate-token")
-    public Map<String, Object> validateToken(@RequestHeader("Authorization") String authHeader) {
+    public Map<String, Object> validateToken(@RequestHeader("Authorization") String authHeader,
+                                             @RequestHeader(value = IdentityAssertion.HEADER, required = false) String assertion) {
         Map<String, Object> response = new HashMap<>();
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+        // 经网关的请求带有网关签发的身份断言，网关已校验过 Token（含吊销），只需校验断言的 MAC，
+        // 并确认断言是为本次携带的 Token 签发的
+        IdentityAssertion.Identity identity = identityAssertion != null ? identityAssertion.verify(assertion) : null;
+        if (identity != null && authHeader != null && authHeader.startsWith("Bearer ")
+                && identity.isIssuedFor(authHeader.substring(7))) {
+            response.put("code", 200);
+            response.put("message", "Token 有效");
+            response.put("data", Map.of("valid", true, "username", identity.username()));
+        } else if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
             if (jwtUtil.validateToken(token)) {
@@ -1,141 +0,0 @@
-package com.timelsszhuang.provider.util;
-
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.stereotype.Component;
-
-import java.security.Key;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-
-/**
- * JWT 工具类
- * 用于生成和验证 JWT Token
- *
- * @author timelsszhuang
- */
-@Component
-public class JwtUtil {
-
-    // JWT 密钥（必须与 Gateway 中的密钥保持一致）
-    private static final String SECRET_KEY = "MySecretKeyForSpringCloudGatewayJwtAuthenticationAndAuthorization2024";
-
-    // Token 有效期：24小时
-    private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000;
-
-    // Token 前缀
-    public static final String TOKEN_PREFIX = "Bearer ";
-
-    // Header key
-    public static final String HEADER_STRING = "Authorization";
-
-    private final Key key;
-
-    public JwtUtil() {
-        this.key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
-    }
-
-    /**
-     * 生成 Token
-     *
-     * @param username 用户名
-     * @return Token字符串
-     */
-    public String generateToken(String username) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("username", username);
-        return createToken(claims, username);
-    }
-
-    /**
-     * 生成 Token（带额外信息）
-     *
-     * @param username 用户名
-     * @param extraClaims 额外信息
-     * @return Token字符串
-     */
-    public String generateToken(String username, Map<String, Object> extraClaims) {
-        Map<String, Object> claims = new HashMap<>(extraClaims);
-        claims.put("username", username);
-        return createToken(claims, username);
-    }
-
-    /**
-     * 创建 Token
-     */
-    private String createToken(Map<String, Object> claims, String subject) {
-        Date now = new Date();
-        Date expiration = new Date(now.getTime() + EXPIRATION_TIME);
-
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(now)
-                .setExpiration(expiration)
-                .signWith(key, SignatureAlgorithm.HS256)
-                .compact();
-    }
-
-    /**
-     * 验证 Token
-     *
-     * @param token Token字符串
-     * @return 是否有效
-     */
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    /**
-     * 从 Token 中获取用户名
-     *
-     * @param token Token字符串
-     * @return 用户名
-     */
-    public String getUsernameFromToken(String token) {
-        Claims claims = getAllClaimsFromToken(token);
-        return claims.getSubject();
-    }
-
-    /**
-     * 从 Token 中获取所有声明
-     *
-     * @param token Token字符串
-     * @return Claims
-     */
-    public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * 检查 Token 是否过期
-     *
-     * @param token Token字符串
-     * @return 是否过期
-     */
-    public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            Date expiration = claims.getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            return true;
-        }
-    }
-}
-
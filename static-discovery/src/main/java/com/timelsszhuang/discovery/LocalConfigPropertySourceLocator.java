@@ -0,0 +1,49 @@
+package com.timelsszhuang.discovery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.bootstrap.config.PropertySourceLocator;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 本地配置文件属性源（代替 NacosPropertySourceLocator）
+ *
+ * 与 Nacos 配置一样在引导阶段加载，优先级高于 application.yml；每次 RefreshEvent 都会重新读取文件，
+ * 因此 LocalConfigWatcher 只需在文件修改后发布 RefreshEvent。文件不存在时返回空属性源
+ *
+ * @author timelsszhuang
+ */
+public class LocalConfigPropertySourceLocator implements PropertySourceLocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalConfigPropertySourceLocator.class);
+
+    public static final String FILE_PROPERTY = "static.config.file";
+    private static final String NAME = "localConfig";
+
+    @Override
+    public PropertySource<?> locate(Environment environment) {
+        CompositePropertySource composite = new CompositePropertySource(NAME);
+        String location = environment.getProperty(FILE_PROPERTY);
+        if (location == null || location.isBlank()) {
+            return composite;
+        }
+        Path file = Path.of(location);
+        if (!Files.exists(file)) {
+            logger.info("本地配置文件不存在，跳过: {}", file);
+            return composite;
+        }
+        try {
+            PropertyFiles.load(NAME + "-" + file, file).forEach(composite::addPropertySource);
+        } catch (IOException | RuntimeException e) {
+            // 启动时直接失败；刷新时由 ContextRefresher 记录错误并保留当前配置
+            throw new IllegalStateException("本地配置文件加载失败: " + file + ", " + e.getMessage(), e);
+        }
+        return composite;
+    }
+}
@@ -0,0 +1,85 @@
+package com.timelsszhuang.discovery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.endpoint.event.RefreshEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地配置文件监听
+ *
+ * 代替 Nacos 配置中心的动态刷新：文件修改后发布 RefreshEvent，由 Spring Cloud 重新加载环境
+ * （LocalConfigPropertySourceLocator 重新读取文件）并刷新 @RefreshScope / @ConfigurationProperties Bean。
+ * 文件不存在时视为空配置，之后创建文件同样会触发刷新
+ *
+ * @author timelsszhuang
+ */
+public class LocalConfigWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalConfigWatcher.class);
+
+    private final Path file;
+    private final ApplicationEventPublisher publisher;
+
+    private long lastModified;
+    private ScheduledExecutorService watcher;
+
+    public LocalConfigWatcher(Path file, ApplicationEventPublisher publisher) {
+        this.file = file;
+        this.publisher = publisher;
+    }
+
+    public synchronized void watch(long reloadIntervalSeconds) {
+        this.lastModified = lastModified();
+        if (reloadIntervalSeconds > 0 && watcher == null) {
+            watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "local-config-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::refreshIfModified,
+                    reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        }
+        logger.info("监听本地配置文件: file={}, exists={}", file, Files.exists(file));
+    }
+
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    private void refreshIfModified() {
+        long modified = lastModified();
+        if (modified == lastModified) {
+            return;
+        }
+        lastModified = modified;
+        logger.info("本地配置文件已修改，刷新配置: {}", file);
+        try {
+            publisher.publishEvent(new RefreshEvent(this, file, "本地配置文件已修改: " + file));
+        } catch (RuntimeException e) {
+            logger.error("配置刷新失败: file={}, error={}", file, e.getMessage());
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            logger.warn("本地配置文件不可读: {}", file);
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.timelsszhuang.discovery;
+
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 按扩展名读取 properties / YAML 文件（与 application.yml 相同的解析规则）
+ *
+ * @author timelsszhuang
+ */
+final class PropertyFiles {
+
+    static List<PropertySource<?>> load(String name, Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        PropertySourceLoader loader = fileName.endsWith(".properties")
+                ? new PropertiesPropertySourceLoader() : new YamlPropertySourceLoader();
+        return loader.load(name, new FileSystemResource(file));
+    }
+
+    private PropertyFiles() {
+    }
+}
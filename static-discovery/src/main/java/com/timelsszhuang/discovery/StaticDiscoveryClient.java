@@ -0,0 +1,42 @@
+package com.timelsszhuang.discovery;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.List;
+
+/**
+ * 基于 StaticServiceRegistry 的服务发现客户端（阻塞式，供 @LoadBalanced RestTemplate 使用）
+ *
+ * @author timelsszhuang
+ */
+public class StaticDiscoveryClient implements DiscoveryClient {
+
+    private final StaticServiceRegistry registry;
+    private final int order;
+
+    public StaticDiscoveryClient(StaticServiceRegistry registry, int order) {
+        this.registry = registry;
+        this.order = order;
+    }
+
+    @Override
+    public String description() {
+        return "Static Discovery Client";
+    }
+
+    @Override
+    public List<ServiceInstance> getInstances(String serviceId) {
+        return registry.getInstances(serviceId.toLowerCase());
+    }
+
+    @Override
+    public List<String> getServices() {
+        return registry.getServices();
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,43 @@
+package com.timelsszhuang.discovery;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * 基于 StaticServiceRegistry 的响应式服务发现客户端（供网关 lb:// 路由使用）
+ *
+ * 实例表在内存中，直接返回，不切换线程
+ *
+ * @author timelsszhuang
+ */
+public class StaticReactiveDiscoveryClient implements ReactiveDiscoveryClient {
+
+    private final StaticServiceRegistry registry;
+    private final int order;
+
+    public StaticReactiveDiscoveryClient(StaticServiceRegistry registry, int order) {
+        this.registry = registry;
+        this.order = order;
+    }
+
+    @Override
+    public String description() {
+        return "Static Reactive Discovery Client";
+    }
+
+    @Override
+    public Flux<ServiceInstance> getInstances(String serviceId) {
+        return Flux.defer(() -> Flux.fromIterable(registry.getInstances(serviceId.toLowerCase())));
+    }
+
+    @Override
+    public Flux<String> getServices() {
+        return Flux.defer(() -> Flux.fromIterable(registry.getServices()));
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+}
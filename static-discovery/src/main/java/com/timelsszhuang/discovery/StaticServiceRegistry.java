@@ -0,0 +1,171 @@
+package com.timelsszhuang.discovery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.PropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 静态服务实例表
+ *
+ * 从本地文件加载各服务的实例列表，代替 Nacos 服务发现（离线启动、压测、边缘部署）。
+ * 文件格式（YAML 或 properties，按扩展名识别，实例字段与 spring.cloud.discovery.client.simple 相同）：
+ * <pre>
+ * services:
+ *   service-provider:
+ *     - uri: http://127.0.0.1:8081
+ *       metadata:
+ *         version: stable
+ *     - uri: http://127.0.0.1:8091
+ *       metadata:
+ *         version: canary
+ *   service-consumer:
+ *     - uri: http://127.0.0.1:8082
+ * </pre>
+ * 文件修改后自动重新加载并通知监听器；加载失败时保留当前实例表
+ *
+ * @author timelsszhuang
+ */
+public class StaticServiceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticServiceRegistry.class);
+
+    private static final String SERVICES_PROPERTY = "services";
+    private static final Bindable<Map<String, List<DefaultServiceInstance>>> SERVICES_TYPE = Bindable.of(
+            ResolvableType.forClassWithGenerics(Map.class, ResolvableType.forClass(String.class),
+                    ResolvableType.forClassWithGenerics(List.class, DefaultServiceInstance.class)));
+
+    private final Path file;
+    private final Runnable changeListener;
+    private volatile Map<String, List<ServiceInstance>> services = Collections.emptyMap();
+
+    private long lastModified;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * @param file           实例列表文件
+     * @param changeListener 重新加载成功后的回调（例如发布 HeartbeatEvent），首次加载不回调
+     */
+    public StaticServiceRegistry(Path file, Runnable changeListener) {
+        this.file = file;
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * 加载实例列表，并按间隔检查文件修改时间自动重新加载
+     *
+     * @throws IllegalStateException 首次加载失败（文件不存在或格式错误），启动时直接报错而不是带着空实例表运行
+     */
+    public synchronized void watch(long reloadIntervalSeconds) {
+        if (!reload()) {
+            throw new IllegalStateException("静态服务实例文件加载失败: " + file);
+        }
+        if (reloadIntervalSeconds > 0 && watcher == null) {
+            watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "static-discovery-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            watcher.scheduleWithFixedDelay(this::reloadIfModified,
+                    reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    /**
+     * 重新加载实例文件，失败时保留当前实例表
+     *
+     * @return 是否加载成功
+     */
+    public synchronized boolean reload() {
+        try {
+            // 先记录修改时间，文件有误时只在每次修改后报错一次
+            this.lastModified = Files.getLastModifiedTime(file).toMillis();
+            this.services = load(file);
+            logger.info("静态服务实例已加载: file={}, services={}", file, summary());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("静态服务实例文件加载失败，保留当前实例: file={}, error={}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    public List<String> getServices() {
+        return new ArrayList<>(services.keySet());
+    }
+
+    public List<ServiceInstance> getInstances(String serviceId) {
+        List<ServiceInstance> instances = services.get(serviceId);
+        return instances != null ? instances : Collections.emptyList();
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (Files.getLastModifiedTime(file).toMillis() != lastModified && reload()) {
+                changeListener.run();
+            }
+        } catch (IOException e) {
+            logger.warn("静态服务实例文件不可读: {}", file);
+        } catch (RuntimeException e) {
+            logger.error("静态服务实例变更通知失败: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Integer> summary() {
+        Map<String, Integer> summary = new LinkedHashMap<>();
+        services.forEach((serviceId, instances) -> summary.put(serviceId, instances.size()));
+        return summary;
+    }
+
+    /**
+     * 解析实例文件，服务名统一小写（与 Nacos / lower-case-service-id 一致）
+     */
+    static Map<String, List<ServiceInstance>> load(Path file) throws IOException {
+        List<PropertySource<?>> sources = PropertyFiles.load(file.getFileName().toString(), file);
+        Map<String, List<DefaultServiceInstance>> bound = new Binder(ConfigurationPropertySources.from(sources))
+                .bind(SERVICES_PROPERTY, SERVICES_TYPE)
+                .orElse(Collections.emptyMap());
+
+        Map<String, List<ServiceInstance>> services = new LinkedHashMap<>();
+        bound.forEach((key, instances) -> {
+            String serviceId = key.toLowerCase();
+            List<ServiceInstance> list = new ArrayList<>(instances.size());
+            for (int i = 0; i < instances.size(); i++) {
+                DefaultServiceInstance instance = instances.get(i);
+                if (instance.getHost() == null) {
+                    throw new IllegalStateException("实例缺少 uri: " + SERVICES_PROPERTY + "." + key + "[" + i + "]");
+                }
+                instance.setServiceId(serviceId);
+                if (instance.getInstanceId() == null) {
+                    instance.setInstanceId(instance.getHost() + ":" + instance.getPort());
+                }
+                list.add(instance);
+            }
+            services.put(serviceId, Collections.unmodifiableList(list));
+        });
+        return Collections.unmodifiableMap(services);
+    }
+}
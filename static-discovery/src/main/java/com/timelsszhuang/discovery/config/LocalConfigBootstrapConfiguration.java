@@ -0,0 +1,23 @@
+package com.timelsszhuang.discovery.config;
+
+import com.timelsszhuang.discovery.LocalConfigPropertySourceLocator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 引导阶段配置：配置了 static.config.file（bootstrap-static.yml）时从本地文件加载配置
+ *
+ * 通过 spring.factories 的 BootstrapConfiguration 注册，只在引导容器中生效
+ *
+ * @author timelsszhuang
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = LocalConfigPropertySourceLocator.FILE_PROPERTY)
+public class LocalConfigBootstrapConfiguration {
+
+    @Bean
+    public LocalConfigPropertySourceLocator localConfigPropertySourceLocator() {
+        return new LocalConfigPropertySourceLocator();
+    }
+}
@@ -0,0 +1,77 @@
+package com.timelsszhuang.discovery.config;
+
+import com.timelsszhuang.discovery.LocalConfigWatcher;
+import com.timelsszhuang.discovery.StaticDiscoveryClient;
+import com.timelsszhuang.discovery.StaticReactiveDiscoveryClient;
+import com.timelsszhuang.discovery.StaticServiceRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 静态服务发现 / 本地配置自动配置
+ *
+ * 配置了 static.discovery.file 时注册基于文件的 DiscoveryClient 与 ReactiveDiscoveryClient，
+ * 网关的 lb:// 路由和 @LoadBalanced RestTemplate 都经过 LoadBalancer 使用它们；实例文件修改后发布 HeartbeatEvent，
+ * 与 Nacos 实例变化一样触发网关路由刷新。配置了 static.config.file 时监听本地配置文件并在修改后刷新配置
+ *
+ * @author timelsszhuang
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(StaticDiscoveryProperties.class)
+public class StaticDiscoveryAutoConfiguration {
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "static.discovery", name = "file")
+    static class DiscoveryConfiguration {
+
+        @Bean(destroyMethod = "close")
+        public StaticServiceRegistry staticServiceRegistry(StaticDiscoveryProperties properties,
+                                                           ApplicationEventPublisher publisher) {
+            AtomicLong version = new AtomicLong();
+            StaticServiceRegistry registry = new StaticServiceRegistry(Path.of(properties.getDiscovery().getFile()),
+                    () -> publisher.publishEvent(new HeartbeatEvent(StaticServiceRegistry.class, version.incrementAndGet())));
+            registry.watch(properties.getReloadInterval());
+            return registry;
+        }
+
+        @Bean
+        public StaticDiscoveryClient staticDiscoveryClient(StaticServiceRegistry registry,
+                                                           StaticDiscoveryProperties properties) {
+            return new StaticDiscoveryClient(registry, properties.getDiscovery().getOrder());
+        }
+
+        @Configuration(proxyBeanMethods = false)
+        @ConditionalOnClass(Flux.class)
+        static class ReactiveDiscoveryConfiguration {
+
+            @Bean
+            public StaticReactiveDiscoveryClient staticReactiveDiscoveryClient(StaticServiceRegistry registry,
+                                                                               StaticDiscoveryProperties properties) {
+                return new StaticReactiveDiscoveryClient(registry, properties.getDiscovery().getOrder());
+            }
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "static.config", name = "file")
+    static class LocalConfigConfiguration {
+
+        @Bean(destroyMethod = "close")
+        public LocalConfigWatcher localConfigWatcher(StaticDiscoveryProperties properties,
+                                                     ApplicationEventPublisher publisher) {
+            LocalConfigWatcher watcher = new LocalConfigWatcher(Path.of(properties.getConfig().getFile()), publisher);
+            watcher.watch(properties.getReloadInterval());
+            return watcher;
+        }
+    }
+}
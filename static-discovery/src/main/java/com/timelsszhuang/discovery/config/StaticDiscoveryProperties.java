@@ -0,0 +1,55 @@
+package com.timelsszhuang.discovery.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 静态服务发现 / 本地配置属性（static profile 中配置）
+ * <pre>
+ * static:
+ *   discovery:
+ *     file: ./config/services.yaml
+ *   config:
+ *     file: ./config/service-provider.yaml
+ *   reload-interval: 5
+ * </pre>
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "static")
+public class StaticDiscoveryProperties {
+
+    private Discovery discovery = new Discovery();
+
+    private Config config = new Config();
+
+    /**
+     * 检查文件修改的间隔（秒），0 表示不自动重新加载
+     */
+    private long reloadInterval = 5;
+
+    @Data
+    public static class Discovery {
+
+        /**
+         * 实例列表文件（格式见 StaticServiceRegistry），为空表示不启用静态服务发现
+         */
+        private String file;
+
+        /**
+         * 在 CompositeDiscoveryClient 中的顺序，越小越优先
+         */
+        private int order = 0;
+    }
+
+    @Data
+    public static class Config {
+
+        /**
+         * 本地配置文件（使用 bootstrap 的服务在 bootstrap-static.yml 中配置，由 LocalConfigPropertySourceLocator 加载；
+         * gateway-service 在 application-static.yml 中通过 spring.config.import 导入），为空表示不启用
+         */
+        private String file;
+    }
+}
@@ -0,0 +1,78 @@
+package com.timelsszhuang.discovery;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 静态服务实例文件解析与重新加载
+ *
+ * @author timelsszhuang
+ */
+class StaticServiceRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadsYamlAndProperties() throws IOException {
+        Path yaml = dir.resolve("services.yaml");
+        Files.writeString(yaml, """
+                services:
+                  Service-Provider:
+                    - uri: http://127.0.0.1:8081
+                      metadata:
+                        version: canary
+                    - uri: https://10.0.0.2:8443
+                  service-consumer:
+                    - uri: http://127.0.0.1:8082
+                """);
+        StaticServiceRegistry registry = new StaticServiceRegistry(yaml, () -> {
+        });
+        registry.watch(0);
+        assertEquals(List.of("service-provider", "service-consumer"), registry.getServices());
+
+        List<ServiceInstance> providers = registry.getInstances("service-provider");
+        assertEquals(2, providers.size());
+        assertEquals("service-provider", providers.get(0).getServiceId());
+        assertEquals("127.0.0.1:8081", providers.get(0).getInstanceId());
+        assertEquals("canary", providers.get(0).getMetadata().get("version"));
+        assertTrue(providers.get(1).isSecure());
+        assertEquals(8443, providers.get(1).getPort());
+        assertTrue(registry.getInstances("unknown").isEmpty());
+
+        Path properties = dir.resolve("services.properties");
+        Files.writeString(properties, "services.service-provider[0].uri=http://127.0.0.1:9000\n");
+        assertEquals(9000, StaticServiceRegistry.load(properties).get("service-provider").get(0).getPort());
+    }
+
+    @Test
+    void keepsInstancesWhenReloadFails() throws IOException {
+        Path file = dir.resolve("services.yaml");
+        assertThrows(IllegalStateException.class, () -> new StaticServiceRegistry(file, () -> {
+        }).watch(0));
+
+        Files.writeString(file, "services:\n  service-provider:\n    - uri: http://127.0.0.1:8081\n");
+        AtomicInteger changes = new AtomicInteger();
+        StaticServiceRegistry registry = new StaticServiceRegistry(file, changes::incrementAndGet);
+        registry.watch(0);
+
+        Files.writeString(file, "services:\n  service-provider:\n    - metadata:\n        version: canary\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1000));
+        assertFalse(registry.reload());
+        assertEquals(8081, registry.getInstances("service-provider").get(0).getPort());
+        assertEquals(0, changes.get());
+    }
+}
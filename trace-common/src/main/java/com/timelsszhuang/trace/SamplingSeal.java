@@ -0,0 +1,114 @@
+package com.timelsszhuang.trace;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * 网关的采样封印：tracestate 中的 gw=&lt;MAC&gt; 条目，MAC 覆盖 traceId 和采样标记
+ *
+ * 网关转发时写入封印，各服务按 W3C 规范原样传递 tracestate。服务经网关公网端口发出的调用带回封印，
+ * 网关校验通过即沿用入站的采样标记（同一条链路的各跳要么都记录，要么都不记录）；
+ * 客户端没有密钥，伪造或篡改采样标记时封印校验失败，按采样比例重新决定。
+ * 多个网关实例需配置同一个密钥，否则经其他实例转发的调用无法校验
+ *
+ * @author timelsszhuang
+ */
+public final class SamplingSeal {
+
+    /**
+     * tracestate 中网关条目的 key
+     */
+    public static final String KEY = "gw";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 8;
+    private static final int MAX_MEMBERS = 32;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> mac;
+
+    public SamplingSeal(byte[] secret) {
+        if (secret == null || secret.length < 32) {
+            throw new IllegalArgumentException("采样封印密钥至少 256 bit");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+        newMac();
+    }
+
+    /**
+     * 入站 traceparent 的采样标记是否由网关决定（tracestate 中有与 traceId、采样标记匹配的封印）
+     */
+    public boolean verify(String traceparent, String tracestate) {
+        TraceContext context = TraceContext.parse(traceparent);
+        String sealed = member(tracestate);
+        if (context == null || sealed == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(context.traceId(), context.sampled()).getBytes(StandardCharsets.US_ASCII),
+                sealed.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 向下游传递的 tracestate：本网关的封印放在最前面，其余条目原样保留（最多 32 个）
+     *
+     * @param span      网关 Span
+     * @param tracestate 入站的 tracestate，可以为 null
+     */
+    public String seal(Span span, String tracestate) {
+        StringBuilder result = new StringBuilder(KEY.length() + 1 + MAC_BYTES * 2)
+                .append(KEY).append('=').append(sign(span.getTraceId(), span.isSampled()));
+        if (tracestate != null) {
+            int members = 1;
+            for (String member : tracestate.split(",")) {
+                member = member.trim();
+                if (member.isEmpty() || isOwn(member)) {
+                    continue;
+                }
+                if (++members > MAX_MEMBERS) {
+                    break;
+                }
+                result.append(',').append(member);
+            }
+        }
+        return result.toString();
+    }
+
+    private String sign(String traceId, boolean sampled) {
+        Mac instance = mac.get();
+        instance.update(traceId.getBytes(StandardCharsets.US_ASCII));
+        byte[] digest = instance.doFinal(sampled ? new byte[]{1} : new byte[]{0});
+        return HexFormat.of().formatHex(digest, 0, MAC_BYTES);
+    }
+
+    private static String member(String tracestate) {
+        if (tracestate == null) {
+            return null;
+        }
+        for (String member : tracestate.split(",")) {
+            member = member.trim();
+            if (isOwn(member)) {
+                return member.substring(KEY.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isOwn(String member) {
+        return member.length() > KEY.length() && member.startsWith(KEY) && member.charAt(KEY.length()) == '=';
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法初始化 " + ALGORITHM, e);
+        }
+    }
+}
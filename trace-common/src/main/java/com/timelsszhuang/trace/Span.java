@@ -0,0 +1,156 @@
+package com.timelsszhuang.trace;
+
+/**
+ * 一次调用的耗时记录
+ *
+ * 未采样的 Span 只用于传递 traceparent：不读取时钟，{@link #end} 直接返回，也不会进入环形缓冲区或文件
+ *
+ * @author timelsszhuang
+ */
+public final class Span {
+
+    public enum Kind {
+        /**
+         * 服务端：网关或服务处理一个入站请求
+         */
+        SERVER,
+        /**
+         * 客户端：服务发出的调用（RestTemplate）
+         */
+        CLIENT
+    }
+
+    private final Tracer tracer;
+    private final TraceContext context;
+    private final String parentId;
+    private final String tracestate;
+    private final Kind kind;
+    private final String name;
+    private final long startMicros;
+    private final long startNanos;
+
+    private long durationMicros = -1;
+    private int status;
+
+    Span(Tracer tracer, TraceContext context, String parentId, String tracestate, Kind kind, String name) {
+        this.tracer = tracer;
+        this.context = context;
+        this.parentId = parentId;
+        this.tracestate = tracestate;
+        this.kind = kind;
+        this.name = name;
+        if (context.sampled()) {
+            this.startMicros = System.currentTimeMillis() * 1000;
+            this.startNanos = System.nanoTime();
+        } else {
+            this.startMicros = 0;
+            this.startNanos = 0;
+        }
+    }
+
+    /**
+     * 结束并记录（已采样时），重复调用只记录第一次
+     *
+     * @param status HTTP 状态码，调用失败（没有响应）时为 0
+     */
+    public void end(int status) {
+        if (!context.sampled() || durationMicros >= 0) {
+            return;
+        }
+        this.durationMicros = (System.nanoTime() - startNanos) / 1000;
+        this.status = status;
+        tracer.record(this);
+    }
+
+    /**
+     * 向下游传递的 traceparent，下游 Span 以本 Span 为父节点
+     */
+    public String traceparent() {
+        return context.traceparent();
+    }
+
+    /**
+     * 向下游原样传递的 tracestate（入站请求没有时为 null）
+     */
+    public String tracestate() {
+        return tracestate;
+    }
+
+    public String getTraceId() {
+        return context.traceId();
+    }
+
+    public String getSpanId() {
+        return context.spanId();
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public boolean isSampled() {
+        return context.sampled();
+    }
+
+    public String getService() {
+        return tracer.getService();
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 开始时间（Unix 微秒）
+     */
+    public long getStartMicros() {
+        return startMicros;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * 一行 JSON，写入 Span 文件
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"traceId\":\"").append(context.traceId())
+                .append("\",\"spanId\":\"").append(context.spanId()).append('"');
+        if (parentId != null) {
+            json.append(",\"parentId\":\"").append(parentId).append('"');
+        }
+        json.append(",\"service\":");
+        appendString(json, tracer.getService());
+        json.append(",\"kind\":\"").append(kind).append("\",\"name\":");
+        appendString(json, name);
+        return json.append(",\"start\":").append(startMicros)
+                .append(",\"duration\":").append(durationMicros)
+                .append(",\"status\":").append(status)
+                .append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,96 @@
+package com.timelsszhuang.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批量写入 Span 文件（每行一个 JSON）
+ *
+ * 请求线程只把 Span 放入有界队列，后台线程按间隔批量追加到文件；队列满时丢弃并计数，不阻塞请求
+ *
+ * @author timelsszhuang
+ */
+public class SpanFileWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpanFileWriter.class);
+
+    private final Path file;
+    private final BlockingQueue<Span> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final ScheduledExecutorService flusher;
+
+    public SpanFileWriter(Path file, int queueSize, Duration flushInterval) {
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "span-file-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void offer(Span span) {
+        if (!queue.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * 关闭时写出队列中剩余的 Span
+     */
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    synchronized void flush() {
+        if (queue.isEmpty()) {
+            return;
+        }
+        List<Span> batch = new ArrayList<>(queue.size());
+        queue.drainTo(batch);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Span span : batch) {
+                    writer.write(span.toJson());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            dropped.add(batch.size());
+            logger.warn("Span 文件写入失败，丢弃 {} 个 Span: file={}, error={}", batch.size(), file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.timelsszhuang.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 最近完成的 Span（固定容量，写满后覆盖最旧的），写入只有一次 CAS 自增，不加锁
+ *
+ * @author timelsszhuang
+ */
+public class SpanRingBuffer {
+
+    private final AtomicReferenceArray<Span> spans;
+    private final AtomicLong next = new AtomicLong();
+
+    public SpanRingBuffer(int capacity) {
+        this.spans = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    public void add(Span span) {
+        spans.lazySet((int) (next.getAndIncrement() % spans.length()), span);
+    }
+
+    /**
+     * 按完成时间从旧到新返回
+     *
+     * @param traceId 为 null 时返回全部
+     */
+    public List<Span> snapshot(String traceId) {
+        long end = next.get();
+        long start = Math.max(0, end - spans.length());
+        List<Span> result = new ArrayList<>();
+        for (long i = start; i < end; i++) {
+            Span span = spans.get((int) (i % spans.length()));
+            if (span != null && (traceId == null || traceId.equals(span.getTraceId()))) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+package com.timelsszhuang.trace;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/spans：环形缓冲区中最近完成的 Span，?traceId= 查看一条链路在本服务内的 Span
+ *
+ * @author timelsszhuang
+ */
+@Endpoint(id = "spans")
+public class SpansEndpoint {
+
+    private final Tracer tracer;
+
+    public SpansEndpoint(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> spans(@Nullable String traceId) {
+        List<Span> spans = tracer.getRingBuffer().snapshot(traceId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("service", tracer.getService());
+        result.put("sampleRate", tracer.getSampleRate());
+        if (tracer.getFileWriter() != null) {
+            result.put("fileDropped", tracer.getFileWriter().getDropped());
+        }
+        result.put("count", spans.size());
+        result.put("spans", spans);
+        return result;
+    }
+}
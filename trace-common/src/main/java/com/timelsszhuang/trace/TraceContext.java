@@ -0,0 +1,106 @@
+package com.timelsszhuang.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W3C Trace Context 的 traceparent：00-{32 位十六进制 trace-id}-{16 位十六进制 parent-id}-{flags}
+ *
+ * @param traceId 32 位小写十六进制
+ * @param spanId  16 位小写十六进制
+ * @param sampled flags 的 sampled 位
+ * @author timelsszhuang
+ */
+public record TraceContext(String traceId, String spanId, boolean sampled) {
+
+    public static final String HEADER = "traceparent";
+
+    /**
+     * 各厂商的附加状态，服务原样传递
+     */
+    public static final String STATE_HEADER = "tracestate";
+
+    private static final int LENGTH = 55;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 解析 traceparent，格式不合法（包括全 0 的 ID、版本 ff）时返回 null，由调用方开始新的 trace
+     */
+    public static TraceContext parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        header = header.trim();
+        // 00 版本固定 55 个字符；更高版本可能在末尾追加字段，只取前 55 个字符
+        if (header.length() < LENGTH || (header.length() > LENGTH && header.charAt(LENGTH) != '-')
+                || header.charAt(2) != '-' || header.charAt(35) != '-' || header.charAt(52) != '-') {
+            return null;
+        }
+        String version = header.substring(0, 2);
+        String traceId = header.substring(3, 35);
+        String spanId = header.substring(36, 52);
+        String flags = header.substring(53, 55);
+        if (!isHex(version) || "ff".equals(version) || ("00".equals(version) && header.length() != LENGTH)
+                || !isHex(traceId) || isZero(traceId) || !isHex(spanId) || isZero(spanId) || !isHex(flags)) {
+            return null;
+        }
+        return new TraceContext(traceId, spanId, (Character.digit(flags.charAt(1), 16) & 1) == 1);
+    }
+
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    public static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high;
+        long low;
+        do {
+            high = random.nextLong();
+            low = random.nextLong();
+        } while (high == 0 && low == 0);
+        char[] chars = new char[32];
+        toHex(high, chars, 0);
+        toHex(low, chars, 16);
+        return new String(chars);
+    }
+
+    public static String newSpanId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id;
+        do {
+            id = random.nextLong();
+        } while (id == 0);
+        char[] chars = new char[16];
+        toHex(id, chars, 0);
+        return new String(chars);
+    }
+
+    private static void toHex(long value, char[] chars, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * 规范要求小写十六进制
+     */
+    private static boolean isHex(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,40 @@
+package com.timelsszhuang.trace;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet 服务的入站 Span：继续请求头 traceparent 的链路，处理期间设为当前线程的 Span，
+ * 同一线程中经 RestTemplate 发出的调用以它为父节点（异步 Servlet 请求在 filter 返回时结束）
+ *
+ * @author timelsszhuang
+ */
+public class TraceServletFilter extends OncePerRequestFilter {
+
+    private final Tracer tracer;
+
+    public TraceServletFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Span span = tracer.startServer(request.getMethod() + " " + request.getRequestURI(),
+                request.getHeader(TraceContext.HEADER), request.getHeader(TraceContext.STATE_HEADER), true);
+        Span previous = Tracer.makeCurrent(span);
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            Tracer.restore(previous);
+            span.end(status);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.timelsszhuang.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 轻量链路追踪：按 W3C traceparent 传递上下文，按比例采样，完成的 Span 写入环形缓冲区和（可选）文件
+ *
+ * 采样在链路入口决定一次（没有合法的入站 traceparent，或请求来自外部客户端时），下游沿用 traceparent 中的
+ * sampled 标记，因此同一条链路要么完整记录，要么都不记录。服务经网关公网端口发出的调用同样沿用：
+ * 网关在 tracestate 中写入采样封印（{@link SamplingSeal}），各服务原样传递，网关据此区分自己做出的采样决定和客户端伪造的标记。
+ * 未采样的请求只生成 ID 并传递请求头
+ *
+ * @author timelsszhuang
+ */
+public class Tracer {
+
+    /**
+     * Servlet 服务中当前线程正在处理的 Span（网关为 WebFlux，不使用 ThreadLocal）
+     */
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final String service;
+    private final double sampleRate;
+    private final SpanRingBuffer ringBuffer;
+    private final SpanFileWriter fileWriter;
+
+    /**
+     * @param service    服务名（spring.application.name）
+     * @param sampleRate 采样比例 0~1
+     * @param fileWriter 为 null 时只写入环形缓冲区
+     */
+    public Tracer(String service, double sampleRate, SpanRingBuffer ringBuffer, SpanFileWriter fileWriter) {
+        this.service = service;
+        this.sampleRate = sampleRate;
+        this.ringBuffer = ringBuffer;
+        this.fileWriter = fileWriter;
+    }
+
+    /**
+     * 开始处理入站请求：继续入站 traceparent 的链路，没有或不合法时按采样比例开始新链路
+     */
+    public Span startServer(String name, String traceparent) {
+        return startServer(name, traceparent, null, true);
+    }
+
+    public Span startServer(String name, String traceparent, boolean trustSampled) {
+        return startServer(name, traceparent, null, trustSampled);
+    }
+
+    /**
+     * 开始处理入站请求
+     *
+     * @param tracestate   入站的 tracestate，随出站调用原样传递（网关的采样封印见 {@link SamplingSeal}）
+     * @param trustSampled 是否沿用入站 traceparent 的采样标记；来自外部客户端的请求传 false，
+     *                     仍继续其 traceId，但按本服务的采样比例重新决定（客户端不能强制记录每个请求）
+     */
+    public Span startServer(String name, String traceparent, String tracestate, boolean trustSampled) {
+        TraceContext parent = TraceContext.parse(traceparent);
+        if (parent == null) {
+            return new Span(this, new TraceContext(TraceContext.newTraceId(), TraceContext.newSpanId(), sample()),
+                    null, null, Span.Kind.SERVER, name);
+        }
+        boolean sampled = trustSampled ? parent.sampled() : sample();
+        return new Span(this, new TraceContext(parent.traceId(), TraceContext.newSpanId(), sampled),
+                parent.spanId(), tracestate, Span.Kind.SERVER, name);
+    }
+
+    /**
+     * 开始一次出站调用，父节点为当前线程的 Span；没有时（例如定时任务）按采样比例开始新链路
+     */
+    public Span startClient(String name) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return new Span(this, new TraceContext(TraceContext.newTraceId(), TraceContext.newSpanId(), sample()),
+                    null, null, Span.Kind.CLIENT, name);
+        }
+        return new Span(this, new TraceContext(parent.getTraceId(), TraceContext.newSpanId(), parent.isSampled()),
+                parent.getSpanId(), parent.tracestate(), Span.Kind.CLIENT, name);
+    }
+
+    public static Span current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设为当前线程的 Span
+     *
+     * @return 之前的 Span，处理结束后传给 {@link #restore}
+     */
+    public static Span makeCurrent(Span span) {
+        Span previous = CURRENT.get();
+        CURRENT.set(span);
+        return previous;
+    }
+
+    public static void restore(Span previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 写出文件队列中剩余的 Span
+     */
+    public void close() {
+        if (fileWriter != null) {
+            fileWriter.close();
+        }
+    }
+
+    void record(Span span) {
+        ringBuffer.add(span);
+        if (fileWriter != null) {
+            fileWriter.offer(span);
+        }
+    }
+
+    private boolean sample() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public SpanRingBuffer getRingBuffer() {
+        return ringBuffer;
+    }
+
+    public SpanFileWriter getFileWriter() {
+        return fileWriter;
+    }
+}
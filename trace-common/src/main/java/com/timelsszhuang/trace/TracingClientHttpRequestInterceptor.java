@@ -0,0 +1,42 @@
+package com.timelsszhuang.trace;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * RestTemplate 出站 Span：以当前线程的 Span 为父节点，并通过 traceparent 请求头传给被调用方（tracestate 原样传递）
+ *
+ * @author timelsszhuang
+ */
+public class TracingClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Tracer tracer;
+
+    public TracingClientHttpRequestInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        URI uri = request.getURI();
+        Span span = tracer.startClient(request.getMethod() + " " + uri.getHost() + uri.getRawPath());
+        request.getHeaders().set(TraceContext.HEADER, span.traceparent());
+        if (span.tracestate() != null) {
+            request.getHeaders().set(TraceContext.STATE_HEADER, span.tracestate());
+        }
+        int status = 0;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = response.getStatusCode().value();
+            return response;
+        } finally {
+            span.end(status);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.timelsszhuang.trace.config;
+
+import com.timelsszhuang.trace.SpanFileWriter;
+import com.timelsszhuang.trace.SpanRingBuffer;
+import com.timelsszhuang.trace.SpansEndpoint;
+import com.timelsszhuang.trace.TraceServletFilter;
+import com.timelsszhuang.trace.Tracer;
+import com.timelsszhuang.trace.TracingClientHttpRequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * 链路追踪自动配置
+ *
+ * 所有服务注册 Tracer 和 /actuator/spans；Servlet 服务额外注册入站过滤器和 RestTemplate 拦截器
+ * （拦截器需要在创建 RestTemplate 时加入），网关的入站 Span 由 gateway-service 的 TracingFilter 创建
+ *
+ * @author timelsszhuang
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "tracing", name = "enabled", matchIfMissing = true)
+public class TracingAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public Tracer tracer(TracingProperties properties, @Value("${spring.application.name:application}") String service) {
+        SpanFileWriter fileWriter = StringUtils.hasText(properties.getFile())
+                ? new SpanFileWriter(Path.of(properties.getFile()), properties.getQueueSize(), properties.getFlushInterval())
+                : null;
+        return new Tracer(service, properties.getSampleRate(), new SpanRingBuffer(properties.getRingSize()), fileWriter);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnAvailableEndpoint
+        public SpansEndpoint spansEndpoint(Tracer tracer) {
+            return new SpansEndpoint(tracer);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletConfiguration {
+
+        @Bean
+        public FilterRegistrationBean<TraceServletFilter> traceServletFilter(Tracer tracer) {
+            FilterRegistrationBean<TraceServletFilter> registration = new FilterRegistrationBean<>(new TraceServletFilter(tracer));
+            // 最先执行，Span 覆盖其他过滤器的耗时
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+
+        @Bean
+        @ConditionalOnClass(RestTemplate.class)
+        public TracingClientHttpRequestInterceptor tracingClientHttpRequestInterceptor(Tracer tracer) {
+            return new TracingClientHttpRequestInterceptor(tracer);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.timelsszhuang.trace.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 链路追踪配置
+ *
+ * @author timelsszhuang
+ */
+@Data
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    /**
+     * 是否开启（关闭后不生成也不传递 traceparent）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 链路入口的采样比例 0~1，下游服务沿用入口的采样结果
+     */
+    private double sampleRate = 0.01;
+
+    /**
+     * 内存中保留的最近 Span 数量（/actuator/spans）
+     */
+    private int ringSize = 2048;
+
+    /**
+     * Span 文件，每行一个 JSON；为空表示只保留在内存中
+     */
+    private String file;
+
+    /**
+     * 文件批量写入间隔
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * 等待写入文件的 Span 上限，超出后丢弃
+     */
+    private int queueSize = 8192;
+
+    /**
+     * 网关采样封印密钥（Base64，至少 256 bit，见 SamplingSeal），多个网关实例需配置同一个；
+     * 为空时网关启动时随机生成（只适用于单实例）
+     */
+    private String sealSecret;
+}
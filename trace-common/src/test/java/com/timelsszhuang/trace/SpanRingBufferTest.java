@@ -0,0 +1,48 @@
+package com.timelsszhuang.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 环形缓冲区写满后覆盖最旧的 Span，快照按完成顺序返回
+ *
+ * @author timelsszhuang
+ */
+class SpanRingBufferTest {
+
+    @Test
+    void wrapsAroundKeepingNewest() {
+        SpanRingBuffer ring = new SpanRingBuffer(3);
+        Tracer tracer = new Tracer("gateway-service", 1, ring, null);
+        assertTrue(ring.snapshot(null).isEmpty());
+
+        List<Span> spans = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Span span = tracer.startServer("GET /" + i, null);
+            span.end(200);
+            spans.add(span);
+            int expected = Math.min(i + 1, 3);
+            assertEquals(spans.subList(spans.size() - expected, spans.size()), ring.snapshot(null));
+        }
+
+        // 按 traceId 过滤：已被覆盖的 Span 查不到
+        assertTrue(ring.snapshot(spans.get(0).getTraceId()).isEmpty());
+        assertEquals(List.of(spans.get(6)), ring.snapshot(spans.get(6).getTraceId()));
+    }
+
+    @Test
+    void capacityAtLeastOne() {
+        SpanRingBuffer ring = new SpanRingBuffer(0);
+        Tracer tracer = new Tracer("gateway-service", 1, ring, null);
+        Span first = tracer.startServer("GET /first", null);
+        Span second = tracer.startServer("GET /second", null);
+        first.end(200);
+        second.end(200);
+        assertEquals(List.of(second), ring.snapshot(null));
+    }
+}
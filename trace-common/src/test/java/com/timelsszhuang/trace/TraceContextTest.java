@@ -0,0 +1,70 @@
+package com.timelsszhuang.trace;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * traceparent 解析与父子 Span 的传递
+ *
+ * @author timelsszhuang
+ */
+class TraceContextTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Test
+    void parsesAndRejectsTraceparent() {
+        TraceContext context = TraceContext.parse("00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+        assertEquals(TRACE_ID, context.traceId());
+        assertEquals("00f067aa0ba902b7", context.spanId());
+        assertTrue(context.sampled());
+        assertEquals("00-" + TRACE_ID + "-00f067aa0ba902b7-01", context.traceparent());
+        assertFalse(TraceContext.parse("00-" + TRACE_ID + "-00f067aa0ba902b7-00").sampled());
+        // 更高版本允许追加字段
+        assertTrue(TraceContext.parse("01-" + TRACE_ID + "-00f067aa0ba902b7-03-extra").sampled());
+
+        assertNull(TraceContext.parse(null));
+        assertNull(TraceContext.parse("00-" + TRACE_ID + "-00f067aa0ba902b7-01-extra"));
+        assertNull(TraceContext.parse("ff-" + TRACE_ID + "-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-" + TRACE_ID + "-0000000000000000-01"));
+        assertNull(TraceContext.parse("00-" + TRACE_ID.toUpperCase() + "-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-" + TRACE_ID + "-00f067aa0ba902b7"));
+    }
+
+    @Test
+    void childSpansContinueTraceAndSamplingDecision() {
+        SpanRingBuffer ring = new SpanRingBuffer(4);
+        Tracer tracer = new Tracer("service-consumer", 0, ring, null);
+
+        // 入站请求已采样：即使本服务采样率为 0 也记录
+        Span server = tracer.startServer("GET /api/purchase", "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+        assertEquals(TRACE_ID, server.getTraceId());
+        assertEquals("00f067aa0ba902b7", server.getParentId());
+        Span previous = Tracer.makeCurrent(server);
+        Span client = tracer.startClient("POST localhost/provider/order/create");
+        Tracer.restore(previous);
+        assertEquals(server.getSpanId(), client.getParentId());
+        assertNotEquals(server.getSpanId(), client.getSpanId());
+        assertTrue(client.traceparent().endsWith("-" + client.getSpanId() + "-01"));
+
+        client.end(200);
+        server.end(200);
+        server.end(500);
+        assertEquals(2, ring.snapshot(TRACE_ID).size());
+        assertEquals(200, ring.snapshot(null).get(1).getStatus());
+
+        // 没有入站 traceparent 时按采样率开始新链路，未采样的 Span 不记录但仍传递 traceparent
+        Span root = tracer.startServer("GET /api/hello", "invalid");
+        assertNull(root.getParentId());
+        assertTrue(root.traceparent().endsWith("-00"));
+        root.end(200);
+        assertEquals(2, ring.snapshot(null).size());
+        assertTrue(server.toJson().contains("\"parentId\":\"00f067aa0ba902b7\""));
+    }
+}
@@ -0,0 +1,157 @@
+package com.timelsszhuang.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 跨服务的父子 Span 传递与采样决定
+ *
+ * @author timelsszhuang
+ */
+class TracerTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void propagatesParentAcrossServices() {
+        SpanRingBuffer ring = new SpanRingBuffer(16);
+        Tracer gateway = new Tracer("gateway-service", 1, ring, null);
+        Tracer consumer = new Tracer("service-consumer", 0, ring, null);
+        Tracer provider = new Tracer("service-provider", 0, ring, null);
+
+        // 网关 → consumer → provider，每一跳的父节点都是上一跳的 Span，traceId 不变
+        Span entry = gateway.startServer("GET /consumer/purchase", null);
+        Span consumerServer = consumer.startServer("GET /api/purchase", entry.traceparent());
+        Span previous = Tracer.makeCurrent(consumerServer);
+        Span consumerClient = consumer.startClient("POST service-provider/api/order/create");
+        assertSame(consumerServer, Tracer.current());
+        Tracer.restore(previous);
+        assertNull(Tracer.current());
+        Span providerServer = provider.startServer("POST /api/order/create", consumerClient.traceparent());
+
+        assertNull(entry.getParentId());
+        assertEquals(entry.getSpanId(), consumerServer.getParentId());
+        assertEquals(consumerServer.getSpanId(), consumerClient.getParentId());
+        assertEquals(consumerClient.getSpanId(), providerServer.getParentId());
+        for (Span span : new Span[]{consumerServer, consumerClient, providerServer}) {
+            assertEquals(entry.getTraceId(), span.getTraceId());
+            // 下游采样率为 0，但沿用入口的采样结果
+            assertTrue(span.isSampled());
+            span.end(200);
+        }
+        entry.end(200);
+        assertEquals(4, ring.snapshot(entry.getTraceId()).size());
+
+        // 没有当前 Span 的出站调用开始新链路
+        Span orphan = consumer.startClient("GET service-provider/api/hello");
+        assertNull(orphan.getParentId());
+        assertFalse(orphan.isSampled());
+    }
+
+    @Test
+    void keepsSamplingThroughGatewayPublicPort() {
+        SpanRingBuffer ring = new SpanRingBuffer(16);
+        SamplingSeal seal = new SamplingSeal(SECRET);
+        // 两个共享密钥的网关实例：采样率 1 的实例做入口，采样率 0 的实例处理回调，回调必须沿用入口的采样结果
+        Tracer entryGateway = new Tracer("gateway-service", 1, ring, null);
+        Tracer callbackGateway = new Tracer("gateway-service", 0, ring, null);
+        Tracer consumer = new Tracer("service-consumer", 0, ring, null);
+        Tracer provider = new Tracer("service-provider", 0, ring, null);
+
+        // 客户端 → 网关 → consumer（tracestate 原样进入 consumer 的 Span）
+        Hop entry = gatewayHop(entryGateway, seal, null, null);
+        Span consumerServer = consumer.startServer("POST /api/seata/purchase",
+                entry.span().traceparent(), entry.tracestate(), true);
+        Span previous = Tracer.makeCurrent(consumerServer);
+        Span consumerClient = consumer.startClient("POST 127.0.0.1/provider/order/create");
+        Tracer.restore(previous);
+        assertEquals(entry.tracestate(), consumerClient.tracestate());
+
+        // consumer → 网关公网端口 → provider
+        Hop callback = gatewayHop(callbackGateway, seal, consumerClient.traceparent(), consumerClient.tracestate());
+        Span providerServer = provider.startServer("POST /api/order/create",
+                callback.span().traceparent(), callback.tracestate(), true);
+
+        assertEquals(consumerClient.getSpanId(), callback.span().getParentId());
+        assertEquals(callback.span().getSpanId(), providerServer.getParentId());
+        for (Span span : new Span[]{entry.span(), consumerServer, consumerClient, callback.span(), providerServer}) {
+            assertEquals(entry.span().getTraceId(), span.getTraceId());
+            assertTrue(span.isSampled());
+            span.end(200);
+        }
+        assertEquals(5, ring.snapshot(entry.span().getTraceId()).size());
+
+        // 反过来：入口未采样的链路在采样率 1 的实例上同样保持未采样，不产生零散的 Span
+        Hop unsampled = gatewayHop(callbackGateway, seal, null, null);
+        Hop unsampledCallback = gatewayHop(entryGateway, seal, unsampled.span().traceparent(), unsampled.tracestate());
+        assertFalse(unsampled.span().isSampled());
+        assertFalse(unsampledCallback.span().isSampled());
+    }
+
+    @Test
+    void forgedSealIsNotTrusted() {
+        SamplingSeal seal = new SamplingSeal(SECRET);
+        Tracer gateway = new Tracer("gateway-service", 0, new SpanRingBuffer(4), null);
+        String forced = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+
+        // 没有封印、伪造的封印、其他密钥的封印、翻转采样标记后沿用原封印：都按本服务的采样率重新决定
+        assertFalse(gatewayHop(gateway, seal, forced, null).span().isSampled());
+        assertFalse(gatewayHop(gateway, seal, forced, "gw=0123456789abcdef").span().isSampled());
+        Span other = new Tracer("gateway-service", 1, new SpanRingBuffer(4), null).startServer("GET /", forced, false);
+        String foreign = new SamplingSeal(new byte[32]).seal(other, null);
+        assertFalse(gatewayHop(gateway, seal, forced, foreign).span().isSampled());
+        Span unsampled = gateway.startServer("GET /", "00-" + TRACE_ID + "-00f067aa0ba902b7-00", true);
+        String flipped = seal.seal(unsampled, null);
+        assertFalse(gatewayHop(gateway, seal, forced, flipped).span().isSampled());
+
+        // 封印替换旧的网关条目，其他厂商的条目原样保留
+        Hop hop = gatewayHop(gateway, seal, forced, "vendor=abc, gw=0123456789abcdef,other=1");
+        assertTrue(hop.tracestate().startsWith("gw="));
+        assertTrue(hop.tracestate().endsWith(",vendor=abc,other=1"));
+        assertTrue(seal.verify(hop.span().traceparent(), hop.tracestate()));
+    }
+
+    @Test
+    void untrustedSamplingIsDecidedLocally() {
+        SpanRingBuffer ring = new SpanRingBuffer(4);
+        String forced = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+
+        // 外部客户端带 sampled=01：继续其 traceId，但按本服务的采样率（0）重新决定
+        Span span = new Tracer("gateway-service", 0, ring, null).startServer("GET /provider/hello", forced, false);
+        assertEquals(TRACE_ID, span.getTraceId());
+        assertEquals("00f067aa0ba902b7", span.getParentId());
+        assertFalse(span.isSampled());
+        assertTrue(span.traceparent().endsWith("-00"));
+        span.end(200);
+        assertTrue(ring.snapshot(null).isEmpty());
+
+        // 未采样的入站请求同样可以被本服务采样
+        Span sampled = new Tracer("gateway-service", 1, ring, null)
+                .startServer("GET /provider/hello", "00-" + TRACE_ID + "-00f067aa0ba902b7-00", false);
+        assertTrue(sampled.isSampled());
+
+        // 服务间调用沿用入站的采样标记
+        assertTrue(new Tracer("gateway-service", 0, ring, null).startServer("GET /provider/hello", forced, true).isSampled());
+        assertTrue(new Tracer("gateway-service", 0, ring, null).startServer("GET /provider/hello", forced).isSampled());
+    }
+
+    /**
+     * 与网关 TracingFilter 相同：公网端口只信任有效封印，转发时写入新的封印
+     */
+    private static Hop gatewayHop(Tracer gateway, SamplingSeal seal, String traceparent, String tracestate) {
+        Span span = gateway.startServer("POST /provider/order/create", traceparent, tracestate,
+                seal.verify(traceparent, tracestate));
+        return new Hop(span, seal.seal(span, tracestate));
+    }
+
+    private record Hop(Span span, String tracestate) {
+    }
+}